@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.access.metrics.AccessLogMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording into the same route from several threads at once, with one histogram stripe and with one per thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class AccessLogMetricsBenchmark {
+
+    @Param({"1", "4"})
+    private int stripes;
+
+    private AccessLogMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        metrics = new AccessLogMetrics(AccessLogMetrics.DEFAULT_MAX_SERIES, stripes);
+    }
+
+    @Benchmark
+    public void record() {
+        long duration = ThreadLocalRandom.current().nextLong(200, 200_000);
+        metrics.record("/users/{id}", "GET", 200, duration, 0, 1_024);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.record.MdcAccessLogRecordAdapter;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import ee.datanor.spring.logger.access.sink.file.FileAccessLogSink;
+import ee.datanor.spring.logger.access.sink.file.FileAccessLogSinkBuilder;
+import ee.datanor.spring.logger.access.sink.ring.RingBufferAccessLogSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writing a request and a response line to a file: through SLF4J, the MDC and log4j2 {@code RollingRandomAccessFile}
+ * appenders with the README patterns, against {@link FileAccessLogSink} and, for reference, the
+ * memory-mapped {@link RingBufferAccessLogSink}. The log4j2 appenders, configured in
+ * {@code log4j2.xml}, write to {@code access-log-benchmark} in the temp directory without flushing every line. Run
+ * with {@code -t} above 1 to see the group commit of concurrent writers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AccessLogSinkBenchmark {
+    private static final Logger REQUEST_LOGGER = LoggerFactory.getLogger("file-benchmark-request-log");
+    private static final Logger RESPONSE_LOGGER = LoggerFactory.getLogger("file-benchmark-response-log");
+
+    @Param({"0", "1024"})
+    private int bodySize;
+
+    /**
+     * "log4j2" writes through the appenders, "sink" through the sink leaving the disk sync to the operating system
+     * like the appenders, and "sink-sync" through the sink forcing the file after every MiB or second
+     * and "ring" into a ring buffer of 4 KiB slots.
+     */
+    @Param({"log4j2", "sink", "sink-sync", "ring"})
+    private String writer;
+
+    private Path directory;
+    private AccessLogSink sink;
+    private AccessLogRecord record;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("access-log-sink-benchmark");
+        FileAccessLogSinkBuilder builder = FileAccessLogSink.builder(directory.resolve("access.log")).maxFileSize(256L * 1024 * 1024);
+        if ("sink".equals(writer)) {
+            sink = builder.noSync().build();
+        } else if ("sink-sync".equals(writer)) {
+            sink = builder.sync(1024 * 1024, Duration.ofSeconds(1)).build();
+        } else if ("ring".equals(writer)) {
+            sink = RingBufferAccessLogSink.builder(directory.resolve("access.ring")).slotSize(4096).build();
+        }
+        String body = new String(BenchmarkFixtures.jsonBody(bodySize), StandardCharsets.UTF_8);
+        record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_HASH, "Xk3fP9aQ");
+        record.set(AccessLogField.SERVER_NAME, "localhost");
+        record.set(AccessLogField.SERVER_PORT, "8080");
+        record.set(AccessLogField.CLIENT_IP, "10.0.0.1");
+        record.set(AccessLogField.REQUEST_LINE, "POST /api/users/123/orders?page=2 HTTP/1.1");
+        record.set(AccessLogField.REQUEST_HEADERS, "[accept:application/json, content-type:application/json, x-request-id:abc]");
+        record.set(AccessLogField.REQUEST_BODY_LENGTH, Integer.toString(bodySize));
+        record.set(AccessLogField.REQUEST_BODY, body);
+        record.set(AccessLogField.PROCESSING_TIME, "12");
+        record.set(AccessLogField.RESPONSE_STATUS, "200");
+        record.set(AccessLogField.RESPONSE_HEADERS, "[content-type:application/json]");
+        record.set(AccessLogField.RESPONSE_BODY_LENGTH, Integer.toString(bodySize));
+        record.set(AccessLogField.RESPONSE_BODY, body);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (sink != null) {
+            sink.close();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void write() {
+        if (sink != null) {
+            sink.write(AccessLogLine.REQUEST, record);
+            sink.write(AccessLogLine.RESPONSE, record);
+        } else {
+            MdcAccessLogRecordAdapter.publish(record);
+            REQUEST_LOGGER.info("Incoming Request {}", record.get(AccessLogField.REQUEST_LINE));
+            RESPONSE_LOGGER.info("Outgoing response {}", record.get(AccessLogField.REQUEST_LINE));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.access.AccessLoggerBuilder;
+import ee.datanor.spring.logger.access.AccessLoggingFilter;
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.async.OverflowPolicy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole filter chain: request wrapping, request and response processors, log emission and copying the cached
+ * response body back to the client. {@link #baseline()} runs the same chain without the filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AccessLoggingFilterBenchmark {
+
+    @Param({"0", "2048", "65536"})
+    private int bodySize;
+
+    @Param({"4", "16"})
+    private int headerCount;
+
+    @Param({"1", "10", "50"})
+    private int maskerCount;
+
+    /**
+     * "buffered" reads the request body ahead and holds the response until the chain completes, "streaming"
+     * captures bounded body prefixes while the application reads and writes.
+     */
+    @Param({"buffered", "streaming"})
+    private String bodyCapture;
+
+    /**
+     * "sync" masks and writes on the request thread, "async" hands that off to an {@link AsyncAccessLogDispatcher}.
+     */
+    @Param({"sync", "async"})
+    private String dispatch;
+
+    private AsyncAccessLogDispatcher dispatcher;
+    private AccessLoggingFilter filter;
+    private FilterChain chain;
+    private byte[] requestBody;
+
+    @Setup
+    public void setUp() {
+        AccessLoggerBuilder builder = BenchmarkFixtures.accessLoggerBuilder(headerCount, maskerCount);
+        if ("streaming".equals(bodyCapture)) {
+            builder.captureRequestBodyOnRead().streamResponseBody();
+        }
+        if ("async".equals(dispatch)) {
+            dispatcher = new AsyncAccessLogDispatcher(4096, 1, OverflowPolicy.DROP_BODIES_FIRST);
+            builder.asyncDispatcher(dispatcher);
+        }
+        filter = new AccessLoggingFilter(builder.build());
+        requestBody = BenchmarkFixtures.jsonBody(bodySize);
+        byte[] responseBody = BenchmarkFixtures.jsonBody(bodySize);
+        chain = (request, response) -> {
+            request.getInputStream().readAllBytes();
+            response.setContentType("application/json");
+            response.getOutputStream().write(responseBody);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter() throws ServletException, IOException {
+        MockHttpServletRequest request = BenchmarkFixtures.request(headerCount, requestBody);
+        MockHttpServletResponse response = BenchmarkFixtures.response(0);
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse baseline() throws ServletException, IOException {
+        MockHttpServletRequest request = BenchmarkFixtures.request(headerCount, requestBody);
+        MockHttpServletResponse response = BenchmarkFixtures.response(0);
+        chain.doFilter(request, response);
+        return response;
+    }
+}
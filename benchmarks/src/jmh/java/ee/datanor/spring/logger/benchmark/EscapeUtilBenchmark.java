@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.util.EscapeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EscapeUtilBenchmark {
+
+    @Param({"64", "2048"})
+    private int length;
+
+    private String plain;
+    private String withControlCharacters;
+    private StringBuilder buffer;
+
+    @Setup
+    public void setUp() {
+        withControlCharacters = new String(BenchmarkFixtures.jsonBody(length), StandardCharsets.UTF_8);
+        plain = withControlCharacters.replace("\\n", " ");
+        buffer = new StringBuilder(length * 2);
+    }
+
+    @Benchmark
+    public String escapePlain() {
+        return EscapeUtil.escape(plain);
+    }
+
+    @Benchmark
+    public String escapeWithControlCharacters() {
+        return EscapeUtil.escape(withControlCharacters);
+    }
+
+    @Benchmark
+    public StringBuilder escapeIntoBuffer() {
+        buffer.setLength(0);
+        return EscapeUtil.escape(withControlCharacters, buffer);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.JsonFieldMasker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Masking the "password" field of a JSON body and keeping the first 2 KB: decoding the whole body and masking it
+ * with a regular expression versus masking the raw bytes with {@link JsonFieldMasker}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonFieldMaskerBenchmark {
+    private static final int MAX_LOGGED_LENGTH = 2048;
+
+    @Param({"2048", "65536"})
+    private int bodySize;
+
+    private byte[] body;
+    private BodyMasker bodyMasker;
+    private JsonFieldMasker jsonFieldMasker;
+
+    @Setup
+    public void setUp() {
+        body = BenchmarkFixtures.jsonBody(bodySize);
+        bodyMasker = new BodyMasker("\"password\"\\s*:\\s*\"([^\"]+)");
+        jsonFieldMasker = new JsonFieldMasker(List.of("password"));
+    }
+
+    @Benchmark
+    public String regex() {
+        String masked = bodyMasker.mask(new String(body, StandardCharsets.UTF_8));
+        return masked.length() > MAX_LOGGED_LENGTH ? masked.substring(0, MAX_LOGGED_LENGTH) : masked;
+    }
+
+    @Benchmark
+    public String json() {
+        return jsonFieldMasker.mask(body, body.length, MAX_LOGGED_LENGTH, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.access.UnrestrictedContentCachingRequestWrapper;
+import ee.datanor.spring.logger.access.processor.request.RequestBodyLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.ParameterMasker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Includes building the request wrapper, as the wrapper caches the body and can not be reused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestBodyLogProcessorBenchmark {
+
+    @Param({"256", "2048", "65536"})
+    private int bodySize;
+
+    @Param({"0", "1", "10", "50"})
+    private int maskerCount;
+
+    private final AccessLogRecord record = new AccessLogRecord();
+    private RequestBodyLogProcessor processor;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        Map<String, ParameterMasker> parameterMaskers = new HashMap<>();
+        BenchmarkFixtures.parameterMaskerPatterns(maskerCount).forEach((uri, parameter) -> parameterMaskers.put(uri, new ParameterMasker(parameter)));
+        Map<String, BodyMasker> bodyMaskers = new HashMap<>();
+        BenchmarkFixtures.bodyMaskerPatterns(maskerCount).forEach((uri, regexp) -> bodyMaskers.put(uri, new BodyMasker(regexp)));
+        processor = new RequestBodyLogProcessor(parameterMaskers, 2048, new StandardServletMultipartResolver(), bodyMaskers);
+        body = BenchmarkFixtures.jsonBody(bodySize);
+    }
+
+    @Benchmark
+    public AccessLogRecord process() {
+        record.clear();
+        processor.process(new UnrestrictedContentCachingRequestWrapper(BenchmarkFixtures.request(4, body)), record);
+        return record;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.access.processor.request.RequestHeadersLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request carries {@code headerCount} headers; only the four standard ones are logged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestHeadersLogProcessorBenchmark {
+
+    @Param({"4", "16", "64"})
+    private int headerCount;
+
+    private final AccessLogRecord record = new AccessLogRecord();
+    private RequestHeadersLogProcessor processor;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        processor = new RequestHeadersLogProcessor(new HashSet<>(BenchmarkFixtures.headerNames(4)));
+        request = BenchmarkFixtures.request(headerCount, new byte[0]);
+    }
+
+    @Benchmark
+    public AccessLogRecord process() {
+        record.clear();
+        processor.process(request, record);
+        return record;
+    }
+}
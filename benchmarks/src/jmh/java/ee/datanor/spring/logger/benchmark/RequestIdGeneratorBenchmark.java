@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.benchmark;
+
+import ee.datanor.spring.logger.access.id.NodeCounterRequestIdGenerator;
+import ee.datanor.spring.logger.access.id.RandomRequestIdGenerator;
+import ee.datanor.spring.logger.access.id.RequestIdGenerator;
+import ee.datanor.spring.logger.access.id.TimeOrderedRequestIdGenerator;
+import org.apache.commons.text.RandomStringGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request id generation from several threads at once. {@code shared-random} is the previous implementation, a single
+ * commons-text generator backed by one {@link java.util.Random}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class RequestIdGeneratorBenchmark {
+
+    @Param({"shared-random", "random", "time-ordered", "node-counter"})
+    private String generator;
+
+    private RequestIdGenerator requestIdGenerator;
+
+    @Setup
+    public void setUp() {
+        requestIdGenerator = switch (generator) {
+            case "shared-random" -> sharedRandom();
+            case "random" -> new RandomRequestIdGenerator(8);
+            case "time-ordered" -> new TimeOrderedRequestIdGenerator();
+            case "node-counter" -> new NodeCounterRequestIdGenerator("node1");
+            default -> throw new IllegalArgumentException(generator);
+        };
+    }
+
+    @Benchmark
+    public String generate() {
+        return requestIdGenerator.generate();
+    }
+
+    private static RequestIdGenerator sharedRandom() {
+        RandomStringGenerator stringGenerator = new RandomStringGenerator.Builder()
+                .withinRange('0', 'z')
+                .filteredBy(Character::isLetterOrDigit)
+                .build();
+        return () -> stringGenerator.generate(8);
+    }
+}
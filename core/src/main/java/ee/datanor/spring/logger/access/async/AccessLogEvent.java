@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.async;
+
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a log worker needs to emit one access log line: the MDC snapshot and record taken on the request
+ * thread and the values that still have to be masked and escaped. Lines written to a sink carry no MDC snapshot.
+ */
+final class AccessLogEvent {
+    private final Logger logger;
+    private final String message;
+    private final AccessLogSink sink;
+    private final AccessLogLine line;
+    private final Map<String, String> context;
+    private final AccessLogRecord record;
+    private final List<DeferredLogValue> deferredValues;
+    private final long enqueueNanos;
+
+    AccessLogEvent(Logger logger, String message, Map<String, String> context, AccessLogRecord record,
+                   List<DeferredLogValue> deferredValues) {
+        this(logger, message, null, null, context, record, deferredValues);
+    }
+
+    AccessLogEvent(AccessLogSink sink, AccessLogLine line, AccessLogRecord record, List<DeferredLogValue> deferredValues) {
+        this(null, null, sink, line, Map.of(), record, deferredValues);
+    }
+
+    private AccessLogEvent(Logger logger, String message, AccessLogSink sink, AccessLogLine line, Map<String, String> context,
+                           AccessLogRecord record, List<DeferredLogValue> deferredValues) {
+        this.logger = logger;
+        this.message = message;
+        this.sink = sink;
+        this.line = line;
+        this.context = context;
+        this.record = record;
+        this.deferredValues = deferredValues;
+        this.enqueueNanos = System.nanoTime();
+    }
+
+    Logger getLogger() {
+        return logger;
+    }
+
+    String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sink the line is written to instead of the logger, {@code null} when it goes to the logger.
+     */
+    AccessLogSink getSink() {
+        return sink;
+    }
+
+    AccessLogLine getLine() {
+        return line;
+    }
+
+    Map<String, String> getContext() {
+        return context;
+    }
+
+    AccessLogRecord getRecord() {
+        return record;
+    }
+
+    List<DeferredLogValue> getDeferredValues() {
+        return deferredValues;
+    }
+
+    long getEnqueueNanos() {
+        return enqueueNanos;
+    }
+
+    /**
+     * Releases the captured bodies, they are logged as empty.
+     *
+     * @return whether there was anything to drop
+     */
+    boolean dropBodies() {
+        deferredValues.forEach(DeferredLogValue::drop);
+        return !deferredValues.isEmpty();
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.async;
+
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.record.MdcAccessLogRecordAdapter;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves masking, escaping and emission of access log lines off the request thread.
+ *
+ * <p>Request threads enqueue an {@link AccessLogEvent} holding the MDC snapshot, a copy of the {@link AccessLogRecord}
+ * and the captured body slices into a bounded {@link AccessLogRingBuffer}; daemon worker threads render the deferred
+ * values and call the logger, or the {@link AccessLogSink} the line was dispatched to. What happens when the buffer
+ * is full is decided by the {@link OverflowPolicy}. Workers spin briefly when the buffer runs empty and then park
+ * until a producer unparks them.
+ */
+@Slf4j
+public class AsyncAccessLogDispatcher implements AutoCloseable {
+    private static final int IDLE_SPINS = 100;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AccessLogRingBuffer<AccessLogEvent> queue;
+    private final BodyBufferPool bufferPool;
+    private final OverflowPolicy overflowPolicy;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Queue<Thread> idleWorkers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong droppedBodies = new AtomicLong();
+    private final AtomicLong emittedEvents = new AtomicLong();
+    private final AtomicLong totalLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile long lastLagNanos;
+    private volatile boolean running = true;
+
+    public AsyncAccessLogDispatcher(int queueCapacity, int workerThreads, OverflowPolicy overflowPolicy) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("At least one worker thread is required: " + workerThreads);
+        }
+        this.queue = new AccessLogRingBuffer<>(queueCapacity);
+        this.bufferPool = new BodyBufferPool(queue.capacity() * 2);
+        this.overflowPolicy = overflowPolicy;
+        for (int i = 0; i < workerThreads; i++) {
+            Thread worker = new Thread(this::work, "access-log-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    public BodyBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Snapshots the current MDC and queues the line for a worker. {@code record} must not be modified afterwards,
+     * {@code message} gets its request line as the only argument.
+     */
+    public void dispatch(Logger logger, String message, AccessLogRecord record, List<DeferredLogValue> deferredValues) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        enqueue(new AccessLogEvent(logger, message, context != null ? context : new HashMap<>(), record, deferredValues));
+    }
+
+    /**
+     * Queues the line for a worker that writes it to {@code sink}. No MDC snapshot is taken, as the sink only reads
+     * the record, which must not be modified afterwards.
+     */
+    public void dispatch(AccessLogSink sink, AccessLogLine line, AccessLogRecord record, List<DeferredLogValue> deferredValues) {
+        enqueue(new AccessLogEvent(sink, line, record, deferredValues));
+    }
+
+    /**
+     * When the dispatcher is closed while the event is offered, the workers may already be gone, so the caller
+     * drains the queue itself.
+     */
+    private void enqueue(AccessLogEvent event) {
+        if (!running) {
+            emit(event);
+            return;
+        }
+        boolean queued = switch (overflowPolicy) {
+            case BLOCK -> offerBlocking(event);
+            case DROP_OLDEST -> offerDroppingOldest(event);
+            default -> offerDroppingBodiesFirst(event);
+        };
+        if (!queued) {
+            return;
+        }
+        if (running) {
+            wakeWorker();
+        } else {
+            drain();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queue.capacity();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Number of events that were logged without their captured bodies.
+     */
+    public long getDroppedBodies() {
+        return droppedBodies.get();
+    }
+
+    public long getEmittedEvents() {
+        return emittedEvents.get();
+    }
+
+    /**
+     * Time between enqueueing and emitting the most recently written event.
+     */
+    public long getLastLag(TimeUnit unit) {
+        return unit.convert(lastLagNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLag(TimeUnit unit) {
+        return unit.convert(maxLagNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getAverageLag(TimeUnit unit) {
+        long emitted = emittedEvents.get();
+        return emitted == 0 ? 0 : unit.convert(totalLagNanos.get() / emitted, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops accepting events, lets the workers drain the queue and waits for them to finish. Events still queued
+     * after that are written on the calling thread, as are events dispatched afterwards.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            for (Thread worker : workers) {
+                LockSupport.unpark(worker);
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    /**
+     * @return whether the event was queued rather than written or dropped
+     */
+    private boolean offerBlocking(AccessLogEvent event) {
+        while (!queue.offer(event)) {
+            if (!running) {
+                emit(event);
+                return false;
+            }
+            wakeWorker();
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private boolean offerDroppingOldest(AccessLogEvent event) {
+        while (!queue.offer(event)) {
+            AccessLogEvent oldest = queue.poll();
+            if (oldest != null) {
+                oldest.dropBodies();
+                droppedEvents.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerDroppingBodiesFirst(AccessLogEvent event) {
+        if (queue.size() >= queue.capacity() / 2 && event.dropBodies()) {
+            droppedBodies.incrementAndGet();
+        }
+        if (!queue.offer(event)) {
+            event.dropBodies();
+            droppedEvents.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void work() {
+        int idle = 0;
+        while (true) {
+            AccessLogEvent event = queue.poll();
+            if (event != null) {
+                idle = 0;
+                emit(event);
+                recordLag(event);
+            } else if (!running) {
+                return;
+            } else if (idle++ < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                awaitEvent();
+                idle = 0;
+            }
+        }
+    }
+
+    /**
+     * Parks the worker until a producer unparks it. The worker registers as idle before it checks the queue once
+     * more, and producers look for idle workers after they have queued, so an event is never left without a worker.
+     */
+    private void awaitEvent() {
+        Thread worker = Thread.currentThread();
+        idleWorkers.add(worker);
+        if (queue.size() == 0 && running) {
+            LockSupport.park(this);
+        }
+        idleWorkers.remove(worker);
+    }
+
+    private void wakeWorker() {
+        Thread worker = idleWorkers.poll();
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void drain() {
+        AccessLogEvent event = queue.poll();
+        while (event != null) {
+            emit(event);
+            event = queue.poll();
+        }
+    }
+
+    private void emit(AccessLogEvent event) {
+        if (event.getSink() != null) {
+            write(event);
+            return;
+        }
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        try {
+            AccessLogRecord record = event.getRecord();
+            for (DeferredLogValue value : event.getDeferredValues()) {
+                record.set(value.getField(), value.render());
+            }
+            MDC.setContextMap(MdcAccessLogRecordAdapter.toContextMap(event.getContext(), record));
+            event.getLogger().info(event.getMessage(), record.get(AccessLogField.REQUEST_LINE));
+        } catch (Exception e) {
+            log.error("Failed to write access log event", e);
+        } finally {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    private static void write(AccessLogEvent event) {
+        try {
+            AccessLogRecord record = event.getRecord();
+            for (DeferredLogValue value : event.getDeferredValues()) {
+                record.set(value.getField(), value.render());
+            }
+            event.getSink().write(event.getLine(), record);
+        } catch (Exception e) {
+            log.error("Failed to write access log event", e);
+        }
+    }
+
+    private void recordLag(AccessLogEvent event) {
+        long lag = System.nanoTime() - event.getEnqueueNanos();
+        lastLagNanos = lag;
+        totalLagNanos.addAndGet(lag);
+        maxLagNanos.accumulateAndGet(lag, Math::max);
+        emittedEvents.incrementAndGet();
+    }
+}
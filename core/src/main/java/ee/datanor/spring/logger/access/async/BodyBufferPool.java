@@ -0,0 +1,42 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.async;
+
+/**
+ * Recycles the byte arrays that hold captured body slices between the request thread and the log workers.
+ */
+public final class BodyBufferPool {
+    private final AccessLogRingBuffer<byte[]> buffers;
+
+    public BodyBufferPool(int maxPooledBuffers) {
+        this.buffers = new AccessLogRingBuffer<>(maxPooledBuffers);
+    }
+
+    /**
+     * Returns a pooled buffer of at least {@code minSize} bytes, allocating a new one when none fits.
+     */
+    public byte[] acquire(int minSize) {
+        byte[] buffer = buffers.poll();
+        return buffer != null && buffer.length >= minSize ? buffer : new byte[minSize];
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer != null) {
+            buffers.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.async;
+
+/**
+ * What {@link AsyncAccessLogDispatcher} does when request threads produce events faster than workers emit them.
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait for a free slot. Logs are never lost, but request threads are slowed down to the logging rate.
+     */
+    BLOCK,
+    /**
+     * Discard the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * Strip request and response bodies from new events once the queue is half full and drop new events only
+     * when it is completely full.
+     */
+    DROP_BODIES_FIRST
+}
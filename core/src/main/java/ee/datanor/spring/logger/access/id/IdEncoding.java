@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.id;
+
+final class IdEncoding {
+    static final char[] BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    /**
+     * Crockford's base32 alphabet, whose order matches ASCII order, so encoded numbers sort like the numbers.
+     */
+    static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private IdEncoding() {
+    }
+
+    /**
+     * Writes the lowest {@code 5 * count} bits of {@code value} as {@code count} base32 digits ending before {@code end}.
+     */
+    static void encodeBase32(long value, char[] target, int end, int count) {
+        long remaining = value;
+        for (int i = end - 1; i >= end - count; i--) {
+            target[i] = BASE32[(int) (remaining & 31)];
+            remaining >>>= 5;
+        }
+    }
+
+    /**
+     * Writes non-negative {@code value} as {@code count} zero-padded base62 digits ending before {@code end}.
+     */
+    static void encodeBase62(long value, char[] target, int end, int count) {
+        long remaining = value;
+        for (int i = end - 1; i >= end - count; i--) {
+            target[i] = BASE62[(int) (remaining % 62)];
+            remaining /= 62;
+        }
+    }
+}
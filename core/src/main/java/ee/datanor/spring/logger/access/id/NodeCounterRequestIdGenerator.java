@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.id;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Identifiers made of a node prefix and a counter, unique for the lifetime of the generator. The counter is striped
+ * by thread so that request threads rarely increment the same cache line; the stripe is encoded into the counter
+ * value, which is written as 11 zero-padded base62 digits.
+ */
+public final class NodeCounterRequestIdGenerator implements RequestIdGenerator {
+    private static final int COUNTER_DIGITS = 11;
+    /**
+     * Counters are {@value} longs apart so that each stripe has a cache line of its own.
+     */
+    private static final int PADDING = 16;
+
+    private final char[] prefix;
+    private final int stripes;
+    private final AtomicLongArray counters;
+
+    public NodeCounterRequestIdGenerator(String nodeId) {
+        this(nodeId, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public NodeCounterRequestIdGenerator(String nodeId, int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("At least one stripe is required: " + stripes);
+        }
+        this.prefix = (nodeId + "-").toCharArray();
+        this.stripes = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.counters = new AtomicLongArray(this.stripes * PADDING);
+    }
+
+    @Override
+    public String generate() {
+        int stripe = stripe(Thread.currentThread().getId());
+        long count = counters.getAndIncrement(stripe * PADDING);
+        char[] id = new char[prefix.length + COUNTER_DIGITS];
+        System.arraycopy(prefix, 0, id, 0, prefix.length);
+        IdEncoding.encodeBase62(count * stripes + stripe, id, id.length, COUNTER_DIGITS);
+        return new String(id);
+    }
+
+    private int stripe(long threadId) {
+        long mixed = threadId * 0x9e3779b97f4a7c15L;
+        return (int) (mixed >>> 32) & (stripes - 1);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random base62 identifiers of a fixed length, drawn from the calling thread's {@link ThreadLocalRandom}.
+ */
+public final class RandomRequestIdGenerator implements RequestIdGenerator {
+    private static final int DIGITS_PER_LONG = 10;
+    private static final long DIGITS_PER_LONG_BOUND = 839_299_365_868_340_224L;
+
+    private final int length;
+
+    public RandomRequestIdGenerator(int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Length must be positive: " + length);
+        }
+        this.length = length;
+    }
+
+    @Override
+    public String generate() {
+        char[] id = new char[length];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int end = length; end > 0; end -= DIGITS_PER_LONG) {
+            IdEncoding.encodeBase62(random.nextLong(DIGITS_PER_LONG_BOUND), id, end, Math.min(end, DIGITS_PER_LONG));
+        }
+        return new String(id);
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.id;
+
+/**
+ * Generates the identifiers logged as {@code AL_REQUEST_HASH} and, when the request does not carry one, as the
+ * correlation id. Called once per request from the request thread, so implementations must be thread-safe and
+ * should avoid shared mutable state.
+ */
+@FunctionalInterface
+public interface RequestIdGenerator {
+
+    String generate();
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.id;
+
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 128-bit identifiers in the ULID layout: a 48-bit millisecond timestamp followed by 80 random bits, written as 26
+ * Crockford base32 characters. Identifiers sort by creation time at millisecond precision; identifiers created
+ * within the same millisecond are in random order.
+ */
+public final class TimeOrderedRequestIdGenerator implements RequestIdGenerator {
+    public static final int LENGTH = 26;
+    private static final int TIME_DIGITS = 10;
+    private static final int RANDOM_HALF_DIGITS = 8;
+    private static final long RANDOM_HALF_BOUND = 1L << 40;
+
+    private final Clock clock;
+
+    public TimeOrderedRequestIdGenerator() {
+        this(Clock.systemUTC());
+    }
+
+    public TimeOrderedRequestIdGenerator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String generate() {
+        char[] id = new char[LENGTH];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        IdEncoding.encodeBase32(clock.millis(), id, TIME_DIGITS, TIME_DIGITS);
+        IdEncoding.encodeBase32(random.nextLong(RANDOM_HALF_BOUND), id, TIME_DIGITS + RANDOM_HALF_DIGITS, RANDOM_HALF_DIGITS);
+        IdEncoding.encodeBase32(random.nextLong(RANDOM_HALF_BOUND), id, LENGTH, RANDOM_HALF_DIGITS);
+        return new String(id);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor;
+
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.JsonFieldMasker;
+import ee.datanor.spring.logger.util.ParameterMasker;
+import ee.datanor.spring.logger.util.UriPatternIndex;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * Masks and truncates a captured body, independent of how it was captured. Shared by the servlet body processors
+ * and other adapters, such as the WebFlux filter.
+ */
+public class BodyRenderer implements DeferrableLogProcessor {
+    private final UriPatternIndex<ParameterMasker> parameterMaskers;
+    private final int maxLength;
+    private final UriPatternIndex<BodyMasker> bodyMaskers;
+    private final UriPatternIndex<JsonFieldMasker> jsonFieldMaskers;
+    private final int maskingLookahead;
+
+    /**
+     * See {@link LogProcessor#maskedWindowLength(int, int)} for {@code maskingLookahead}. Form parameters matching
+     * {@code parameterMaskers} are masked before the body maskers run.
+     */
+    public BodyRenderer(Map<String, ParameterMasker> parameterMaskers, int maxLength, Map<String, BodyMasker> bodyMaskers,
+                        Map<String, JsonFieldMasker> jsonFieldMaskers, int maskingLookahead) {
+        this.parameterMaskers = new UriPatternIndex<>(parameterMaskers);
+        this.maxLength = maxLength;
+        this.bodyMaskers = new UriPatternIndex<>(bodyMaskers, BodyMasker::combine);
+        this.jsonFieldMaskers = new UriPatternIndex<>(jsonFieldMaskers, JsonFieldMasker::combine);
+        this.maskingLookahead = maskingLookahead;
+    }
+
+    @Override
+    public String render(String requestPath, String content) {
+        String masked = maskSensitiveBody(requestPath, bodyMaskers, maskSensitiveParameters(requestPath, content));
+        if (masked == null) {
+            return EMPTY_REPLACEMENT;
+        }
+        return replaceEmpty(truncateBody(masked, maxLength, maskingLookahead));
+    }
+
+    @Override
+    public String render(String requestPath, byte[] content, int length, Charset charset) {
+        return render(requestPath, decode(requestPath, content, length, charset));
+    }
+
+    /**
+     * Decodes the part of the body that is masked, passing JSON through the field maskers of {@code requestPath}.
+     * With {@link LogProcessor#MASK_WHOLE_BODY} the JSON output is not cut, so that the body maskers see the whole body
+     * before {@link #render(String, String)} truncates it.
+     */
+    public String decode(String requestPath, byte[] content, int length, Charset charset) {
+        int maxLength = maskingLookahead < 0 ? Integer.MAX_VALUE : getWindowLength();
+        return decodeBody(requestPath, jsonFieldMaskers, content, length, maxLength, charset);
+    }
+
+    /**
+     * Whether JSON fields are masked on {@code requestPath}, which needs the body in bytes.
+     */
+    public boolean masksJsonFields(String requestPath) {
+        return !jsonFieldMaskers.match(requestPath).isEmpty();
+    }
+
+    /**
+     * Number of body bytes that are decoded and masked with bounded masking. With
+     * {@link LogProcessor#MASK_WHOLE_BODY} callers capture the whole body instead, as only the masked body is cut.
+     */
+    public int getWindowLength() {
+        return maskedWindowLength(maxLength, maskingLookahead);
+    }
+
+    public int getMaskingLookahead() {
+        return maskingLookahead;
+    }
+
+    private String maskSensitiveParameters(String requestPath, String content) {
+        if (content == null) {
+            return null;
+        }
+        String response = content;
+        for (ParameterMasker masker : parameterMaskers.match(requestPath)) {
+            response = masker.mask(response);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor;
+
+import java.nio.charset.Charset;
+
+/**
+ * A processor that can split its work into a cheap capture on the request thread and a
+ * {@link #render(String, String) render} step that may run on another thread, without access to the request.
+ */
+public interface DeferrableLogProcessor extends LogProcessor {
+
+    /**
+     * Turns captured content into the logged value, before escaping.
+     */
+    String render(String requestPath, String content);
+
+    /**
+     * Turns captured raw content into the logged value, before escaping. Decodes the content by default.
+     */
+    default String render(String requestPath, byte[] content, int length, Charset charset) {
+        return render(requestPath, new String(content, 0, length, charset));
+    }
+
+}
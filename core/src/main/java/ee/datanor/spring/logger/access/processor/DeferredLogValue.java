@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor;
+
+import ee.datanor.spring.logger.access.async.BodyBufferPool;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+
+import java.nio.charset.Charset;
+
+/**
+ * Raw input captured on the request thread that a {@link DeferrableLogProcessor} turns into a log value later,
+ * usually on an asynchronous log worker.
+ */
+public final class DeferredLogValue {
+    private final AccessLogField field;
+    private final DeferrableLogProcessor processor;
+    private final String requestPath;
+    private final String text;
+    private final Charset charset;
+    private final BodyBufferPool pool;
+    private byte[] buffer;
+    private int length;
+    private boolean dropped;
+
+    private DeferredLogValue(AccessLogField field, DeferrableLogProcessor processor, String requestPath, String text,
+                             byte[] buffer, int length, Charset charset, BodyBufferPool pool) {
+        this.field = field;
+        this.processor = processor;
+        this.requestPath = requestPath;
+        this.text = text;
+        this.buffer = buffer;
+        this.length = length;
+        this.charset = charset;
+        this.pool = pool;
+    }
+
+    public static DeferredLogValue ofText(AccessLogField field, DeferrableLogProcessor processor, String requestPath, String text) {
+        return new DeferredLogValue(field, processor, requestPath, text, null, 0, null, null);
+    }
+
+    /**
+     * The buffer is returned to the pool once the value has been rendered or dropped.
+     */
+    public static DeferredLogValue ofBytes(AccessLogField field, DeferrableLogProcessor processor, String requestPath,
+                                           byte[] buffer, int length, Charset charset, BodyBufferPool pool) {
+        return new DeferredLogValue(field, processor, requestPath, null, buffer, length, charset, pool);
+    }
+
+    public AccessLogField getField() {
+        return field;
+    }
+
+    /**
+     * Escaped value ready to be set into the record. Releases the captured buffer.
+     */
+    public String render() {
+        if (dropped) {
+            return LogProcessor.EMPTY_REPLACEMENT;
+        }
+        String value = buffer != null ? processor.render(requestPath, buffer, length, charset) : processor.render(requestPath, text);
+        release();
+        return processor.toMDCValue(value);
+    }
+
+    /**
+     * Discards the captured input, the value is then rendered as {@link LogProcessor#EMPTY_REPLACEMENT}.
+     */
+    public void drop() {
+        dropped = true;
+        release();
+    }
+
+    public void release() {
+        if (buffer != null && pool != null) {
+            pool.release(buffer);
+        }
+        buffer = null;
+        length = 0;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.record.MdcAccessLogRecordAdapter;
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.EscapeUtil;
+import ee.datanor.spring.logger.util.JsonFieldMasker;
+import ee.datanor.spring.logger.util.UriPatternIndex;
+import ee.datanor.spring.logger.util.Utf8Util;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.MDC;
+import org.springframework.util.PathMatcher;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface LogProcessor {
+    String EMPTY_REPLACEMENT = "-";
+    /**
+     * Masking lookahead meaning that the whole body is decoded and masked before it is truncated.
+     */
+    int MASK_WHOLE_BODY = -1;
+
+    default void setMDCValue(String attribute, Object value) {
+        MDC.put(attribute, toMDCValue(value));
+    }
+
+    default void setValue(AccessLogRecord record, AccessLogField field, Object value) {
+        record.set(field, toMDCValue(value));
+    }
+
+    default void setValue(AccessLogRecord record, String attribute, Object value) {
+        record.setAttribute(attribute, toMDCValue(value));
+    }
+
+    /**
+     * Runs {@code processing} against a fresh record and publishes it to the MDC, for callers of the record-less
+     * {@code process} methods.
+     */
+    default void processToMDC(Consumer<AccessLogRecord> processing) {
+        AccessLogRecord record = new AccessLogRecord();
+        processing.accept(record);
+        MdcAccessLogRecordAdapter.publish(record);
+    }
+
+    default String toMDCValue(Object value) {
+        return EscapeUtil.escape(replaceEmpty(value));
+    }
+
+    default String replaceEmpty(Object value) {
+        String parsedValue = "null".equalsIgnoreCase("" + value) ? EMPTY_REPLACEMENT : "" + value;
+        return StringUtils.firstNonBlank(parsedValue, EMPTY_REPLACEMENT);
+    }
+
+    default String maskSensitiveBody(String requestPath, PathMatcher pathMatcher, Map<String, BodyMasker> maskers, String content) {
+        if (content == null) {
+            return null;
+        }
+        String response = content;
+        for (Map.Entry<String, BodyMasker> path : maskers.entrySet()) {
+            if (pathMatcher.match(path.getKey(), requestPath)) {
+                response = path.getValue().mask(content);
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Decodes at most {@code maxLength} bytes of the body. JSON bodies are passed through the JSON field masker
+     * registered for {@code requestPath}, if any, while still in bytes.
+     */
+    default String decodeBody(String requestPath, UriPatternIndex<JsonFieldMasker> jsonFieldMaskers, byte[] content, int length,
+                              int maxLength, Charset charset) {
+        List<JsonFieldMasker> maskers = jsonFieldMaskers.match(requestPath);
+        if (maskers.isEmpty() || !JsonFieldMasker.isJson(content, length)) {
+            int decodedLength = StandardCharsets.UTF_8.equals(charset) ? Utf8Util.codePointBoundary(content, 0, length) : length;
+            return new String(content, 0, decodedLength, charset);
+        }
+        return maskers.get(0).mask(content, length, maxLength, charset);
+    }
+
+    /**
+     * Number of body bytes to decode and mask: the logged prefix plus {@code maskingLookahead} bytes, so that a
+     * sensitive value crossing the cut is still recognised, or just {@code maxLength} for {@link #MASK_WHOLE_BODY}.
+     */
+    default int maskedWindowLength(int maxLength, int maskingLookahead) {
+        if (maskingLookahead < 0) {
+            return maxLength;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) maxLength + maskingLookahead);
+    }
+
+    /**
+     * Cuts a masked body to {@code maxLength} UTF-8 bytes on a code point boundary, or to {@code maxLength}
+     * characters when the whole body is masked.
+     */
+    default String truncateBody(String body, int maxLength, int maskingLookahead) {
+        if (maskingLookahead >= 0) {
+            return Utf8Util.truncate(body, maxLength);
+        }
+        return body.length() > maxLength ? body.substring(0, maxLength) : body;
+    }
+
+    /**
+     * Applies every masker registered for a pattern matching {@code requestPath}, in registration order.
+     */
+    default String maskSensitiveBody(String requestPath, UriPatternIndex<BodyMasker> maskers, String content) {
+        if (content == null) {
+            return null;
+        }
+        String response = content;
+        for (BodyMasker masker : maskers.match(requestPath)) {
+            response = masker.mask(response);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor;
+
+import ee.datanor.spring.logger.util.ParameterMasker;
+import ee.datanor.spring.logger.util.UriPatternIndex;
+
+import java.util.Map;
+
+/**
+ * Renders {@code METHOD uri?query PROTOCOL}, with the sensitive parameters of the query masked.
+ */
+public class RequestLineRenderer {
+    private final UriPatternIndex<ParameterMasker> maskers;
+
+    public RequestLineRenderer(Map<String, ParameterMasker> maskers) {
+        this.maskers = new UriPatternIndex<>(maskers);
+    }
+
+    /**
+     * Maskers are matched against {@code requestPath}, the path within the application. The protocol is left out
+     * when {@code null}.
+     */
+    public String render(String method, String requestPath, String requestUri, String queryString, String protocol) {
+        String requestUrl = queryString != null ? requestUri + "?" + mask(requestPath, queryString) : requestUri;
+        return protocol != null ? method + " " + requestUrl + " " + protocol : method + " " + requestUrl;
+    }
+
+    private String mask(String requestPath, String queryString) {
+        String response = queryString;
+        for (ParameterMasker masker : maskers.match(requestPath)) {
+            response = masker.mask(response);
+        }
+        return response;
+    }
+}
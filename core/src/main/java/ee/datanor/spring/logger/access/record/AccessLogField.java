@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.record;
+
+/**
+ * Fixed slots of an {@link AccessLogRecord}, each published under its MDC key.
+ */
+public enum AccessLogField {
+    REQUEST_TIME("AL_REQUEST_TIME"),
+    SERVER_NAME("AL_SERVER_NAME"),
+    SERVER_PORT("AL_SERVER_PORT"),
+    CLIENT_IP("AL_CLIENT_IP"),
+    REQUEST_HASH("AL_REQUEST_HASH"),
+    CORRELATION_ID_HASH("AL_CORRELATION_ID_HASH"),
+    REQUEST_LINE("AL_REQUEST_LINE"),
+    REQUEST_HEADERS("AL_REQUEST_HEADERS"),
+    REQUEST_BODY_LENGTH("AL_REQUEST_BODY_LENGTH"),
+    REQUEST_BODY("AL_REQUEST_BODY"),
+    RESPONSE_STATUS("AL_RESPONSE_STATUS"),
+    RESPONSE_HEADERS("AL_RESPONSE_HEADERS"),
+    RESPONSE_BODY_LENGTH("AL_RESPONSE_BODY_LENGTH"),
+    RESPONSE_BODY("AL_RESPONSE_BODY"),
+    /**
+     * Milliseconds from the start of the request until the response is logged.
+     */
+    PROCESSING_TIME("AL_PROCESSING_TIME"),
+    /**
+     * Microseconds spent logging the request.
+     */
+    REQUEST_LOG_TIME("AL_REQUEST_LOG_TIME_US"),
+    /**
+     * Microseconds spent in the downstream filter chain.
+     */
+    CHAIN_TIME("AL_CHAIN_TIME_US"),
+    /**
+     * Microseconds spent in the response processors of this line, and in logging earlier responses of the request.
+     */
+    RESPONSE_LOG_TIME("AL_RESPONSE_LOG_TIME_US"),
+    /**
+     * Number of requests a sampled request stands for, set only when sampling is configured.
+     */
+    SAMPLING_WEIGHT("AL_SAMPLING_WEIGHT"),
+    /**
+     * Route template of the request, such as {@code /users/{id}}.
+     */
+    ROUTE("AL_ROUTE");
+
+    private final String mdcKey;
+
+    AccessLogField(String mdcKey) {
+        this.mdcKey = mdcKey;
+    }
+
+    public String getMdcKey() {
+        return mdcKey;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.record;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Values of one access log line, filled in by the log processors.
+ *
+ * <p>Known values live in slots indexed by {@link AccessLogField}, values of custom processors in a small map
+ * keyed by their MDC key. A record is not thread-safe: it is reused per thread through {@link #clear()} and
+ * handed to another thread only as a {@link #copy()}.
+ */
+public final class AccessLogRecord {
+    private static final AccessLogField[] FIELDS = AccessLogField.values();
+
+    private final String[] values;
+    private final Map<String, String> attributes;
+
+    public AccessLogRecord() {
+        this(new String[FIELDS.length], new HashMap<>(4));
+    }
+
+    private AccessLogRecord(String[] values, Map<String, String> attributes) {
+        this.values = values;
+        this.attributes = attributes;
+    }
+
+    public void set(AccessLogField field, String value) {
+        values[field.ordinal()] = value;
+    }
+
+    public String get(AccessLogField field) {
+        return values[field.ordinal()];
+    }
+
+    /**
+     * Value of a custom processor, published under {@code key}.
+     */
+    public void setAttribute(String key, String value) {
+        attributes.put(key, value);
+    }
+
+    public String getAttribute(String key) {
+        return attributes.get(key);
+    }
+
+    /**
+     * Visits every value that has been set, keyed by its MDC key.
+     */
+    public void forEach(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(FIELDS[i].getMdcKey(), values[i]);
+            }
+        }
+        attributes.forEach(consumer);
+    }
+
+    public boolean isEmpty() {
+        for (String value : values) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return attributes.isEmpty();
+    }
+
+    /**
+     * Rough number of bytes the values of the record occupy on the heap.
+     */
+    public long estimateSize() {
+        long size = 0;
+        for (String value : values) {
+            size += estimateSize(value);
+        }
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            size += estimateSize(attribute.getKey()) + estimateSize(attribute.getValue());
+        }
+        return size;
+    }
+
+    public AccessLogRecord copy() {
+        return new AccessLogRecord(values.clone(), new HashMap<>(attributes));
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        attributes.clear();
+    }
+
+    private static long estimateSize(String value) {
+        return value != null ? 40L + value.length() : 0;
+    }
+}
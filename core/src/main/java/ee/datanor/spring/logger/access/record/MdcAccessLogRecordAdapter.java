@@ -0,0 +1,50 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.record;
+
+import org.slf4j.MDC;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publishes an {@link AccessLogRecord} to the MDC, so existing layouts can keep using {@code %X{AL_...}}.
+ *
+ * <p>The record is merged into a copy of the current context and set in one call, instead of one
+ * {@link MDC#put(String, String)} per value, each of which copies a copy-on-write context map.
+ */
+public final class MdcAccessLogRecordAdapter {
+
+    private MdcAccessLogRecordAdapter() {
+    }
+
+    public static void publish(AccessLogRecord record) {
+        if (!record.isEmpty()) {
+            MDC.setContextMap(toContextMap(MDC.getCopyOfContextMap(), record));
+        }
+    }
+
+    /**
+     * {@code context} with the record's values added, {@code context} itself is reused when not {@code null}.
+     */
+    public static Map<String, String> toContextMap(Map<String, String> context, AccessLogRecord record) {
+        Map<String, String> result = context != null ? context : new HashMap<>();
+        record.forEach(result::put);
+        return result;
+    }
+}
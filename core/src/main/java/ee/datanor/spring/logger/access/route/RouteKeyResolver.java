@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.route;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns request paths into route keys of bounded cardinality, for aggregating and logging per route.
+ *
+ * <p>Web adapters use the pattern matched by the framework when the handler has been chosen. Before that, or without
+ * one, path segments that look like ids are replaced by placeholders through {@link SegmentRule}s, so that
+ * {@code /users/98231/orders/5} becomes {@code /users/{id}/orders/{id}}. The servlet adapter keeps the normalized key
+ * in the request attributes under {@link #ATTRIBUTE}, so it is computed once per request.
+ *
+ * <p>Normalized paths are cached, up to {@code maxCachedPaths} entries. At most {@code maxRoutes} distinct keys are
+ * handed out; paths normalizing to any further key get {@link #OVERFLOW_ROUTE}.
+ */
+public final class RouteKeyResolver {
+    public static final String ATTRIBUTE = RouteKeyResolver.class.getName();
+    public static final String BEST_MATCHING_PATTERN_ATTRIBUTE = "org.springframework.web.servlet.HandlerMapping.bestMatchingPattern";
+    public static final String OVERFLOW_ROUTE = "OTHER";
+    public static final String UNKNOWN_ROUTE = "UNKNOWN";
+    public static final int DEFAULT_MAX_ROUTES = 1000;
+    public static final int DEFAULT_MAX_CACHED_PATHS = 4096;
+
+    private final List<SegmentRule> segmentRules;
+    private final int maxRoutes;
+    private final int maxCachedPaths;
+    private final Map<String, String> routesByPath = new ConcurrentHashMap<>();
+    private final Set<String> routes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger routeCount = new AtomicInteger();
+
+    public RouteKeyResolver() {
+        this(SegmentRule.DEFAULTS, DEFAULT_MAX_ROUTES, DEFAULT_MAX_CACHED_PATHS);
+    }
+
+    public RouteKeyResolver(List<SegmentRule> segmentRules, int maxRoutes, int maxCachedPaths) {
+        this.segmentRules = List.copyOf(segmentRules);
+        this.maxRoutes = maxRoutes;
+        this.maxCachedPaths = maxCachedPaths;
+    }
+
+    /**
+     * Route key of {@code path} by the segment rules.
+     */
+    public String resolve(String path) {
+        if (path == null || path.isEmpty()) {
+            return UNKNOWN_ROUTE;
+        }
+        String route = routesByPath.get(path);
+        if (route != null) {
+            return route;
+        }
+        route = limit(normalize(path));
+        if (routesByPath.size() >= maxCachedPaths) {
+            routesByPath.clear();
+        }
+        routesByPath.put(path, route);
+        return route;
+    }
+
+    private String normalize(String path) {
+        StringBuilder route = new StringBuilder(path.length());
+        int start = 0;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(start, end);
+            String placeholder = placeholder(segment);
+            route.append(placeholder != null ? placeholder : segment);
+            if (end < path.length()) {
+                route.append('/');
+            }
+            start = end + 1;
+        }
+        return route.toString();
+    }
+
+    private String placeholder(String segment) {
+        if (segment.isEmpty()) {
+            return null;
+        }
+        for (SegmentRule rule : segmentRules) {
+            String placeholder = rule.replace(segment);
+            if (placeholder != null) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+
+    private String limit(String route) {
+        if (routes.contains(route)) {
+            return route;
+        }
+        if (routeCount.incrementAndGet() > maxRoutes) {
+            routeCount.decrementAndGet();
+            return routes.contains(route) ? route : OVERFLOW_ROUTE;
+        }
+        if (!routes.add(route)) {
+            routeCount.decrementAndGet();
+        }
+        return route;
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.route;
+
+/**
+ * Receives the duration and body sizes of every completed request, keyed by the route of {@link RouteKeyResolver}.
+ * Implemented by {@code AccessLogMetrics} of the {@code spring-access-logger-metrics} module, which the web adapters
+ * therefore do not depend on.
+ */
+public interface RouteMetricsRecorder {
+    void record(String route, String method, int status, long durationMicros, long requestBytes, long responseBytes);
+}
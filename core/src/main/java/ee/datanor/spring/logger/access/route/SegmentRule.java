@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.route;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces a path segment that identifies a resource, such as a numeric id, with a placeholder.
+ */
+@FunctionalInterface
+public interface SegmentRule {
+    /**
+     * Segments of digits only become {@code {id}}.
+     */
+    SegmentRule NUMERIC = segment -> isNumeric(segment) ? "{id}" : null;
+    /**
+     * UUIDs in their canonical 36 character form become {@code {uuid}}.
+     */
+    SegmentRule UUID = segment -> isUuid(segment) ? "{uuid}" : null;
+    /**
+     * Hexadecimal strings of at least 8 characters containing a digit, such as hashes and object ids, become
+     * {@code {hex}}.
+     */
+    SegmentRule HEX = segment -> isHexId(segment) ? "{hex}" : null;
+    List<SegmentRule> DEFAULTS = List.of(NUMERIC, UUID, HEX);
+
+    /**
+     * The placeholder replacing {@code segment}, {@code null} when the segment is kept.
+     */
+    String replace(String segment);
+
+    /**
+     * Segments fully matching {@code regex} become {@code placeholder}.
+     */
+    static SegmentRule matching(String regex, String placeholder) {
+        Pattern pattern = Pattern.compile(regex);
+        return segment -> pattern.matcher(segment).matches() ? placeholder : null;
+    }
+
+    private static boolean isNumeric(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return !segment.isEmpty();
+    }
+
+    private static boolean isUuid(String segment) {
+        if (segment.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : Character.digit(c, 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexId(String segment) {
+        boolean digit = false;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (Character.digit(c, 16) < 0) {
+                return false;
+            }
+            digit |= c <= '9';
+        }
+        return digit && segment.length() >= 8;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sink;
+
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+
+/**
+ * Destination of access log lines that bypasses the logging framework. Request values are still published to the
+ * MDC for the application's own log lines, but the access log lines are written only to the sink, from the values
+ * of the record.
+ */
+public interface AccessLogSink extends AutoCloseable {
+
+    /**
+     * Writes or queues the line. {@code record} may be reused by the caller once this returns, so a sink that writes
+     * later has to encode or copy it first.
+     */
+    void write(AccessLogLine line, AccessLogRecord record);
+
+    /**
+     * Writes out queued lines and releases the resources of the sink.
+     */
+    @Override
+    void close();
+}
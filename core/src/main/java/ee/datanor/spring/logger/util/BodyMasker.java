@@ -0,0 +1,234 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces the capturing groups of every match of a regular expression with {@value #MASK}.
+ */
+@Slf4j
+public class BodyMasker {
+    private static final String MASK = "***";
+    private static final Pattern NUMBERED_GROUP_DEPENDENCY = Pattern.compile("\\\\[1-9]|\\\\k<|\\(\\?<[a-zA-Z]");
+
+    private final Pattern paramPattern;
+    private final int groupCount;
+    /**
+     * Patterns of a combined masker, in alternation order, and the number of the group wrapping each of them.
+     */
+    private final List<BodyMasker> alternatives;
+    private final int[] alternativeGroups;
+
+    public BodyMasker(String regexp) {
+        this(Pattern.compile(regexp, Pattern.CASE_INSENSITIVE & Pattern.MULTILINE));
+    }
+
+    private BodyMasker(Pattern paramPattern) {
+        this(paramPattern, List.of(), new int[0]);
+    }
+
+    private BodyMasker(Pattern paramPattern, List<BodyMasker> alternatives, int[] alternativeGroups) {
+        this.paramPattern = paramPattern;
+        this.groupCount = paramPattern.matcher("").groupCount();
+        this.alternatives = alternatives;
+        this.alternativeGroups = alternativeGroups;
+    }
+
+    /**
+     * Merges the maskers into as few as possible, so that the content is scanned once instead of once per masker.
+     *
+     * <p>Patterns are joined into a single alternation, each wrapped in a group telling which of them matched. As the
+     * scan continues after a match, a value another pattern would mask inside the matched text is found by rescanning
+     * just that text with the other patterns, see {@link #mask(String)}. Patterns with back references or named
+     * groups depend on group numbering and patterns without groups mask nothing, so they are kept as separate maskers.
+     */
+    public static List<BodyMasker> combine(List<BodyMasker> maskers) {
+        List<BodyMasker> combinable = new ArrayList<>(maskers.size());
+        List<BodyMasker> result = new ArrayList<>(1);
+        for (BodyMasker masker : maskers) {
+            if (masker.groupCount == 0 || NUMBERED_GROUP_DEPENDENCY.matcher(masker.paramPattern.pattern()).find()) {
+                result.add(masker);
+            } else {
+                combinable.add(masker);
+            }
+        }
+        if (combinable.size() == 1) {
+            result.add(0, combinable.get(0));
+        } else if (combinable.size() > 1) {
+            result.add(0, alternation(combinable));
+        }
+        return List.copyOf(result);
+    }
+
+    private static BodyMasker alternation(List<BodyMasker> maskers) {
+        int[] alternativeGroups = new int[maskers.size()];
+        int group = 1;
+        for (int i = 0; i < maskers.size(); i++) {
+            alternativeGroups[i] = group;
+            group += 1 + maskers.get(i).groupCount;
+        }
+        String alternation = maskers.stream()
+                .map(m -> "(" + m.paramPattern.pattern() + ")")
+                .collect(Collectors.joining("|"));
+        return new BodyMasker(Pattern.compile(alternation, maskers.get(0).paramPattern.flags()), List.copyOf(maskers), alternativeGroups);
+    }
+
+    public String mask(String content) {
+        if (groupCount == 0) {
+            return content;
+        }
+        Matcher matcher = paramPattern.matcher(content);
+        if (!matcher.find()) {
+            return content;
+        }
+        long start = System.nanoTime();
+        String response = alternatives.isEmpty() ? maskMatches(matcher, content) : maskAlternatives(matcher, content);
+
+        log.trace("Sensitive patterns replaced in {} µs", (System.nanoTime() - start) / 1000);
+
+        return response;
+    }
+
+    private String maskMatches(Matcher matcher, String content) {
+        StringBuilder response = new StringBuilder(content.length());
+        int position = 0;
+        do {
+            position = maskGroups(matcher, content, response, position);
+        } while (matcher.find());
+        response.append(content, position, content.length());
+        return response.toString();
+    }
+
+    /**
+     * Copies the content up to each participating group of the current match and masks the group. Groups nested in
+     * or overlapping an already masked group are skipped.
+     */
+    private int maskGroups(Matcher matcher, String content, StringBuilder response, int position) {
+        int copied = position;
+        for (int group = 1; group <= groupCount; group++) {
+            int groupStart = matcher.start(group);
+            if (groupStart >= copied) {
+                response.append(content, copied, groupStart).append(MASK);
+                copied = matcher.end(group);
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Collects the groups of every match of the alternation and of every match of the other patterns that starts in
+     * the text of an alternation match, then masks them. Overlapping groups are masked as one, so a value is masked
+     * whenever one of the patterns on its own would mask it.
+     */
+    private String maskAlternatives(Matcher matcher, String content) {
+        MaskedRanges ranges = new MaskedRanges();
+        Rescanner[] rescanners = new Rescanner[alternatives.size()];
+        do {
+            int matched = getMatchedAlternative(matcher);
+            int firstGroup = alternativeGroups[matched] + 1;
+            ranges.addGroups(matcher, firstGroup, firstGroup + alternatives.get(matched).groupCount);
+            for (int i = 0; i < rescanners.length; i++) {
+                if (i != matched) {
+                    if (rescanners[i] == null) {
+                        rescanners[i] = new Rescanner(alternatives.get(i).paramPattern.matcher(content));
+                    }
+                    rescanners[i].addMatchesStartingIn(matcher.start(), matcher.end(), ranges);
+                }
+            }
+        } while (matcher.find());
+        return ranges.mask(content);
+    }
+
+    private int getMatchedAlternative(Matcher matcher) {
+        int alternative = 0;
+        while (matcher.start(alternativeGroups[alternative]) < 0) {
+            alternative++;
+        }
+        return alternative;
+    }
+
+    /**
+     * Finds the matches of one pattern in the text of successive alternation matches. The next match found is kept
+     * for the following text, as no match starts between the position searched from and that match, so every part
+     * of the content is searched at most once.
+     */
+    private static final class Rescanner {
+        private final Matcher matcher;
+        private boolean searched;
+        private boolean found;
+
+        Rescanner(Matcher matcher) {
+            this.matcher = matcher;
+        }
+
+        void addMatchesStartingIn(int from, int to, MaskedRanges ranges) {
+            if (!searched || found && matcher.start() < from) {
+                found = matcher.find(from);
+                searched = true;
+            }
+            while (found && matcher.start() < to) {
+                ranges.addGroups(matcher, 1, matcher.groupCount() + 1);
+                found = matcher.find();
+            }
+        }
+    }
+
+    /**
+     * Start and end offsets of the groups to mask, in the order they were found.
+     */
+    private static final class MaskedRanges {
+        private long[] ranges = new long[16];
+        private int size;
+
+        void addGroups(Matcher matcher, int fromGroup, int toGroup) {
+            for (int group = fromGroup; group < toGroup; group++) {
+                if (matcher.start(group) >= 0) {
+                    if (size == ranges.length) {
+                        ranges = Arrays.copyOf(ranges, size * 2);
+                    }
+                    ranges[size++] = (long) matcher.start(group) << 32 | matcher.end(group);
+                }
+            }
+        }
+
+        String mask(String content) {
+            Arrays.sort(ranges, 0, size);
+            StringBuilder response = new StringBuilder(content.length());
+            int copied = 0;
+            for (int i = 0; i < size; i++) {
+                int start = (int) (ranges[i] >>> 32);
+                int end = (int) ranges[i];
+                if (start >= copied) {
+                    response.append(content, copied, start).append(MASK);
+                    copied = end;
+                } else if (end > copied) {
+                    copied = end;
+                }
+            }
+            return response.append(content, copied, content.length()).toString();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renders the current time with a {@link DateTimeFormatter}, formatting only once per second. The text around the
+ * millisecond digits is cached in an immutable holder that is replaced when the second changes, and each call only
+ * fills in the digits. Whether and where the formatter prints milliseconds is found out by formatting sample
+ * instants; patterns that cannot be patched this way, such as ones printing nanoseconds of the day, are formatted
+ * on every call.
+ */
+public final class CachedTimestampRenderer {
+    private static final int[] SAMPLE_MILLIS = {0, 999, 7, 123, 450};
+
+    private final DateTimeFormatter formatter;
+    private final Clock clock;
+    private final ZoneId zone;
+    /**
+     * Number of millisecond digits printed by the formatter, 0 if it prints none and -1 if the output cannot be cached.
+     */
+    private final int millisDigits;
+    private volatile Second current;
+
+    public CachedTimestampRenderer(DateTimeFormatter formatter) {
+        this(formatter, Clock.systemDefaultZone());
+    }
+
+    public CachedTimestampRenderer(DateTimeFormatter formatter, Clock clock) {
+        this.formatter = formatter;
+        this.clock = clock;
+        this.zone = formatter.getZone() != null ? formatter.getZone() : clock.getZone();
+        this.millisDigits = probeMillisDigits(clock.millis() / 1000 * 1000);
+    }
+
+    public String render() {
+        long millis = clock.millis();
+        if (millisDigits < 0) {
+            return format(millis);
+        }
+        long epochSecond = Math.floorDiv(millis, 1000);
+        Second second = current;
+        if (second == null || second.epochSecond != epochSecond) {
+            second = newSecond(epochSecond);
+            current = second;
+        }
+        return second.render(Math.floorMod(millis, 1000));
+    }
+
+    private Second newSecond(long epochSecond) {
+        String zero = format(epochSecond * 1000);
+        if (millisDigits == 0) {
+            return new Second(epochSecond, zero, zero.length(), 0);
+        }
+        return new Second(epochSecond, zero, commonPrefixLength(zero, format(epochSecond * 1000 + 999)), millisDigits);
+    }
+
+    private String format(long epochMilli) {
+        return formatter.format(OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), zone));
+    }
+
+    private int probeMillisDigits(long epochSecondMilli) {
+        String zero = format(epochSecondMilli);
+        String max = format(epochSecondMilli + 999);
+        if (zero.length() != max.length()) {
+            return -1;
+        }
+        int start = commonPrefixLength(zero, max);
+        int end = zero.length();
+        while (end > start && zero.charAt(end - 1) == max.charAt(end - 1)) {
+            end--;
+        }
+        int digits = end - start;
+        if (digits > 3) {
+            return -1;
+        }
+        Second second = new Second(epochSecondMilli / 1000, zero, start, digits);
+        for (int sample : SAMPLE_MILLIS) {
+            if (!second.render(sample).equals(format(epochSecondMilli + sample))) {
+                return -1;
+            }
+        }
+        return digits;
+    }
+
+    private static int commonPrefixLength(String first, String second) {
+        int length = 0;
+        while (length < first.length() && length < second.length() && first.charAt(length) == second.charAt(length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static final class Second {
+        private final long epochSecond;
+        private final String prefix;
+        private final String suffix;
+        private final int digits;
+
+        private Second(long epochSecond, String text, int millisStart, int digits) {
+            this.epochSecond = epochSecond;
+            this.prefix = text.substring(0, millisStart);
+            this.suffix = text.substring(millisStart + digits);
+            this.digits = digits;
+        }
+
+        private String render(int millis) {
+            switch (digits) {
+                case 3:
+                    return prefix + digit(millis / 100) + digit(millis / 10) + digit(millis) + suffix;
+                case 2:
+                    return prefix + digit(millis / 100) + digit(millis / 10) + suffix;
+                case 1:
+                    return prefix + digit(millis / 100) + suffix;
+                default:
+                    return prefix;
+            }
+        }
+
+        private static char digit(int value) {
+            return (char) ('0' + value % 10);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.util;
+
+/**
+ * Escapes C0 and C1 control characters and backslashes so that a value always stays on a single log line.
+ *
+ * <p>Replacements are looked up from a table indexed by the character, so the input is scanned once. Values
+ * without anything to escape are returned as is.
+ */
+public final class EscapeUtil {
+    private static final int TABLE_SIZE = 0xa0;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final char[][] REPLACEMENTS = new char[TABLE_SIZE][];
+
+    static {
+        for (int i = 0x00; i <= 0x1f; i++) {
+            REPLACEMENTS[i] = unicodeEscape(i);
+        }
+        for (int i = 0x7f; i <= 0x9f; i++) {
+            REPLACEMENTS[i] = unicodeEscape(i);
+        }
+        REPLACEMENTS['\b'] = "\\b".toCharArray();
+        REPLACEMENTS['\n'] = "\\n".toCharArray();
+        REPLACEMENTS['\t'] = "\\t".toCharArray();
+        REPLACEMENTS['\f'] = "\\f".toCharArray();
+        REPLACEMENTS['\r'] = "\\r".toCharArray();
+        REPLACEMENTS['\\'] = "\\\\".toCharArray();
+    }
+
+    private EscapeUtil() {
+    }
+
+    public static String escape(String val) {
+        if (val == null) {
+            return null;
+        }
+        int first = indexOfEscapable(val, 0);
+        if (first < 0) {
+            return val;
+        }
+        StringBuilder sb = new StringBuilder(val.length() + 16);
+        sb.append(val, 0, first);
+        appendEscaped(val, first, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the escaped value to the given buffer, does nothing when the value is {@code null}.
+     */
+    public static StringBuilder escape(CharSequence val, StringBuilder sb) {
+        if (val == null) {
+            return sb;
+        }
+        int first = indexOfEscapable(val, 0);
+        if (first < 0) {
+            return sb.append(val);
+        }
+        sb.append(val, 0, first);
+        appendEscaped(val, first, sb);
+        return sb;
+    }
+
+    private static void appendEscaped(CharSequence val, int from, StringBuilder sb) {
+        int length = val.length();
+        int start = from;
+        for (int i = from; i < length; i++) {
+            char c = val.charAt(i);
+            if (c < TABLE_SIZE && REPLACEMENTS[c] != null) {
+                sb.append(val, start, i).append(REPLACEMENTS[c]);
+                start = i + 1;
+            }
+        }
+        sb.append(val, start, length);
+    }
+
+    /**
+     * Index of the first character that needs escaping, or -1. Checks four characters per iteration with a
+     * single combined range test before falling back to the table.
+     */
+    private static int indexOfEscapable(CharSequence val, int from) {
+        int length = val.length();
+        int i = from;
+        for (; i + 3 < length; i += 4) {
+            char c0 = val.charAt(i);
+            char c1 = val.charAt(i + 1);
+            char c2 = val.charAt(i + 2);
+            char c3 = val.charAt(i + 3);
+            if (isPlain(c0) & isPlain(c1) & isPlain(c2) & isPlain(c3)) {
+                continue;
+            }
+            break;
+        }
+        for (; i < length; i++) {
+            char c = val.charAt(i);
+            if (c < TABLE_SIZE && REPLACEMENTS[c] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isPlain(char c) {
+        return c >= TABLE_SIZE || (c >= 0x20 && c < 0x7f && c != '\\');
+    }
+
+    private static char[] unicodeEscape(int c) {
+        return new char[] {'\\', 'u', '0', '0', HEX_DIGITS[c >> 4], HEX_DIGITS[c & 0xf]};
+    }
+}
@@ -16,17 +16,16 @@
 
 package ee.datanor.spring.logger.util;
 
-import org.apache.commons.text.RandomStringGenerator;
+import ee.datanor.spring.logger.access.id.RandomRequestIdGenerator;
 
 public class HashUtil {
-    private static final RandomStringGenerator stringGenerator = new RandomStringGenerator.Builder()
-            .withinRange('0', 'z')
-            .filteredBy(Character::isLetterOrDigit)
-            .build();
 
     private HashUtil() { }
 
+    /**
+     * Random alphanumeric string, see {@link RandomRequestIdGenerator}.
+     */
     public static String generateHash(int length) {
-        return stringGenerator.generate(length);
+        return new RandomRequestIdGenerator(length).generate();
     }
 }
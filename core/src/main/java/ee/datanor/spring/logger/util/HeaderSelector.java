@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Renders a fixed set of headers, looking up each configured name directly instead of enumerating all headers.
+ * Headers are rendered as {@code name: value1;value2\n} under the configured name, in configuration order, and
+ * Authorization values are masked with {@link #maskAuthorizationValue(String)}.
+ */
+public final class HeaderSelector {
+    private static final String AUTHORIZATION = "authorization";
+
+    private final String[] headerNames;
+    private final boolean[] authorization;
+
+    public HeaderSelector(Collection<String> headerNames) {
+        Set<String> seen = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> names = new ArrayList<>(headerNames.size());
+        for (String headerName : headerNames) {
+            if (seen.add(headerName)) {
+                names.add(headerName);
+            }
+        }
+        this.headerNames = names.toArray(new String[0]);
+        this.authorization = new boolean[this.headerNames.length];
+        for (int i = 0; i < this.headerNames.length; i++) {
+            this.authorization[i] = AUTHORIZATION.equalsIgnoreCase(this.headerNames[i]);
+        }
+    }
+
+    /**
+     * Renders the configured headers, {@code headerValues} returning the values of a header name, or {@code null} or
+     * an empty iterator when it is absent.
+     */
+    public String select(Function<String, Iterator<String>> headerValues) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < headerNames.length; i++) {
+            Iterator<String> values = headerValues.apply(headerNames[i]);
+            if (values != null && values.hasNext()) {
+                appendHeader(sb, i, values);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Keeps the header of a JWT bearer token, and masks any other Authorization value entirely.
+     */
+    public static String maskAuthorizationValue(String value) {
+        if (value.trim().startsWith("Bearer")) {
+            int index = value.lastIndexOf('.');
+            if (index > 0 && value.chars().filter(ch -> ch == '.').count() > 1) {
+                return value.substring(0, index) + ".***";
+            } else {
+                return value;
+            }
+        }
+
+        return "***";
+    }
+
+    private void appendHeader(StringBuilder sb, int index, Iterator<String> values) {
+        sb.append(headerNames[index]).append(": ");
+        if (authorization[index]) {
+            StringBuilder value = new StringBuilder();
+            appendValues(value, values);
+            sb.append(value.length() > 0 ? maskAuthorizationValue(value.toString()) : "");
+        } else {
+            appendValues(sb, values);
+        }
+        sb.append('\n');
+    }
+
+    private static void appendValues(StringBuilder sb, Iterator<String> values) {
+        sb.append(values.next());
+        while (values.hasNext()) {
+            sb.append(';').append(values.next());
+        }
+    }
+}
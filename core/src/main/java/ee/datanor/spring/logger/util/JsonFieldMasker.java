@@ -0,0 +1,314 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replaces the values of selected JSON fields with {@code "***"} while copying the raw bytes, without decoding the
+ * body or building a tree.
+ *
+ * <p>A key without dots masks the field at any depth, a dotted key such as {@code user.password} (optionally
+ * prefixed with {@code $.}) masks it only under that path from the root; array levels are not part of the path.
+ * Object and array values are masked as a whole. Keys are compared as raw bytes, so keys written with escape
+ * sequences are not matched. The scanner never fails: input that is not valid JSON is copied as is.
+ */
+public final class JsonFieldMasker {
+    private static final byte[] MASK = "\"***\"".getBytes(StandardCharsets.US_ASCII);
+    private static final String PATH_ROOT = "$.";
+
+    private final Set<String> keys;
+    private final byte[][] names;
+    private final byte[][][] paths;
+
+    public JsonFieldMasker(Collection<String> keys) {
+        this.keys = new LinkedHashSet<>(keys);
+        List<byte[]> nameList = new ArrayList<>();
+        List<byte[][]> pathList = new ArrayList<>();
+        for (String key : this.keys) {
+            String path = key.startsWith(PATH_ROOT) ? key.substring(PATH_ROOT.length()) : key;
+            if (path.indexOf('.') < 0 && !key.startsWith(PATH_ROOT)) {
+                nameList.add(path.getBytes(StandardCharsets.UTF_8));
+            } else {
+                pathList.add(Arrays.stream(path.split("\\.")).map(s -> s.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new));
+            }
+        }
+        this.names = nameList.toArray(new byte[0][]);
+        this.paths = pathList.toArray(new byte[0][][]);
+    }
+
+    /**
+     * Merges the keys of all maskers into one.
+     */
+    public static List<JsonFieldMasker> combine(List<JsonFieldMasker> maskers) {
+        Set<String> keys = new LinkedHashSet<>();
+        maskers.forEach(m -> keys.addAll(m.keys));
+        return List.of(new JsonFieldMasker(keys));
+    }
+
+    /**
+     * Whether the first non-whitespace byte opens an object or an array.
+     */
+    public static boolean isJson(byte[] content, int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = content[i];
+            if (!isWhitespace(b)) {
+                return b == '{' || b == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Masks the first {@code length} bytes of {@code content} and returns at most {@code maxLength} bytes of the
+     * result, cut on a character boundary.
+     */
+    public String mask(byte[] content, int length, int maxLength, Charset charset) {
+        if (!isAsciiCompatible(charset)) {
+            byte[] utf8 = new String(content, 0, length, charset).getBytes(StandardCharsets.UTF_8);
+            return mask(utf8, utf8.length, maxLength, StandardCharsets.UTF_8);
+        }
+        Scanner scanner = new Scanner(content, length, maxLength);
+        scanner.run();
+        int outputLength = scanner.outputLength;
+        if (StandardCharsets.UTF_8.equals(charset) && scanner.isTruncated()) {
+            outputLength = Utf8Util.codePointBoundary(scanner.output, 0, outputLength);
+        }
+        return new String(scanner.output, 0, outputLength, charset);
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isStructural(byte b) {
+        return b == '}' || b == ']' || b == ',' || b == ':';
+    }
+
+    private static boolean regionEquals(byte[] expected, byte[] content, int start, int length) {
+        return expected.length == length && Arrays.equals(expected, 0, length, content, start, start + length);
+    }
+
+    private final class Scanner {
+        private static final int INITIAL_DEPTH = 16;
+
+        private final byte[] input;
+        private final int inputLength;
+        private final int maxLength;
+        private byte[] output;
+        private int outputLength;
+        private boolean truncated;
+        private int position;
+        private int depth = -1;
+        private boolean[] objectFrame = new boolean[INITIAL_DEPTH];
+        private int[] keyStart = new int[INITIAL_DEPTH];
+        private int[] keyLength = new int[INITIAL_DEPTH];
+        private boolean expectKey;
+        private boolean maskValue;
+
+        Scanner(byte[] input, int inputLength, int maxLength) {
+            this.input = input;
+            this.inputLength = inputLength;
+            this.maxLength = Math.max(0, maxLength);
+            this.output = new byte[Math.min(inputLength + MASK.length, this.maxLength)];
+        }
+
+        void run() {
+            while (position < inputLength && outputLength < maxLength) {
+                position = next(position);
+            }
+        }
+
+        boolean isTruncated() {
+            return truncated || position < inputLength;
+        }
+
+        private int next(int i) {
+            byte b = input[i];
+            if (b == '"') {
+                return string(i);
+            } else if (b == '{' || b == '[') {
+                return open(i, b == '{');
+            } else if (isStructural(b)) {
+                return structural(i, b);
+            } else if (isWhitespace(b)) {
+                copy(i, i + 1);
+                return i + 1;
+            }
+            return value(i, literalEnd(i));
+        }
+
+        private int string(int i) {
+            int end = stringEnd(i);
+            if (expectKey && inObject()) {
+                keyStart[depth] = i + 1;
+                keyLength[depth] = Math.max(0, end - i - 2);
+                expectKey = false;
+                copy(i, end);
+                return end;
+            }
+            return value(i, end);
+        }
+
+        private int open(int i, boolean object) {
+            if (maskValue) {
+                return value(i, containerEnd(i));
+            }
+            push(object);
+            expectKey = object;
+            copy(i, i + 1);
+            return i + 1;
+        }
+
+        private int structural(int i, byte b) {
+            if (b == '}' || b == ']') {
+                depth = Math.max(-1, depth - 1);
+                expectKey = false;
+            } else if (b == ',') {
+                expectKey = inObject();
+            } else {
+                maskValue = inObject() && isSensitiveKey();
+            }
+            copy(i, i + 1);
+            return i + 1;
+        }
+
+        private int value(int start, int end) {
+            if (maskValue) {
+                maskValue = false;
+                write(MASK, 0, MASK.length);
+            } else {
+                copy(start, end);
+            }
+            return end;
+        }
+
+        private int stringEnd(int i) {
+            int j = i + 1;
+            while (j < inputLength) {
+                byte b = input[j];
+                if (b == '"') {
+                    return j + 1;
+                }
+                j += b == '\\' ? 2 : 1;
+            }
+            return inputLength;
+        }
+
+        private int literalEnd(int i) {
+            int j = i + 1;
+            while (j < inputLength && !isStructural(input[j]) && !isWhitespace(input[j]) && input[j] != '"') {
+                j++;
+            }
+            return j;
+        }
+
+        private int containerEnd(int i) {
+            int nesting = 0;
+            int j = i;
+            while (j < inputLength) {
+                byte b = input[j];
+                if (b == '"') {
+                    j = stringEnd(j);
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    nesting++;
+                } else if ((b == '}' || b == ']') && --nesting == 0) {
+                    return j + 1;
+                }
+                j++;
+            }
+            return inputLength;
+        }
+
+        private boolean inObject() {
+            return depth >= 0 && objectFrame[depth];
+        }
+
+        private void push(boolean object) {
+            depth++;
+            if (depth == objectFrame.length) {
+                objectFrame = Arrays.copyOf(objectFrame, depth * 2);
+                keyStart = Arrays.copyOf(keyStart, depth * 2);
+                keyLength = Arrays.copyOf(keyLength, depth * 2);
+            }
+            objectFrame[depth] = object;
+            keyLength[depth] = -1;
+        }
+
+        private boolean isSensitiveKey() {
+            if (keyLength[depth] < 0) {
+                return false;
+            }
+            for (byte[] name : names) {
+                if (regionEquals(name, input, keyStart[depth], keyLength[depth])) {
+                    return true;
+                }
+            }
+            for (byte[][] path : paths) {
+                if (pathMatches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Compares the path with the keys of the enclosing objects, from the innermost outwards.
+         */
+        private boolean pathMatches(byte[][] path) {
+            int segment = path.length - 1;
+            for (int frame = depth; frame >= 0; frame--) {
+                if (!objectFrame[frame]) {
+                    continue;
+                }
+                if (segment < 0 || keyLength[frame] < 0 || !regionEquals(path[segment], input, keyStart[frame], keyLength[frame])) {
+                    return false;
+                }
+                segment--;
+            }
+            return segment < 0;
+        }
+
+        private void copy(int start, int end) {
+            write(input, start, end - start);
+        }
+
+        private void write(byte[] source, int start, int length) {
+            if (outputLength + length > output.length && output.length < maxLength) {
+                output = Arrays.copyOf(output, (int) Math.min(maxLength, Math.max(output.length * 2L, outputLength + (long) length)));
+            }
+            int count = Math.min(length, output.length - outputLength);
+            truncated |= count < length;
+            System.arraycopy(source, start, output, outputLength, count);
+            outputLength += count;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Ant-style URI patterns indexed by their leading literal path segments.
+ *
+ * <p>A lookup walks the segment trie along the request path and runs {@link AntPathMatcher} only against the
+ * patterns found on the way, instead of against every registered pattern. Resolved paths are cached; the cache is
+ * emptied once it reaches its maximum size, so paths containing identifiers cannot grow it without bound.
+ */
+public final class UriPatternIndex<T> {
+    public static final int DEFAULT_MAX_CACHED_PATHS = 1024;
+    private static final String PATH_SEPARATOR = "/";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Node<T> root = new Node<>();
+    private final Map<String, List<T>> cache = new ConcurrentHashMap<>();
+    private final Map<List<T>, List<T>> compiled = new ConcurrentHashMap<>();
+    private final UnaryOperator<List<T>> compiler;
+    private final int maxCachedPaths;
+    private final int size;
+
+    public UriPatternIndex(Map<String, T> patterns) {
+        this(patterns, DEFAULT_MAX_CACHED_PATHS);
+    }
+
+    public UriPatternIndex(Map<String, T> patterns, int maxCachedPaths) {
+        this(patterns, UnaryOperator.identity(), maxCachedPaths);
+    }
+
+    public UriPatternIndex(Map<String, T> patterns, UnaryOperator<List<T>> compiler) {
+        this(patterns, compiler, DEFAULT_MAX_CACHED_PATHS);
+    }
+
+    /**
+     * Values are returned in the iteration order of {@code patterns}. When a path matches several patterns their
+     * values are passed through {@code compiler} once per distinct combination, e.g. to merge them into one.
+     */
+    public UriPatternIndex(Map<String, T> patterns, UnaryOperator<List<T>> compiler, int maxCachedPaths) {
+        this.compiler = compiler;
+        this.maxCachedPaths = maxCachedPaths;
+        int order = 0;
+        for (Map.Entry<String, T> pattern : patterns.entrySet()) {
+            add(pattern.getKey(), pattern.getValue(), order++);
+        }
+        this.size = order;
+    }
+
+    /**
+     * Values of all patterns matching {@code path}, an empty list when there are none.
+     */
+    public List<T> match(String path) {
+        if (size == 0 || path == null) {
+            return List.of();
+        }
+        List<T> values = cache.get(path);
+        if (values == null) {
+            values = compile(resolve(path));
+            if (cache.size() >= maxCachedPaths) {
+                cache.clear();
+            }
+            cache.put(path, values);
+        }
+        return values;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void add(String pattern, T value, int order) {
+        Node<T> node = root;
+        for (String segment : tokenize(pattern)) {
+            if (!isLiteral(segment)) {
+                break;
+            }
+            node = node.children.computeIfAbsent(segment, s -> new Node<>());
+        }
+        node.entries.add(new Entry<>(pattern, value, order));
+    }
+
+    private List<T> resolve(String path) {
+        List<Entry<T>> matches = new ArrayList<>();
+        Node<T> node = root;
+        String[] segments = tokenize(path);
+        int depth = 0;
+        while (node != null) {
+            node.entries.stream().filter(e -> pathMatcher.match(e.pattern, path)).forEach(matches::add);
+            node = depth < segments.length ? node.children.get(segments[depth++]) : null;
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        matches.sort(Comparator.comparingInt(e -> e.order));
+        return matches.stream().map(e -> e.value).toList();
+    }
+
+    private List<T> compile(List<T> values) {
+        if (values.size() < 2) {
+            return values;
+        }
+        List<T> result = compiled.get(values);
+        if (result == null) {
+            result = compiler.apply(values);
+            if (compiled.size() >= maxCachedPaths) {
+                compiled.clear();
+            }
+            compiled.put(values, result);
+        }
+        return result;
+    }
+
+    private static String[] tokenize(String path) {
+        return StringUtils.tokenizeToStringArray(path, PATH_SEPARATOR, false, true);
+    }
+
+    private static boolean isLiteral(String segment) {
+        return segment.indexOf('*') < 0 && segment.indexOf('?') < 0 && segment.indexOf('{') < 0;
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private final List<Entry<T>> entries = new ArrayList<>();
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry<T> {
+        private final String pattern;
+        private final T value;
+        private final int order;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import java.nio.ByteBuffer;
+
+public final class Utf8Util {
+
+    private Utf8Util() {
+    }
+
+    /**
+     * Largest length up to {@code length} that does not end inside a multibyte UTF-8 sequence.
+     */
+    public static int codePointBoundary(byte[] content, int offset, int length) {
+        int end = offset + length;
+        int lead = end - 1;
+        while (lead >= offset && lead > end - 4 && isContinuation(content[lead])) {
+            lead--;
+        }
+        if (lead < offset) {
+            return length;
+        }
+        int sequenceLength = sequenceLength(content[lead]);
+        return lead + sequenceLength > end ? lead - offset : length;
+    }
+
+    /**
+     * Longest prefix of {@code value} whose UTF-8 encoding fits into {@code maxBytes}, without splitting a code point.
+     */
+    public static String truncate(String value, int maxBytes) {
+        if (value.length() * 3L <= maxBytes) {
+            return value;
+        }
+        int bytes = 0;
+        int index = 0;
+        while (index < value.length()) {
+            int codePoint = value.codePointAt(index);
+            bytes += encodedLength(codePoint);
+            if (bytes > maxBytes) {
+                return value.substring(0, index);
+            }
+            index += Character.charCount(codePoint);
+        }
+        return value;
+    }
+
+    /**
+     * Writes the UTF-8 encoding of {@code value} into {@code target}, which needs room for {@link #maxEncodedLength}
+     * bytes. Unpaired surrogates are written as {@code ?}, as {@link java.nio.charset.StandardCharsets#UTF_8} does.
+     * Heap buffers are written through their array, which is several times faster than putting single bytes.
+     */
+    public static void encode(String value, ByteBuffer target) {
+        if (target.hasArray()) {
+            int offset = encode(value, target.array(), target.arrayOffset() + target.position());
+            target.position(offset - target.arrayOffset());
+            return;
+        }
+        byte[] encoded = new byte[maxEncodedLength(value)];
+        target.put(encoded, 0, encode(value, encoded, 0));
+    }
+
+    /**
+     * Writes the UTF-8 encoding of {@code value} into {@code target} from {@code offset} on.
+     *
+     * @return the offset after the last written byte
+     */
+    public static int encode(String value, byte[] target, int offset) {
+        int length = value.length();
+        int position = offset;
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i++);
+            if (c < 0x80) {
+                target[position++] = (byte) c;
+            } else if (c < 0x800) {
+                target[position++] = (byte) (0xc0 | c >> 6);
+                target[position++] = (byte) (0x80 | c & 0x3f);
+            } else if (!Character.isSurrogate(c)) {
+                target[position++] = (byte) (0xe0 | c >> 12);
+                target[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+                target[position++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i < length && Character.isLowSurrogate(value.charAt(i))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(i++));
+                target[position++] = (byte) (0xf0 | codePoint >> 18);
+                target[position++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                target[position++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                target[position++] = (byte) (0x80 | codePoint & 0x3f);
+            } else {
+                target[position++] = '?';
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Upper bound of the UTF-8 length of {@code value}: three bytes per char, which also covers surrogate pairs.
+     */
+    public static int maxEncodedLength(String value) {
+        return value.length() * 3;
+    }
+
+    private static int encodedLength(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        } else if (codePoint < 0x800) {
+            return 2;
+        } else if (codePoint < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xc0) == 0x80;
+    }
+
+    private static int sequenceLength(byte lead) {
+        if ((lead & 0x80) == 0) {
+            return 1;
+        } else if ((lead & 0xe0) == 0xc0) {
+            return 2;
+        } else if ((lead & 0xf0) == 0xe0) {
+            return 3;
+        } else if ((lead & 0xf8) == 0xf0) {
+            return 4;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogRingBufferTest {
+
+    @Test
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        assertEquals(1, new AccessLogRingBuffer<>(1).capacity());
+        assertEquals(8, new AccessLogRingBuffer<>(5).capacity());
+        assertEquals(8, new AccessLogRingBuffer<>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new AccessLogRingBuffer<>(0));
+    }
+
+    @Test
+    void shouldPollInOfferOrderAndRejectWhenFull() {
+        // given
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(2);
+
+        // when
+        boolean first = buffer.offer(1);
+        boolean second = buffer.offer(2);
+        boolean third = buffer.offer(3);
+
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, buffer.size());
+        assertEquals(1, buffer.poll());
+        assertTrue(buffer.offer(3));
+        assertEquals(2, buffer.poll());
+        assertEquals(3, buffer.poll());
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void shouldDeliverEveryElementOnceWithConcurrentProducersAndConsumers() throws InterruptedException {
+        // given
+        int producers = 4;
+        int perProducer = 10_000;
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(64);
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+
+        // when
+        for (int p = 0; p < producers; p++) {
+            int offset = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < 2; c++) {
+            executor.execute(() -> {
+                while (received.size() < producers * perProducer) {
+                    Integer element = buffer.poll();
+                    if (element != null) {
+                        assertTrue(received.add(element));
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+
+        // then
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, received.size());
+    }
+}
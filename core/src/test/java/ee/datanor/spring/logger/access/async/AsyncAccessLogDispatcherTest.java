@@ -0,0 +1,206 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.async;
+
+import ee.datanor.spring.logger.access.processor.DeferrableLogProcessor;
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncAccessLogDispatcherTest {
+    private static final DeferrableLogProcessor UPPER_CASE = (requestPath, content) -> requestPath + ":" + content.toUpperCase();
+
+    @Mock
+    private Logger logger;
+
+    private AsyncAccessLogDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void shouldRenderDeferredValuesOnWorkerWithRequestMdc() throws InterruptedException {
+        // given
+        dispatcher = new AsyncAccessLogDispatcher(16, 1, OverflowPolicy.BLOCK);
+        Map<String, String> logged = new ConcurrentHashMap<>();
+        CountDownLatch emitted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            logged.put("thread", Thread.currentThread().getName());
+            logged.put("line", invocation.getArgument(1));
+            logged.put("body", MDC.get("AL_REQUEST_BODY"));
+            logged.put("hash", MDC.get("AL_REQUEST_HASH"));
+            emitted.countDown();
+            return null;
+        }).when(logger).info(anyString(), any(Object.class));
+        MDC.put("AL_REQUEST_HASH", "abc");
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_LINE, "POST /api HTTP/1.1");
+        byte[] buffer = dispatcher.getBufferPool().acquire(8);
+        System.arraycopy("body".getBytes(StandardCharsets.UTF_8), 0, buffer, 0, 4);
+        DeferredLogValue body = DeferredLogValue.ofBytes(AccessLogField.REQUEST_BODY, UPPER_CASE, "/api", buffer, 4, StandardCharsets.UTF_8,
+                dispatcher.getBufferPool());
+
+        // when
+        dispatcher.dispatch(logger, "Incoming Request {}", record, List.of(body));
+        MDC.clear();
+
+        // then
+        assertTrue(emitted.await(5, TimeUnit.SECONDS));
+        assertEquals("access-log-worker-0", logged.get("thread"));
+        assertEquals("POST /api HTTP/1.1", logged.get("line"));
+        assertEquals("/api:BODY", logged.get("body"));
+        assertEquals("abc", logged.get("hash"));
+        assertNull(MDC.get("AL_REQUEST_BODY"));
+    }
+
+    @Test
+    void shouldDrainQueueOnCloseAndRecordStatistics() {
+        // given
+        dispatcher = new AsyncAccessLogDispatcher(16, 2, OverflowPolicy.BLOCK);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(logger, "Outgoing response {}", new AccessLogRecord(), List.of());
+        }
+        dispatcher.close();
+
+        // then
+        verify(logger, times(10)).info("Outgoing response {}", (Object) null);
+        assertEquals(10, dispatcher.getEmittedEvents());
+        assertEquals(0, dispatcher.getQueueDepth());
+        assertEquals(0, dispatcher.getDroppedEvents());
+        assertTrue(dispatcher.getMaxLag(TimeUnit.NANOSECONDS) >= dispatcher.getAverageLag(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void shouldWriteOnCallingThreadAfterClose() {
+        // given
+        dispatcher = new AsyncAccessLogDispatcher(16, 1, OverflowPolicy.DROP_OLDEST);
+        dispatcher.close();
+        MDC.put("AL_REQUEST_LINE", "GET / HTTP/1.1");
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_LINE, "GET / HTTP/1.1");
+        DeferredLogValue body = DeferredLogValue.ofText(AccessLogField.RESPONSE_BODY, UPPER_CASE, "/", "ok");
+
+        // when
+        dispatcher.dispatch(logger, "Outgoing response {}", record, List.of(body));
+
+        // then
+        verify(logger).info("Outgoing response {}", "GET / HTTP/1.1");
+        assertEquals("GET / HTTP/1.1", MDC.get("AL_REQUEST_LINE"));
+        assertNull(MDC.get("AL_RESPONSE_BODY"));
+    }
+
+    @Test
+    void shouldParkIdleWorkersUntilEventIsDispatched() throws InterruptedException {
+        // given
+        dispatcher = new AsyncAccessLogDispatcher(16, 1, OverflowPolicy.BLOCK);
+        Thread worker = awaitWorker("access-log-worker-0");
+        CountDownLatch emitted = new CountDownLatch(1);
+        AccessLogSink sink = sink(line -> emitted.countDown());
+
+        // when
+        while (worker.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        dispatcher.dispatch(sink, AccessLogLine.REQUEST, new AccessLogRecord(), List.of());
+
+        // then
+        assertTrue(emitted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldNotLoseEventsDispatchedWhileClosing() throws InterruptedException {
+        for (int run = 0; run < 100; run++) {
+            // given
+            dispatcher = new AsyncAccessLogDispatcher(16, 1, OverflowPolicy.BLOCK);
+            AtomicInteger written = new AtomicInteger();
+            AccessLogSink sink = sink(line -> written.incrementAndGet());
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    dispatcher.dispatch(sink, AccessLogLine.REQUEST, new AccessLogRecord(), List.of());
+                }
+            });
+
+            // when
+            producer.start();
+            dispatcher.close();
+            producer.join();
+
+            // then
+            assertEquals(50, written.get());
+        }
+    }
+
+    private static Thread awaitWorker(String name) throws InterruptedException {
+        while (true) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().equals(name) && thread.isAlive()) {
+                    return thread;
+                }
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static AccessLogSink sink(Consumer<AccessLogLine> writer) {
+        return new AccessLogSink() {
+            @Override
+            public void write(AccessLogLine line, AccessLogRecord record) {
+                writer.accept(line);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
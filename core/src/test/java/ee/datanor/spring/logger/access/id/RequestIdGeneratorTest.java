@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestIdGeneratorTest {
+
+    @Test
+    void shouldGenerateRandomBase62Ids() {
+        // given
+        RequestIdGenerator generator = new RandomRequestIdGenerator(23);
+
+        // when
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(generator.generate());
+        }
+
+        // then
+        assertEquals(1000, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id.matches("[0-9A-Za-z]{23}")));
+    }
+
+    @Test
+    void shouldGenerateTimeOrderedIds() {
+        // given
+        Instant time = Instant.parse("2023-05-01T10:00:00Z");
+        String earlier = new TimeOrderedRequestIdGenerator(Clock.fixed(time, ZoneOffset.UTC)).generate();
+        String later = new TimeOrderedRequestIdGenerator(Clock.fixed(time.plusMillis(1), ZoneOffset.UTC)).generate();
+
+        // then
+        assertTrue(earlier.matches("[0-9A-HJKMNP-TV-Z]{26}"));
+        assertEquals("01GZBC2E80", earlier.substring(0, 10));
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    void shouldGenerateUniqueNodeCounterIdsAcrossThreads() {
+        // given
+        RequestIdGenerator generator = new NodeCounterRequestIdGenerator("node1", 4);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        // when
+        IntStream.range(0, 20_000).parallel().forEach(i -> ids.add(generator.generate()));
+
+        // then
+        assertEquals(20_000, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id.matches("node1-[0-9A-Za-z]{11}")));
+    }
+}
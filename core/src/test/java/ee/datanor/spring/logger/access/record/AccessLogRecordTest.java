@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.record;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogRecordTest {
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void shouldVisitFieldsAndAttributesByMdcKey() {
+        // given
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_LINE, "GET / HTTP/1.1");
+        record.set(AccessLogField.RESPONSE_STATUS, "200");
+        record.setAttribute("TENANT", "acme");
+
+        // when
+        Map<String, String> values = new LinkedHashMap<>();
+        record.forEach(values::put);
+
+        // then
+        assertEquals(Map.of("AL_REQUEST_LINE", "GET / HTTP/1.1", "AL_RESPONSE_STATUS", "200", "TENANT", "acme"), values);
+    }
+
+    @Test
+    void shouldKeepCopyWhenOriginalIsCleared() {
+        // given
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.CLIENT_IP, "10.0.0.1");
+        record.setAttribute("TENANT", "acme");
+
+        // when
+        AccessLogRecord copy = record.copy();
+        record.clear();
+
+        // then
+        assertTrue(record.isEmpty());
+        assertNull(record.get(AccessLogField.CLIENT_IP));
+        assertEquals("10.0.0.1", copy.get(AccessLogField.CLIENT_IP));
+        assertEquals("acme", copy.getAttribute("TENANT"));
+    }
+
+    @Test
+    void shouldPublishRecordIntoExistingMdc() {
+        // given
+        MDC.put("APPLICATION_KEY", "value");
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_HASH, "abcd1234");
+
+        // when
+        MdcAccessLogRecordAdapter.publish(record);
+
+        // then
+        assertEquals("value", MDC.get("APPLICATION_KEY"));
+        assertEquals("abcd1234", MDC.get("AL_REQUEST_HASH"));
+    }
+}
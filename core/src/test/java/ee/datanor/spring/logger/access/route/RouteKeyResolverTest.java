@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.route;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RouteKeyResolverTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "/users/98231/orders/5, /users/{id}/orders/{id}",
+            "/files/3f2b8c1d-0a4e-4b6f-9c7d-1e2f3a4b5c6d, /files/{uuid}",
+            "/commits/9fceb02d0ae598e95dc970b74767f19372d61af8/, /commits/{hex}/",
+            "/api/v2/feedback, /api/v2/feedback",
+            "/decade/deadbeef, /decade/deadbeef",
+            "/, /"
+    })
+    void shouldReplaceIdSegments(String path, String expected) {
+        // given
+        RouteKeyResolver resolver = new RouteKeyResolver();
+
+        // then
+        assertEquals(expected, resolver.resolve(path));
+    }
+
+    @Test
+    void shouldResolveRoutesAboveLimitToOverflowRoute() {
+        // given
+        RouteKeyResolver resolver = new RouteKeyResolver(SegmentRule.DEFAULTS, 2, 1);
+
+        // when
+        String first = resolver.resolve("/a/1");
+        String second = resolver.resolve("/b/2");
+        String third = resolver.resolve("/c/3");
+        String firstAgain = resolver.resolve("/a/4");
+
+        // then
+        assertEquals("/a/{id}", first);
+        assertEquals("/b/{id}", second);
+        assertEquals(RouteKeyResolver.OVERFLOW_ROUTE, third);
+        assertEquals("/a/{id}", firstAgain);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BodyMaskerTest {
+
+    @Test
+    void shouldMaskSensitiveValue() {
+        // given
+        String content = "{\"key\":\"value\"}";
+        String pattern = "\"key\"\\s*:\\s*\"([^\"]+)";
+
+        // when
+        String result = new BodyMasker(pattern).mask(content);
+
+        // then
+        assertEquals("{\"key\":\"***\"}", result);
+    }
+
+    @Test
+    void shouldMaskMutipleSensitiveValues() {
+        // given
+        String content = "[{\"key\":\"value\"},{\"key\":\"value\"}]";
+        String pattern = "\"key\"\\s*:\\s*\"([^\"]+)";
+
+        // when
+        String result = new BodyMasker(pattern).mask(content);
+
+        // then
+        assertEquals("[{\"key\":\"***\"},{\"key\":\"***\"}]", result);
+    }
+
+    @Test
+    void shouldNotMaskNonSensitiveValue() {
+        // given
+        String content = "{\"key\":\"value\"}";
+        String pattern = "\"otherKey\"\\s*:\\s*\"([^\"]+)";
+
+        // when
+        String result = new BodyMasker(pattern).mask(content);
+
+        // then
+        assertEquals("{\"key\":\"value\"}", result);
+    }
+
+    @Test
+    void shouldMaskEveryGroupAndSkipNonParticipatingOnes() {
+        // given
+        String content = "user=john;pass=secret;pin=";
+        String pattern = "(?:pass=([^;]+))|(?:pin=([^;]*))|(?:user=(x))";
+
+        // when
+        String result = new BodyMasker(pattern).mask(content);
+
+        // then
+        assertEquals("user=john;pass=***;pin=***", result);
+    }
+
+    @Test
+    void shouldMaskAllPatternsInOneCombinedMasker() {
+        // given
+        String content = "{\"password\":\"p\",\"token\":\"t\",\"name\":\"n\"}";
+        List<BodyMasker> maskers = List.of(
+                new BodyMasker("\"password\"\\s*:\\s*\"([^\"]+)"),
+                new BodyMasker("\"token\"\\s*:\\s*\"([^\"]+)")
+        );
+
+        // when
+        List<BodyMasker> combined = BodyMasker.combine(maskers);
+
+        // then
+        assertEquals(1, combined.size());
+        assertEquals("{\"password\":\"***\",\"token\":\"***\",\"name\":\"n\"}", combined.get(0).mask(content));
+    }
+
+    @Test
+    void shouldKeepPatternsWithBackReferencesSeparate() {
+        // given
+        String content = "<a>x</a><b>y</b>";
+        List<BodyMasker> maskers = List.of(
+                new BodyMasker("<(a)>[^<]*</\\1>"),
+                new BodyMasker("<b>([^<]*)</b>"),
+                new BodyMasker("<c>([^<]*)</c>")
+        );
+
+        // when
+        List<BodyMasker> combined = BodyMasker.combine(maskers);
+
+        // then
+        assertEquals(2, combined.size());
+        assertSame(maskers.get(0), combined.get(1));
+        String result = content;
+        for (BodyMasker masker : combined) {
+            result = masker.mask(result);
+        }
+        assertEquals("<***>x</a><b>***</b>", result);
+    }
+
+    @Test
+    void shouldMaskValueInsideTextMatchedByAnotherCombinedPattern() {
+        // given
+        String content = "{\"session\":{\"id\":\"s1\",\"password\":\"p\"},\"card\":\"1234\"}";
+        List<BodyMasker> maskers = List.of(
+                new BodyMasker("\"session\":\\{\"id\":\"([^\"]+)\"[^}]*}"),
+                new BodyMasker("\"password\":\"([^\"]+)"),
+                new BodyMasker("\"card\":\"([^\"]+)")
+        );
+
+        // when
+        List<BodyMasker> combined = BodyMasker.combine(maskers);
+
+        // then
+        assertEquals(1, combined.size());
+        assertEquals(sequentially(maskers, content), combined.get(0).mask(content));
+        assertEquals("{\"session\":{\"id\":\"***\",\"password\":\"***\"},\"card\":\"***\"}", combined.get(0).mask(content));
+    }
+
+    @Test
+    void shouldMaskOverlappingGroupsOfCombinedPatternsOnce() {
+        // given
+        String content = "token=abc-secret-def;";
+        List<BodyMasker> maskers = List.of(
+                new BodyMasker("token=([^-]+-[^-]+)"),
+                new BodyMasker("-(secret-def)")
+        );
+
+        // when
+        String result = BodyMasker.combine(maskers).get(0).mask(content);
+
+        // then
+        assertEquals("token=***;", result);
+    }
+
+    private static String sequentially(List<BodyMasker> maskers, String content) {
+        String result = content;
+        for (BodyMasker masker : maskers) {
+            result = masker.mask(result);
+        }
+        return result;
+    }
+}
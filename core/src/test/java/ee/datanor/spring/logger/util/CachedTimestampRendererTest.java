@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CachedTimestampRendererTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Tallinn");
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "yyyy-MM-dd'T'HH:mm:ss.SSSXXX",
+            "dd/MMMM/yyyy HH:mm:ss.SS Z",
+            "HH:mm:ss,S",
+            "yyyy-MM-dd HH:mm:ss",
+            "HH:mm:ss.SSSSSS",
+            "N"
+    })
+    void shouldRenderLikeTheFormatter(String pattern) {
+        // given
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH);
+        MutableClock clock = new MutableClock(Instant.parse("2023-03-26T00:59:58.000Z"));
+        CachedTimestampRenderer renderer = new CachedTimestampRenderer(formatter, clock);
+
+        // then
+        for (int i = 0; i < 3000; i += 7) {
+            clock.instant = Instant.parse("2023-03-26T00:59:58.000Z").plusMillis(i);
+            assertEquals(formatter.format(OffsetDateTime.ofInstant(clock.instant, ZONE)), renderer.render());
+        }
+    }
+
+    @Test
+    void shouldReuseTextOfTheSameSecondWithoutMillis() {
+        // given
+        MutableClock clock = new MutableClock(Instant.parse("2023-05-01T10:00:00.100Z"));
+        CachedTimestampRenderer renderer = new CachedTimestampRenderer(DateTimeFormatter.ofPattern("HH:mm:ss"), clock);
+
+        // when
+        String first = renderer.render();
+        clock.instant = Instant.parse("2023-05-01T10:00:00.900Z");
+        String second = renderer.render();
+
+        // then
+        assertEquals("13:00:00", first);
+        assertSame(first, second);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
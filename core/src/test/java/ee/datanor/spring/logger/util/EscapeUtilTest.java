@@ -16,6 +16,7 @@
 
 package ee.datanor.spring.logger.util;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -23,6 +24,8 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class EscapeUtilTest {
 
@@ -34,6 +37,13 @@ class EscapeUtilTest {
                 Arguments.of("te\bst", "te\\bst"),
                 Arguments.of("test\n", "test\\n"),
                 Arguments.of("te\nst", "te\\nst"),
+                Arguments.of("te\\st", "te\\\\st"),
+                Arguments.of("te\u0001st", "te\\u0001st"),
+                Arguments.of("te\u007fst", "te\\u007Fst"),
+                Arguments.of("te\u009fst", "te\\u009Fst"),
+                Arguments.of("\r\n", "\\r\\n"),
+                Arguments.of("tõlge\tüks", "tõlge\\tüks"),
+                Arguments.of("", ""),
                 Arguments.of("nothing to escape", "nothing to escape")
         );
     }
@@ -47,4 +57,38 @@ class EscapeUtilTest {
         // then
         assertEquals(expected, result);
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @MethodSource("testArgments")
+    void shouldAppendEscapedSpecialCharacters(String input, String expected) {
+        // given
+        StringBuilder sb = new StringBuilder("prefix:");
+
+        // when
+        EscapeUtil.escape(input, sb);
+
+        // then
+        assertEquals("prefix:" + expected, sb.toString());
+    }
+
+    @Test
+    void shouldReturnSameInstanceWhenNothingToEscape() {
+        // given
+        String input = "GET /api/users?page=1 HTTP/1.1";
+
+        // when
+        String result = EscapeUtil.escape(input);
+
+        // then
+        assertSame(input, result);
+    }
+
+    @Test
+    void shouldReturnNullForNullInput() {
+        // when
+        String result = EscapeUtil.escape(null);
+
+        // then
+        assertNull(result);
+    }
+}
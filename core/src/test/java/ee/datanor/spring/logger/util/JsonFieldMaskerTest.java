@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonFieldMaskerTest {
+
+    @Test
+    void shouldMaskFieldNamesAtAnyDepth() {
+        // given
+        String content = "{\"password\":\"p\",\"user\":{\"token\":\"t\",\"name\":\"n\"},\"list\":[{\"password\":null}]}";
+
+        // when
+        String result = mask(List.of("password", "token"), content, 1024);
+
+        // then
+        assertEquals("{\"password\":\"***\",\"user\":{\"token\":\"***\",\"name\":\"n\"},\"list\":[{\"password\":\"***\"}]}", result);
+    }
+
+    @Test
+    void shouldMaskFieldPathsFromRootOnly() {
+        // given
+        String content = "{\"name\":\"top\",\"user\":{\"name\":\"n\",\"friends\":[{\"name\":\"f\"}]}}";
+
+        // when
+        String result = mask(List.of("$.user.name", "user.friends.name"), content, 1024);
+
+        // then
+        assertEquals("{\"name\":\"top\",\"user\":{\"name\":\"***\",\"friends\":[{\"name\":\"***\"}]}}", result);
+    }
+
+    @Test
+    void shouldMaskObjectsArraysAndLiteralsAsWhole() {
+        // given
+        String content = "{ \"card\" : {\"number\":\"4111\",\"cvc\":\"123\"}, \"pins\": [1, 2], \"age\" : 42 , \"ok\":true}";
+
+        // when
+        String result = mask(List.of("card", "pins", "age"), content, 1024);
+
+        // then
+        assertEquals("{ \"card\" : \"***\", \"pins\": \"***\", \"age\" : \"***\" , \"ok\":true}", result);
+    }
+
+    @Test
+    void shouldHandleEscapedQuotesInStrings() {
+        // given
+        String content = "{\"note\":\"say \\\"password\\\": x\",\"password\":\"a\\\"b\"}";
+
+        // when
+        String result = mask(List.of("password"), content, 1024);
+
+        // then
+        assertEquals("{\"note\":\"say \\\"password\\\": x\",\"password\":\"***\"}", result);
+    }
+
+    @Test
+    void shouldStopAtMaxLengthOnCharacterBoundary() {
+        // given
+        String content = "{\"name\":\"ää\",\"password\":\"secret\"}";
+
+        // when
+        String result = mask(List.of("password"), content, 11);
+
+        // then
+        assertEquals("{\"name\":\"ä", result);
+    }
+
+    @Test
+    void shouldCopyNonJsonContentAsIs() {
+        // given
+        String content = "password=secret&a=\"b\"";
+
+        // when
+        String result = mask(List.of("password"), content, 1024);
+
+        // then
+        assertEquals(content, result);
+    }
+
+    @Test
+    void shouldCombineKeysOfSeveralMaskers() {
+        // given
+        List<JsonFieldMasker> combined = JsonFieldMasker.combine(List.of(new JsonFieldMasker(List.of("a")), new JsonFieldMasker(List.of("b"))));
+        byte[] content = "{\"a\":1,\"b\":2,\"c\":3}".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        String result = combined.get(0).mask(content, content.length, 1024, StandardCharsets.UTF_8);
+
+        // then
+        assertEquals("{\"a\":\"***\",\"b\":\"***\",\"c\":3}", result);
+    }
+
+    @Test
+    void shouldDetectJsonByFirstCharacter() {
+        assertTrue(JsonFieldMasker.isJson(" \n[1]".getBytes(StandardCharsets.UTF_8), 5));
+        assertFalse(JsonFieldMasker.isJson("a=1".getBytes(StandardCharsets.UTF_8), 3));
+    }
+
+    private String mask(List<String> keys, String content, int maxLength) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new JsonFieldMasker(keys).mask(bytes, bytes.length, maxLength, StandardCharsets.UTF_8);
+    }
+}
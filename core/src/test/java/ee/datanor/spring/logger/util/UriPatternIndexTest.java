@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UriPatternIndexTest {
+
+    @Test
+    void shouldReturnValuesOfAllMatchingPatternsInRegistrationOrder() {
+        // given
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/api/users/**", "users");
+        patterns.put("/api/orders/**", "orders");
+        patterns.put("/**", "all");
+        patterns.put("/api/*/98231/**", "id");
+        patterns.put("/api/users/{id}", "user");
+        UriPatternIndex<String> index = new UriPatternIndex<>(patterns);
+
+        // when
+        List<String> result = index.match("/api/users/98231");
+
+        // then
+        assertEquals(List.of("users", "all", "id", "user"), result);
+    }
+
+    @Test
+    void shouldMatchLikeAntPathMatcher() {
+        // given
+        UriPatternIndex<String> index = new UriPatternIndex<>(Map.of("/api/users", "exact", "api/relative/**", "relative"));
+
+        // then
+        assertEquals(List.of("exact"), index.match("/api/users"));
+        assertEquals(List.of(), index.match("/api/users/1"));
+        assertEquals(List.of(), index.match("/api/relative/1"));
+        assertEquals(List.of("relative"), index.match("api/relative/1"));
+        assertEquals(List.of(), index.match(null));
+    }
+
+    @Test
+    void shouldCacheResolvedPathsUpToLimit() {
+        // given
+        UriPatternIndex<String> index = new UriPatternIndex<>(Map.of("/api/**", "api"), 2);
+
+        // when
+        List<String> first = index.match("/api/1");
+        List<String> cached = index.match("/api/1");
+        index.match("/api/2");
+        index.match("/api/3");
+
+        // then
+        assertSame(first, cached);
+        assertEquals(List.of("api"), index.match("/api/1"));
+    }
+
+    @Test
+    void shouldBeEmptyWithoutPatterns() {
+        assertTrue(new UriPatternIndex<>(Map.of()).isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Utf8UtilTest {
+
+    @Test
+    void shouldNotCutMultibyteSequences() {
+        // given
+        byte[] content = "aä€😀".getBytes(StandardCharsets.UTF_8);
+
+        // then
+        assertEquals(1, Utf8Util.codePointBoundary(content, 0, 1));
+        assertEquals(1, Utf8Util.codePointBoundary(content, 0, 2));
+        assertEquals(3, Utf8Util.codePointBoundary(content, 0, 3));
+        assertEquals(3, Utf8Util.codePointBoundary(content, 0, 5));
+        assertEquals(6, Utf8Util.codePointBoundary(content, 0, 6));
+        assertEquals(6, Utf8Util.codePointBoundary(content, 0, 9));
+        assertEquals(10, Utf8Util.codePointBoundary(content, 0, 10));
+        assertEquals(0, Utf8Util.codePointBoundary(content, 1, 1));
+    }
+
+    @Test
+    void shouldTruncateOnCodePointBoundaries() {
+        // given
+        String value = "aä€😀b";
+
+        // then
+        assertEquals("", Utf8Util.truncate(value, 0));
+        assertEquals("a", Utf8Util.truncate(value, 2));
+        assertEquals("aä", Utf8Util.truncate(value, 3));
+        assertEquals("aä€", Utf8Util.truncate(value, 9));
+        assertEquals("aä€😀", Utf8Util.truncate(value, 10));
+        assertEquals(value, Utf8Util.truncate(value, 11));
+        assertEquals("abc", Utf8Util.truncate("abc", 100));
+    }
+
+    @Test
+    void shouldEncodeLikeStandardCharset() {
+        // given
+        String value = "aä€😀\ud800b";
+        ByteBuffer heap = ByteBuffer.allocate(Utf8Util.maxEncodedLength(value) + 1).put((byte) '>');
+        ByteBuffer direct = ByteBuffer.allocateDirect(Utf8Util.maxEncodedLength(value) + 1).put((byte) '>');
+
+        // when
+        Utf8Util.encode(value, heap);
+        Utf8Util.encode(value, direct);
+
+        // then
+        byte[] expected = (">" + value).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, toArray(heap));
+        assertArrayEquals(expected, toArray(direct));
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.flip().remaining()];
+        buffer.get(result);
+        return result;
+    }
+}
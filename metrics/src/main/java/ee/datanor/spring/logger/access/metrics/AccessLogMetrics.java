@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import ee.datanor.spring.logger.access.route.RouteMetricsRecorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latency and body size histograms per route template, HTTP method and status class.
+ *
+ * <p>At most {@code maxSeries} keys are kept. Once the limit is reached, requests on new routes are recorded under
+ * {@link #OVERFLOW_ROUTE}, and unusual methods are always recorded as {@code OTHER}. Requests without a route are
+ * recorded under {@link #UNKNOWN_ROUTE}.
+ */
+public final class AccessLogMetrics implements RouteMetricsRecorder {
+    public static final int DEFAULT_MAX_SERIES = 1000;
+    public static final String OVERFLOW_ROUTE = "OTHER";
+    public static final String UNKNOWN_ROUTE = "UNKNOWN";
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final ConcurrentMap<RouteMetricsKey, Series> series = new ConcurrentHashMap<>();
+    private final int maxSeries;
+    private final int stripes;
+
+    public AccessLogMetrics() {
+        this(DEFAULT_MAX_SERIES, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param stripes stripes of each histogram, more stripes mean less contention between threads recording the same
+     *                key and more memory, about 2.6 KiB per stripe and histogram
+     */
+    public AccessLogMetrics(int maxSeries, int stripes) {
+        this.maxSeries = maxSeries;
+        this.stripes = stripes;
+    }
+
+    @Override
+    public void record(String route, String method, int status, long durationMicros, long requestBytes, long responseBytes) {
+        String knownMethod = method != null && METHODS.contains(method) ? method : "OTHER";
+        String statusClass = status >= 100 && status < 600 ? STATUS_CLASSES[status / 100 - 1] : "unknown";
+        RouteMetricsKey key = new RouteMetricsKey(route != null ? route : UNKNOWN_ROUTE, knownMethod, statusClass);
+        Series metrics = series.get(key);
+        if (metrics == null) {
+            if (series.size() >= maxSeries) {
+                key = new RouteMetricsKey(OVERFLOW_ROUTE, knownMethod, statusClass);
+            }
+            metrics = series.computeIfAbsent(key, k -> new Series(stripes));
+        }
+        metrics.durationMicros.record(durationMicros);
+        metrics.requestBytes.record(requestBytes);
+        metrics.responseBytes.record(responseBytes);
+    }
+
+    /**
+     * Snapshots of all keys, ordered by route, method and status class.
+     */
+    public List<RouteMetricsSnapshot> snapshot() {
+        List<RouteMetricsSnapshot> snapshots = new ArrayList<>(series.size());
+        series.forEach((key, metrics) -> snapshots.add(new RouteMetricsSnapshot(key, metrics.durationMicros.snapshot(),
+                metrics.requestBytes.snapshot(), metrics.responseBytes.snapshot())));
+        snapshots.sort(Comparator.comparing(RouteMetricsSnapshot::getKey));
+        return snapshots;
+    }
+
+    private static final class Series {
+        private final LogLinearHistogram durationMicros;
+        private final LogLinearHistogram requestBytes;
+        private final LogLinearHistogram responseBytes;
+
+        private Series(int stripes) {
+            this.durationMicros = new LogLinearHistogram(stripes);
+            this.requestBytes = new LogLinearHistogram(stripes);
+            this.responseBytes = new LogLinearHistogram(stripes);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import lombok.Getter;
+
+/**
+ * Counts of a {@link LogLinearHistogram} at one point in time.
+ */
+public final class HistogramSnapshot {
+    private final long[] counts;
+    @Getter
+    private final long count;
+    @Getter
+    private final long sum;
+
+    HistogramSnapshot(long[] counts, long sum) {
+        this.counts = counts;
+        this.sum = sum;
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        this.count = total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the value at {@code quantile}, between 0 and 1, or 0 when nothing was recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return LogLinearHistogram.upperBound(bucket);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Number of values in buckets that lie entirely at or below {@code value}. Exact when {@code value} is the upper
+     * bound of a bucket, otherwise values in the bucket containing {@code value} are left out.
+     */
+    public long getCountAtOrBelow(long value) {
+        long result = 0;
+        for (int bucket = 0; bucket < counts.length && LogLinearHistogram.upperBound(bucket) <= value; bucket++) {
+            result += counts[bucket];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values in fixed memory. Values below {@value #SUB_BUCKETS} have a bucket each, larger
+ * values fall into one of {@value #SUB_BUCKETS} equal sub-buckets of their power of two, so a bucket spans at most
+ * 1/{@value #SUB_BUCKETS} of its values. Values of 2^37 and above share the last bucket.
+ *
+ * <p>Recording is lock-free. Counts live in per-thread stripes of one {@link AtomicLongArray}, padded apart from each
+ * other, and are summed when a snapshot is taken.
+ */
+public final class LogLinearHistogram {
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 36;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final int SUM_SLOT = BUCKET_COUNT;
+    private static final int PADDING = 8;
+    private static final int STRIPE_LENGTH = (SUM_SLOT + 1 + PADDING - 1) / PADDING * PADDING + PADDING;
+
+    private final AtomicLongArray slots;
+    private final int stripeMask;
+
+    /**
+     * @param stripes number of stripes, rounded up to a power of two
+     */
+    public LogLinearHistogram(int stripes) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, stripes - 1)) << (stripes > 1 ? 1 : 0);
+        this.slots = new AtomicLongArray(stripeCount * STRIPE_LENGTH);
+        this.stripeMask = stripeCount - 1;
+    }
+
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        int stripe = stripe() * STRIPE_LENGTH;
+        slots.incrementAndGet(stripe + bucketIndex(recorded));
+        slots.addAndGet(stripe + SUM_SLOT, recorded);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long sum = 0;
+        for (int stripe = 0; stripe < slots.length(); stripe += STRIPE_LENGTH) {
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                counts[bucket] += slots.get(stripe + bucket);
+            }
+            sum += slots.get(stripe + SUM_SLOT);
+        }
+        return new HistogramSnapshot(counts, sum);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Smallest value counted in the bucket.
+     */
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Largest value counted in the bucket.
+     */
+    static long upperBound(int index) {
+        return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : lowerBound(index + 1) - 1;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Renders {@link AccessLogMetrics} snapshots in the Prometheus text exposition format, as the histograms
+ * {@code <prefix>_duration_seconds}, {@code <prefix>_request_size_bytes} and {@code <prefix>_response_size_bytes}
+ * labelled with {@code route}, {@code method} and {@code status}.
+ *
+ * <p>Bucket counts are resolved to the bucket boundaries of {@link LogLinearHistogram}: a value in the histogram
+ * bucket that contains an {@code le} bound is counted in the next {@code le} bucket.
+ */
+public final class PrometheusTextRenderer {
+    public static final String DEFAULT_PREFIX = "http_server_access";
+    private static final double[] DEFAULT_DURATION_BOUNDS_SECONDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final double[] DEFAULT_SIZE_BOUNDS_BYTES = {256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304};
+    private static final double MICROS_PER_SECOND = 1_000_000;
+
+    private final String prefix;
+    private final double[] durationBoundsSeconds;
+    private final double[] sizeBoundsBytes;
+
+    public PrometheusTextRenderer() {
+        this(DEFAULT_PREFIX, DEFAULT_DURATION_BOUNDS_SECONDS, DEFAULT_SIZE_BOUNDS_BYTES);
+    }
+
+    public PrometheusTextRenderer(String prefix, double[] durationBoundsSeconds, double[] sizeBoundsBytes) {
+        this.prefix = prefix;
+        this.durationBoundsSeconds = durationBoundsSeconds.clone();
+        this.sizeBoundsBytes = sizeBoundsBytes.clone();
+    }
+
+    public String render(List<RouteMetricsSnapshot> snapshots) {
+        StringBuilder out = new StringBuilder(256 + snapshots.size() * 2048);
+        render(out, prefix + "_duration_seconds", "Duration of HTTP requests until their response was logged.",
+                snapshots, RouteMetricsSnapshot::getDurationMicros, durationBoundsSeconds, MICROS_PER_SECOND);
+        render(out, prefix + "_request_size_bytes", "Size of HTTP request bodies.",
+                snapshots, RouteMetricsSnapshot::getRequestBytes, sizeBoundsBytes, 1);
+        render(out, prefix + "_response_size_bytes", "Size of HTTP response bodies.",
+                snapshots, RouteMetricsSnapshot::getResponseBytes, sizeBoundsBytes, 1);
+        return out.toString();
+    }
+
+    private static void render(StringBuilder out, String name, String help, List<RouteMetricsSnapshot> snapshots,
+                               Function<RouteMetricsSnapshot, HistogramSnapshot> histogram, double[] bounds, double unitsPerValue) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        for (RouteMetricsSnapshot snapshot : snapshots) {
+            HistogramSnapshot values = histogram.apply(snapshot);
+            String labels = labels(snapshot.getKey());
+            for (double bound : bounds) {
+                long count = values.getCountAtOrBelow((long) Math.floor(bound * unitsPerValue));
+                sample(out, name + "_bucket", labels + ",le=\"" + bound + "\"", Long.toString(count));
+            }
+            sample(out, name + "_bucket", labels + ",le=\"+Inf\"", Long.toString(values.getCount()));
+            sample(out, name + "_sum", labels, Double.toString(values.getSum() / unitsPerValue));
+            sample(out, name + "_count", labels, Long.toString(values.getCount()));
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String labels(RouteMetricsKey key) {
+        return "route=\"" + escape(key.getRoute()) + "\",method=\"" + escape(key.getMethod()) + "\",status=\"" + key.getStatusClass() + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
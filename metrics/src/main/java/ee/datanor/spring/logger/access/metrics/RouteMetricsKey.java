@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Comparator;
+
+/**
+ * Route template, HTTP method and status class, such as {@code 2xx}, that metrics are kept for.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@RequiredArgsConstructor
+public final class RouteMetricsKey implements Comparable<RouteMetricsKey> {
+    private static final Comparator<RouteMetricsKey> ORDER = Comparator.comparing(RouteMetricsKey::getRoute)
+            .thenComparing(RouteMetricsKey::getMethod)
+            .thenComparing(RouteMetricsKey::getStatusClass);
+
+    private final String route;
+    private final String method;
+    private final String statusClass;
+
+    @Override
+    public int compareTo(RouteMetricsKey other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Histograms of one {@link RouteMetricsKey}: duration in microseconds, request and response body sizes in bytes.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class RouteMetricsSnapshot {
+    private final RouteMetricsKey key;
+    private final HistogramSnapshot durationMicros;
+    private final HistogramSnapshot requestBytes;
+    private final HistogramSnapshot responseBytes;
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogMetricsTest {
+
+    @Test
+    void shouldKeySeriesByRouteMethodAndStatusClass() {
+        // given
+        AccessLogMetrics metrics = new AccessLogMetrics(10, 1);
+
+        // when
+        metrics.record("/users/{id}", "GET", 200, 1_000, 0, 512);
+        metrics.record("/users/{id}", "GET", 204, 3_000, 0, 0);
+        metrics.record("/users/{id}", "GET", 404, 2_000, 0, 64);
+        metrics.record("/users", "BREW", 500, 2_000, 10, 64);
+        List<RouteMetricsSnapshot> snapshots = metrics.snapshot();
+
+        // then
+        assertEquals(3, snapshots.size());
+        assertEquals(new RouteMetricsKey("/users", "OTHER", "5xx"), snapshots.get(0).getKey());
+        assertEquals(new RouteMetricsKey("/users/{id}", "GET", "2xx"), snapshots.get(1).getKey());
+        assertEquals(2, snapshots.get(1).getDurationMicros().getCount());
+        assertEquals(4_000, snapshots.get(1).getDurationMicros().getSum());
+        assertEquals(512, snapshots.get(1).getResponseBytes().getSum());
+        assertEquals(new RouteMetricsKey("/users/{id}", "GET", "4xx"), snapshots.get(2).getKey());
+    }
+
+    @Test
+    void shouldRecordNewRoutesUnderOverflowRouteAboveLimit() {
+        // given
+        AccessLogMetrics metrics = new AccessLogMetrics(2, 1);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            metrics.record("/items/" + i, "GET", 200, 1_000, 0, 0);
+        }
+        List<RouteMetricsSnapshot> snapshots = metrics.snapshot();
+
+        // then
+        assertEquals(3, snapshots.size());
+        assertEquals(new RouteMetricsKey(AccessLogMetrics.OVERFLOW_ROUTE, "GET", "2xx"), snapshots.get(2).getKey());
+        assertEquals(98, snapshots.get(2).getDurationMicros().getCount());
+    }
+
+    @Test
+    void shouldRenderPrometheusHistograms() {
+        // given
+        AccessLogMetrics metrics = new AccessLogMetrics(10, 1);
+        metrics.record("/say/\"hi\"", "POST", 201, 4_000, 100, 2_000);
+        metrics.record("/say/\"hi\"", "POST", 201, 2_000_000, 100, 2_000);
+
+        // when
+        String result = new PrometheusTextRenderer().render(metrics.snapshot());
+
+        // then
+        assertTrue(result.contains("# TYPE http_server_access_duration_seconds histogram\n"));
+        String labels = "{route=\"/say/\\\"hi\\\"\",method=\"POST\",status=\"2xx\"";
+        assertTrue(result.contains("http_server_access_duration_seconds_bucket" + labels + ",le=\"0.005\"} 1\n"));
+        assertTrue(result.contains("http_server_access_duration_seconds_bucket" + labels + ",le=\"1.0\"} 1\n"));
+        assertTrue(result.contains("http_server_access_duration_seconds_bucket" + labels + ",le=\"2.5\"} 2\n"));
+        assertTrue(result.contains("http_server_access_duration_seconds_bucket" + labels + ",le=\"+Inf\"} 2\n"));
+        assertTrue(result.contains("http_server_access_duration_seconds_sum" + labels + "} 2.004\n"));
+        assertTrue(result.contains("http_server_access_request_size_bytes_count" + labels + "} 2\n"));
+        assertTrue(result.contains("http_server_access_response_size_bytes_bucket" + labels + ",le=\"4096.0\"} 2\n"));
+    }
+}
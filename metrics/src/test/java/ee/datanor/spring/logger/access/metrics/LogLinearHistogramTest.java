@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogLinearHistogramTest {
+
+    @Test
+    void shouldCoverValuesWithAdjacentBuckets() {
+        // then
+        assertEquals(0, LogLinearHistogram.lowerBound(0));
+        for (int bucket = 0; bucket < LogLinearHistogram.BUCKET_COUNT - 1; bucket++) {
+            long lower = LogLinearHistogram.lowerBound(bucket);
+            long upper = LogLinearHistogram.upperBound(bucket);
+            assertEquals(upper + 1, LogLinearHistogram.lowerBound(bucket + 1));
+            assertEquals(bucket, LogLinearHistogram.bucketIndex(lower));
+            assertEquals(bucket, LogLinearHistogram.bucketIndex(upper));
+            assertTrue(upper - lower <= Math.max(0, lower / LogLinearHistogram.SUB_BUCKETS));
+        }
+        assertEquals(LogLinearHistogram.BUCKET_COUNT - 1, LogLinearHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldReportQuantilesWithinBucketResolution() {
+        // given
+        LogLinearHistogram histogram = new LogLinearHistogram(4);
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        // when
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        // then
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500_500_000, snapshot.getSum());
+        assertEquals(500_000, snapshot.getValueAtQuantile(0.5), 500_000 / LogLinearHistogram.SUB_BUCKETS);
+        assertEquals(990_000, snapshot.getValueAtQuantile(0.99), 990_000 / LogLinearHistogram.SUB_BUCKETS);
+        assertEquals(0, snapshot.getCountAtOrBelow(1000));
+        assertEquals(1, snapshot.getCountAtOrBelow(1023));
+        assertEquals(1000, snapshot.getCountAtOrBelow(1_048_575));
+    }
+
+    @Test
+    void shouldNotLoseConcurrentRecordings() throws InterruptedException {
+        // given
+        LogLinearHistogram histogram = new LogLinearHistogram(2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(40_000, snapshot.getCount());
+        assertEquals(4L * 9_999 * 10_000 / 2, snapshot.getSum());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.async.BodyBufferPool;
+import ee.datanor.spring.logger.access.processor.AccessLogContext;
+import ee.datanor.spring.logger.access.processor.DeferrableLogProcessor;
+import ee.datanor.spring.logger.access.processor.DeferrableRequestLogProcessor;
+import ee.datanor.spring.logger.access.processor.DeferrableResponseLogProcessor;
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.processor.ResponseLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.util.List;
+
+/**
+ * The processors of an {@link AccessLogger} compiled once, when the logger is built, into arrays per logging phase.
+ *
+ * <p>Which processors can defer their work to an async dispatcher and which are skipped when tail sampling drops the
+ * bodies is decided here instead of on every request, and all processors of a phase share one
+ * {@link AccessLogContext}.
+ */
+final class AccessLogPipeline {
+    private final RequestStage requestStage;
+    private final RequestStage deferredRequestStage;
+    private final ResponseStage responseStage;
+
+    private AccessLogPipeline(RequestStage requestStage, RequestStage deferredRequestStage, ResponseStage responseStage) {
+        this.requestStage = requestStage;
+        this.deferredRequestStage = deferredRequestStage;
+        this.responseStage = responseStage;
+    }
+
+    static AccessLogPipeline compile(List<RequestLogProcessor> requestLogProcessors, List<RequestLogProcessor> deferredRequestLogProcessors,
+                                     List<ResponseLogProcessor> responseLogProcessors) {
+        return new AccessLogPipeline(new RequestStage(requestLogProcessors), new RequestStage(deferredRequestLogProcessors),
+                new ResponseStage(responseLogProcessors));
+    }
+
+    void processRequest(AccessLogContext context, AccessLogRecord record) {
+        requestStage.process(context, record, requestStage.processors);
+    }
+
+    void captureRequest(AccessLogContext context, AccessLogRecord record, BodyBufferPool bufferPool, List<DeferredLogValue> deferredValues) {
+        requestStage.capture(context, record, bufferPool, deferredValues);
+    }
+
+    /**
+     * Runs the request processors deferred until the response, and the response processors. Without
+     * {@code withBodies} the processors logging bodies are skipped.
+     */
+    void processResponse(AccessLogContext context, ContentCachingResponseWrapper httpResponse, boolean isAsync, AccessLogRecord record,
+                         boolean withBodies) {
+        deferredRequestStage.process(context, record, withBodies ? deferredRequestStage.processors : deferredRequestStage.processorsWithoutBodies);
+        responseStage.process(context, httpResponse, isAsync, record, withBodies ? responseStage.processors : responseStage.processorsWithoutBodies);
+    }
+
+    void captureResponse(AccessLogContext context, ContentCachingResponseWrapper httpResponse, boolean isAsync, AccessLogRecord record,
+                         BodyBufferPool bufferPool, List<DeferredLogValue> deferredValues) {
+        deferredRequestStage.capture(context, record, bufferPool, deferredValues);
+        responseStage.capture(context, httpResponse, isAsync, record, bufferPool, deferredValues);
+    }
+
+    int getRequestCaptureCount() {
+        return requestStage.captureCount;
+    }
+
+    int getResponseCaptureCount() {
+        return deferredRequestStage.captureCount + responseStage.captureCount;
+    }
+
+    private static int countDeferrable(Object[] deferrables) {
+        int count = 0;
+        for (Object deferrable : deferrables) {
+            if (deferrable != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void addIfPresent(List<DeferredLogValue> deferredValues, DeferredLogValue value) {
+        if (value != null) {
+            deferredValues.add(value);
+        }
+    }
+
+    /**
+     * Processors with, at the same index, the processor as deferrable or {@code null} when it is not.
+     */
+    private static final class RequestStage {
+        private final RequestLogProcessor[] processors;
+        private final RequestLogProcessor[] processorsWithoutBodies;
+        private final DeferrableRequestLogProcessor[] deferrables;
+        private final int captureCount;
+
+        RequestStage(List<RequestLogProcessor> processors) {
+            this.processors = processors.toArray(new RequestLogProcessor[0]);
+            this.processorsWithoutBodies = processors.stream()
+                    .filter(p -> !(p instanceof DeferrableLogProcessor))
+                    .toArray(RequestLogProcessor[]::new);
+            this.deferrables = processors.stream()
+                    .map(p -> p instanceof DeferrableRequestLogProcessor ? (DeferrableRequestLogProcessor) p : null)
+                    .toArray(DeferrableRequestLogProcessor[]::new);
+            this.captureCount = countDeferrable(deferrables);
+        }
+
+        void process(AccessLogContext context, AccessLogRecord record, RequestLogProcessor[] stageProcessors) {
+            for (RequestLogProcessor processor : stageProcessors) {
+                processor.process(context, record);
+            }
+        }
+
+        void capture(AccessLogContext context, AccessLogRecord record, BodyBufferPool bufferPool, List<DeferredLogValue> deferredValues) {
+            for (int i = 0; i < processors.length; i++) {
+                if (deferrables[i] != null) {
+                    addIfPresent(deferredValues, deferrables[i].capture(context, record, bufferPool));
+                } else {
+                    processors[i].process(context, record);
+                }
+            }
+        }
+    }
+
+    private static final class ResponseStage {
+        private final ResponseLogProcessor[] processors;
+        private final ResponseLogProcessor[] processorsWithoutBodies;
+        private final DeferrableResponseLogProcessor[] deferrables;
+        private final int captureCount;
+
+        ResponseStage(List<ResponseLogProcessor> processors) {
+            this.processors = processors.toArray(new ResponseLogProcessor[0]);
+            this.processorsWithoutBodies = processors.stream()
+                    .filter(p -> !(p instanceof DeferrableLogProcessor))
+                    .toArray(ResponseLogProcessor[]::new);
+            this.deferrables = processors.stream()
+                    .map(p -> p instanceof DeferrableResponseLogProcessor ? (DeferrableResponseLogProcessor) p : null)
+                    .toArray(DeferrableResponseLogProcessor[]::new);
+            this.captureCount = countDeferrable(deferrables);
+        }
+
+        void process(AccessLogContext context, ContentCachingResponseWrapper httpResponse, boolean isAsync, AccessLogRecord record,
+                     ResponseLogProcessor[] stageProcessors) {
+            for (ResponseLogProcessor processor : stageProcessors) {
+                processor.process(context, httpResponse, isAsync, record);
+            }
+        }
+
+        void capture(AccessLogContext context, ContentCachingResponseWrapper httpResponse, boolean isAsync, AccessLogRecord record,
+                     BodyBufferPool bufferPool, List<DeferredLogValue> deferredValues) {
+            for (int i = 0; i < processors.length; i++) {
+                if (deferrables[i] != null) {
+                    addIfPresent(deferredValues, deferrables[i].capture(context, httpResponse, isAsync, record, bufferPool));
+                } else {
+                    processors[i].process(context, httpResponse, isAsync, record);
+                }
+            }
+        }
+    }
+}
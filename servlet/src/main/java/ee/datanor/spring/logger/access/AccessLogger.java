@@ -0,0 +1,371 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.processor.AccessLogContext;
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.processor.LogProcessor;
+import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.processor.ResponseLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.record.MdcAccessLogRecordAdapter;
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.access.route.RouteMetricsRecorder;
+import ee.datanor.spring.logger.access.sampling.PendingAccessLog;
+import ee.datanor.spring.logger.access.sampling.Sampler;
+import ee.datanor.spring.logger.access.sampling.SamplingDecision;
+import ee.datanor.spring.logger.access.sampling.TailDetail;
+import ee.datanor.spring.logger.access.sampling.TailSampler;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import ee.datanor.spring.logger.util.RequestUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the log processors and writes the request and response lines.
+ *
+ * <p>Processors fill a per-thread {@link AccessLogRecord}, or with request scoped state one kept in the request
+ * attributes, which is published to the MDC in one step right before each line is written. The processors are compiled
+ * into an {@link AccessLogPipeline} when the logger is created.
+ */
+@Slf4j
+public class AccessLogger {
+    /**
+     * Request attribute holding the record of the request when the state is request scoped.
+     */
+    public static final String RECORD_ATTRIBUTE = AccessLogRecord.class.getName();
+
+    private final Logger requestLogger = LoggerFactory.getLogger("access-request-log");
+    private final Logger responseLogger = LoggerFactory.getLogger("access-response-log");
+    private final AccessLogPipeline pipeline;
+    @Getter
+    private final AccessLogSink sink;
+    @Getter
+    private final BodyCaptureSettings bodyCaptureSettings;
+    @Getter
+    private final AsyncAccessLogDispatcher asyncDispatcher;
+    @Getter
+    private final Sampler sampler;
+    @Getter
+    private final TailSampler tailSampler;
+    @Getter
+    private final RouteMetricsRecorder metrics;
+    @Getter
+    private final RouteKeyResolver routeKeyResolver;
+    @Getter
+    private final boolean requestScopedState;
+    private final AtomicInteger threadRecords = new AtomicInteger();
+    private final ThreadLocal<AccessLogRecord> records = ThreadLocal.withInitial(this::newThreadRecord);
+
+    public static AccessLoggerBuilder builder() {
+        return new AccessLoggerBuilder();
+    }
+
+    public AccessLogger(List<RequestLogProcessor> requestLogProcessors, List<ResponseLogProcessor> responseLogProcessors) {
+        this(AccessLogPipeline.compile(requestLogProcessors, List.of(), responseLogProcessors), AccessLoggerSettings.DEFAULT);
+    }
+
+    AccessLogger(AccessLogPipeline pipeline, AccessLoggerSettings settings) {
+        this.pipeline = pipeline;
+        this.sink = settings.getSink();
+        this.bodyCaptureSettings = settings.getBodyCaptureSettings();
+        this.asyncDispatcher = settings.getAsyncDispatcher();
+        this.sampler = settings.getSampler();
+        this.tailSampler = settings.getTailSampler();
+        this.metrics = settings.getMetrics();
+        this.routeKeyResolver = settings.getRouteKeyResolver();
+        this.requestScopedState = settings.isRequestScopedState();
+    }
+
+    /**
+     * Whether {@code httpRequest} is logged. The decision is made once per request and kept in its attributes.
+     */
+    public SamplingDecision sample(HttpServletRequest httpRequest) {
+        if (sampler == null) {
+            return SamplingDecision.ALWAYS;
+        }
+        SamplingDecision decision = SamplingDecision.get(httpRequest);
+        if (decision == null) {
+            decision = sampler.decide(httpRequest);
+            httpRequest.setAttribute(SamplingDecision.ATTRIBUTE, decision);
+        }
+        return decision;
+    }
+
+    public void logRequest(HttpServletRequest httpRequest) {
+        if (tailSampler != null) {
+            holdRequest(httpRequest);
+            return;
+        }
+        AccessLogRecord record = getRecord(httpRequest);
+        record.clear();
+        AccessLogContext context = AccessLogContext.get(httpRequest, null, routeKeyResolver);
+        setCommonFields(context, record);
+        if (asyncDispatcher != null) {
+            List<DeferredLogValue> deferredValues = new ArrayList<>(pipeline.getRequestCaptureCount());
+            pipeline.captureRequest(context, record, asyncDispatcher.getBufferPool(), deferredValues);
+            MdcAccessLogRecordAdapter.publish(record);
+            dispatch(AccessLogLine.REQUEST, record.copy(), deferredValues);
+            return;
+        }
+        pipeline.processRequest(context, record);
+        MdcAccessLogRecordAdapter.publish(record);
+        write(AccessLogLine.REQUEST, record);
+    }
+
+    /**
+     * When the request carries a {@link RequestTimer}, the processing time and the time spent in each phase so far
+     * are added to the record.
+     */
+    public void logResponse(HttpServletRequest httpRequest, ContentCachingResponseWrapper httpResponse, boolean isAsync) {
+        long responseLogStart = System.nanoTime();
+        AccessLogContext context = AccessLogContext.get(httpRequest, httpResponse, routeKeyResolver);
+        RequestTimer timer = metrics != null ? RequestTimer.get(httpRequest) : null;
+        if (timer != null) {
+            recordMetrics(context.getRoute(), httpRequest, httpResponse, timer.elapsed(responseLogStart, TimeUnit.NANOSECONDS));
+        }
+        if (tailSampler != null) {
+            logHeldRequest(context, httpResponse, isAsync, responseLogStart);
+            return;
+        }
+        AccessLogRecord record = getRecord(httpRequest);
+        try {
+            setCommonFields(context, record);
+            if (asyncDispatcher != null) {
+                List<DeferredLogValue> deferredValues = new ArrayList<>(pipeline.getResponseCaptureCount());
+                pipeline.captureResponse(context, httpResponse, isAsync, record, asyncDispatcher.getBufferPool(), deferredValues);
+                setTimings(httpRequest, record, responseLogStart);
+                publishUnlessSink(record);
+                dispatch(AccessLogLine.RESPONSE, record.copy(), deferredValues);
+                return;
+            }
+            pipeline.processResponse(context, httpResponse, isAsync, record, true);
+            setTimings(httpRequest, record, responseLogStart);
+            publishUnlessSink(record);
+            write(AccessLogLine.RESPONSE, record);
+        } finally {
+            record.clear();
+        }
+    }
+
+    /**
+     * Moves the record of the current thread into the request attributes, for a request whose response is logged on
+     * another thread.
+     */
+    public void detachRecord(HttpServletRequest httpRequest) {
+        if (requestScopedState || httpRequest.getAttribute(RECORD_ATTRIBUTE) != null) {
+            return;
+        }
+        AccessLogRecord record = records.get();
+        httpRequest.setAttribute(RECORD_ATTRIBUTE, record.copy());
+        record.clear();
+    }
+
+    /**
+     * Number of threads a record was created for, which stays 0 with request scoped state.
+     */
+    int getThreadRecordCount() {
+        return threadRecords.get();
+    }
+
+    private AccessLogRecord newThreadRecord() {
+        threadRecords.incrementAndGet();
+        return new AccessLogRecord();
+    }
+
+    private AccessLogRecord getRecord(HttpServletRequest httpRequest) {
+        Object record = httpRequest.getAttribute(RECORD_ATTRIBUTE);
+        if (record instanceof AccessLogRecord) {
+            return (AccessLogRecord) record;
+        }
+        if (!requestScopedState) {
+            return records.get();
+        }
+        AccessLogRecord newRecord = new AccessLogRecord();
+        httpRequest.setAttribute(RECORD_ATTRIBUTE, newRecord);
+        return newRecord;
+    }
+
+    /**
+     * Records the duration and body sizes of a completed request, when metrics are enabled.
+     */
+    public void recordMetrics(HttpServletRequest httpRequest, HttpServletResponse httpResponse, long durationNanos) {
+        if (metrics == null) {
+            return;
+        }
+        recordMetrics(RequestUtil.getRoute(httpRequest, routeKeyResolver), httpRequest, httpResponse, durationNanos);
+    }
+
+    private void recordMetrics(String route, HttpServletRequest httpRequest, HttpServletResponse httpResponse, long durationNanos) {
+        metrics.record(route, httpRequest.getMethod(), httpResponse.getStatus(), TimeUnit.NANOSECONDS.toMicros(durationNanos),
+                getRequestBytes(httpRequest), getResponseBytes(httpResponse));
+    }
+
+    private static long getRequestBytes(HttpServletRequest httpRequest) {
+        if (httpRequest instanceof TeeCapturingRequestWrapper) {
+            return ((TeeCapturingRequestWrapper) httpRequest).getBytesRead();
+        }
+        return Math.max(0, httpRequest.getContentLengthLong());
+    }
+
+    private static long getResponseBytes(HttpServletResponse httpResponse) {
+        if (httpResponse instanceof WrittenBytesAware) {
+            return ((WrittenBytesAware) httpResponse).getBytesWritten();
+        }
+        if (httpResponse instanceof ContentCachingResponseWrapper) {
+            return ((ContentCachingResponseWrapper) httpResponse).getContentSize();
+        }
+        String contentLength = httpResponse.getHeader("Content-Length");
+        return contentLength != null && StringUtils.isNumeric(contentLength) ? Long.parseLong(contentLength) : 0;
+    }
+
+    private void holdRequest(HttpServletRequest httpRequest) {
+        AccessLogRecord record = new AccessLogRecord();
+        AccessLogContext context = AccessLogContext.get(httpRequest, null, routeKeyResolver);
+        setCommonFields(context, record);
+        pipeline.processRequest(context, record);
+        PendingAccessLog pending = tailSampler.hold(record, System.nanoTime());
+        if (pending != null) {
+            httpRequest.setAttribute(PendingAccessLog.ATTRIBUTE, pending);
+        }
+    }
+
+    /**
+     * Writes the held request line and the response line in the detail decided by the tail sampler. Only the
+     * response line is written when the request was not held for lack of memory. Processors run on the request
+     * thread, also with an async dispatcher, as body slices are not captured for requests that are not logged.
+     */
+    private void logHeldRequest(AccessLogContext context, ContentCachingResponseWrapper httpResponse, boolean isAsync, long responseLogStart) {
+        HttpServletRequest httpRequest = context.getRequest();
+        PendingAccessLog pending = PendingAccessLog.remove(httpRequest);
+        try {
+            long durationMillis = getDurationMillis(httpRequest, pending, responseLogStart);
+            TailDetail detail = tailSampler.decide(context.getRequestPath(), httpResponse.getStatus(), durationMillis);
+            if (detail == TailDetail.NONE) {
+                return;
+            }
+            boolean withBodies = detail == TailDetail.FULL;
+            AccessLogRecord record = pending != null ? pending.getRecord() : new AccessLogRecord();
+            if (!withBodies && record.get(AccessLogField.REQUEST_BODY) != null) {
+                record.set(AccessLogField.REQUEST_BODY, LogProcessor.EMPTY_REPLACEMENT);
+            }
+            if (pending != null) {
+                emit(AccessLogLine.REQUEST, record);
+            }
+            pipeline.processResponse(context, httpResponse, isAsync, record, withBodies);
+            setCommonFields(context, record);
+            setTimings(httpRequest, record, responseLogStart);
+            emit(AccessLogLine.RESPONSE, record);
+        } finally {
+            if (pending != null) {
+                tailSampler.release(pending);
+            }
+        }
+    }
+
+    private static long getDurationMillis(HttpServletRequest httpRequest, PendingAccessLog pending, long responseLogStart) {
+        RequestTimer timer = RequestTimer.get(httpRequest);
+        if (timer != null) {
+            return timer.elapsed(responseLogStart, TimeUnit.MILLISECONDS);
+        }
+        return pending != null ? TimeUnit.NANOSECONDS.toMillis(responseLogStart - pending.getStartNanos()) : 0;
+    }
+
+    private void emit(AccessLogLine line, AccessLogRecord record) {
+        publishUnlessSink(record);
+        if (asyncDispatcher != null) {
+            dispatch(line, record.copy(), List.of());
+        } else {
+            write(line, record);
+        }
+    }
+
+    private void write(AccessLogLine line, AccessLogRecord record) {
+        if (sink != null) {
+            sink.write(line, record);
+        } else if (line == AccessLogLine.REQUEST) {
+            requestLogger.info("Incoming Request {}", getRequestLine(record));
+        } else {
+            responseLogger.info("Outgoing response {}", getRequestLine(record));
+        }
+    }
+
+    private void dispatch(AccessLogLine line, AccessLogRecord record, List<DeferredLogValue> deferredValues) {
+        if (sink != null) {
+            asyncDispatcher.dispatch(sink, line, record, deferredValues);
+        } else if (line == AccessLogLine.REQUEST) {
+            asyncDispatcher.dispatch(requestLogger, "Incoming Request {}", record, deferredValues);
+        } else {
+            asyncDispatcher.dispatch(responseLogger, "Outgoing response {}", record, deferredValues);
+        }
+    }
+
+    /**
+     * Values logged after the request has been handled are published only for the access loggers, a sink reads them
+     * from the record.
+     */
+    private void publishUnlessSink(AccessLogRecord record) {
+        if (sink == null) {
+            MdcAccessLogRecordAdapter.publish(record);
+        }
+    }
+
+    /**
+     * The request line is read from the MDC when the record has none, e.g. when it was set by a processor that only
+     * writes to the MDC.
+     */
+    private static String getRequestLine(AccessLogRecord record) {
+        String requestLine = record.get(AccessLogField.REQUEST_LINE);
+        return requestLine != null ? requestLine : MDC.get(AccessLogField.REQUEST_LINE.getMdcKey());
+    }
+
+    private void setCommonFields(AccessLogContext context, AccessLogRecord record) {
+        record.set(AccessLogField.ROUTE, context.getRoute());
+        SamplingDecision decision = sampler != null ? SamplingDecision.get(context.getRequest()) : null;
+        if (decision != null) {
+            record.set(AccessLogField.SAMPLING_WEIGHT, decision.formatWeight());
+        }
+    }
+
+    private static void setTimings(HttpServletRequest httpRequest, AccessLogRecord record, long responseLogStart) {
+        RequestTimer timer = RequestTimer.get(httpRequest);
+        if (timer == null) {
+            return;
+        }
+        long responseLogMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - responseLogStart);
+        record.set(AccessLogField.PROCESSING_TIME, Long.toString(timer.elapsed(responseLogStart, TimeUnit.MILLISECONDS)));
+        record.set(AccessLogField.REQUEST_LOG_TIME, Long.toString(timer.get(RequestTimer.Phase.REQUEST_LOG, TimeUnit.MICROSECONDS)));
+        record.set(AccessLogField.CHAIN_TIME, Long.toString(timer.get(RequestTimer.Phase.CHAIN, TimeUnit.MICROSECONDS)));
+        record.set(AccessLogField.RESPONSE_LOG_TIME,
+                Long.toString(timer.get(RequestTimer.Phase.RESPONSE_LOG, TimeUnit.MICROSECONDS) + responseLogMicros));
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.id.RandomRequestIdGenerator;
+import ee.datanor.spring.logger.access.id.RequestIdGenerator;
+import ee.datanor.spring.logger.access.processor.LogProcessor;
+import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.processor.ResponseLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.ClientIpLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.RequestBodyLengthLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.RequestBodyLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.RequestHashLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.RequestHeadersLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.RequestLineLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.RequestTimeLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.ServerInfoLogProcessor;
+import ee.datanor.spring.logger.access.processor.response.ResponseBodyLogProcessor;
+import ee.datanor.spring.logger.access.processor.response.ResponseHeadersLogProcessor;
+import ee.datanor.spring.logger.access.processor.response.ResponseStatusLogProcessor;
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.access.route.RouteMetricsRecorder;
+import ee.datanor.spring.logger.access.route.SegmentRule;
+import ee.datanor.spring.logger.access.sampling.HeadSampler;
+import ee.datanor.spring.logger.access.sampling.Sampler;
+import ee.datanor.spring.logger.access.sampling.SamplingRule;
+import ee.datanor.spring.logger.access.sampling.TailDetail;
+import ee.datanor.spring.logger.access.sampling.TailSampler;
+import ee.datanor.spring.logger.access.sampling.TailSamplingRule;
+import ee.datanor.spring.logger.access.sampling.TokenBucket;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.JsonFieldMasker;
+import ee.datanor.spring.logger.util.ParameterMasker;
+import org.springframework.web.multipart.MultipartResolver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AccessLoggerBuilder {
+    private final Map<String, ParameterMasker> parameterMaskers = new LinkedHashMap<>();
+    private final Map<String, BodyMasker> bodyMaskers = new LinkedHashMap<>();
+    private final Map<String, Set<String>> jsonFieldKeys = new LinkedHashMap<>();
+    private final List<RequestLogProcessor> requestLogProcessors;
+    private final List<ResponseLogProcessor> responseLogProcessors;
+    private int maxLoggedRequestBodyLength = 1024;
+    private int maxLoggedResponseBodyLength = 1024;
+    private boolean logRequestBody = false;
+    private boolean logResponseBody = false;
+    private boolean captureRequestBodyOnRead = false;
+    private long requestBodyCaptureCeiling = BodyCaptureSettings.UNLIMITED;
+    private boolean streamResponseBody = false;
+    private int bodyMaskingLookahead = LogProcessor.MASK_WHOLE_BODY;
+    private AsyncAccessLogDispatcher asyncDispatcher;
+    private final List<SamplingRule> samplingRules = new ArrayList<>();
+    private double defaultSamplingRate = 1;
+    private TokenBucket samplingCeiling;
+    private String samplingCorrelationIdHeaderName;
+    private Sampler sampler;
+    private TailDetail tailSamplingHealthyDetail;
+    private final List<TailSamplingRule> tailSamplingRules = new ArrayList<>();
+    private TailSamplingRule defaultTailSamplingRule = new TailSamplingRule("/**", Long.MAX_VALUE, 500);
+    private long tailSamplingMemoryLimit = TailSampler.DEFAULT_MEMORY_LIMIT;
+    private RouteMetricsRecorder metrics;
+    private RouteKeyResolver routeKeyResolver = new RouteKeyResolver();
+    private boolean requestScopedState = false;
+    private AccessLogSink sink;
+    private RequestIdGenerator requestIdGenerator = new RandomRequestIdGenerator(RequestHashLogProcessor.DEFAULT_HASH_LENGTH);
+    private List<RequestLogProcessor> additionalRequestLogProcessors = new ArrayList<>();
+    private List<ResponseLogProcessor> additionalResponseLogProcessors = new ArrayList<>();
+    private Set<String> includedRequestHeaders = new LinkedHashSet<>();
+    private Set<String> includedResponseHeaders = new LinkedHashSet<>();
+    private MultipartResolver multipartResolver;
+    private Set<String> loggedResponseBodyMediaTypes = new HashSet<>(Set.of("json", "xml"));
+
+    AccessLoggerBuilder() {
+        this.requestLogProcessors = new ArrayList<>(List.of(
+                new RequestTimeLogProcessor(),
+                new ServerInfoLogProcessor(),
+                new ClientIpLogProcessor()
+        ));
+        this.responseLogProcessors = new ArrayList<>(List.of(
+                new ResponseStatusLogProcessor()
+        ));
+    }
+
+    public AccessLoggerBuilder sensitiveUriParameter(String uriPattern, String parameterName) {
+        this.parameterMaskers.put(uriPattern, new ParameterMasker(parameterName));
+        return this;
+    }
+
+    public AccessLoggerBuilder sensitiveBodyPattern(String uriPattern, String regexp) {
+        this.bodyMaskers.put(uriPattern, new BodyMasker(regexp));
+        return this;
+    }
+
+    /**
+     * Mask the values of the given JSON fields in request and response bodies on paths matching {@code uriPattern}.
+     * A key is either a field name, masked at any depth, or a dotted path from the root such as {@code user.password}.
+     */
+    public AccessLoggerBuilder sensitiveJsonFields(String uriPattern, String... keys) {
+        this.jsonFieldKeys.computeIfAbsent(uriPattern, p -> new LinkedHashSet<>()).addAll(List.of(keys));
+        return this;
+    }
+
+    public AccessLoggerBuilder maxRequestBodyLength(int maxLoggedRequestBodyLength) {
+        this.maxLoggedRequestBodyLength = maxLoggedRequestBodyLength;
+        return this;
+    }
+
+    public AccessLoggerBuilder maxResponseBodyLength(int maxLoggedResponseBodyLength) {
+        this.maxLoggedResponseBodyLength = maxLoggedResponseBodyLength;
+        return this;
+    }
+
+    public AccessLoggerBuilder logRequestBody(MultipartResolver multipartResolver) {
+        if (multipartResolver != null) {
+            this.multipartResolver = multipartResolver;
+            this.logRequestBody = true;
+        }
+        return this;
+    }
+
+    /**
+     * Capture the request body while the application reads it, keeping at most {@code maxRequestBodyLength}
+     * bytes. The request body is then logged with the response instead of the request.
+     */
+    public AccessLoggerBuilder captureRequestBodyOnRead() {
+        this.captureRequestBodyOnRead = true;
+        return this;
+    }
+
+    /**
+     * Requests declaring a Content-Length above the ceiling are passed on unwrapped and their body is not logged.
+     */
+    public AccessLoggerBuilder requestBodyCaptureCeiling(long requestBodyCaptureCeiling) {
+        this.requestBodyCaptureCeiling = requestBodyCaptureCeiling;
+        return this;
+    }
+
+    public AccessLoggerBuilder logResponseBody() {
+        this.logResponseBody = true;
+        return this;
+    }
+
+    /**
+     * Write the response through to the client as the application produces it and keep only the first
+     * {@code maxResponseBodyLength} bytes for logging, instead of holding the whole response in memory.
+     */
+    public AccessLoggerBuilder streamResponseBody() {
+        this.streamResponseBody = true;
+        return this;
+    }
+
+    /**
+     * Decode and mask only the logged part of request and response bodies plus {@code lookaheadBytes}, instead of
+     * the whole body. A sensitive value that starts before the cut is still masked as long as it ends within the
+     * lookahead. Logged bodies are cut to the maximum length in UTF-8 bytes, on a code point boundary.
+     */
+    public AccessLoggerBuilder boundedBodyMasking(int lookaheadBytes) {
+        if (lookaheadBytes < 0) {
+            throw new IllegalArgumentException("Masking lookahead must not be negative");
+        }
+        this.bodyMaskingLookahead = lookaheadBytes;
+        return this;
+    }
+
+    /**
+     * Mask, escape and write log lines on the dispatcher's worker threads instead of the request thread.
+     */
+    public AccessLoggerBuilder asyncDispatcher(AsyncAccessLogDispatcher asyncDispatcher) {
+        this.asyncDispatcher = asyncDispatcher;
+        return this;
+    }
+
+    /**
+     * Generator of the {@code AL_REQUEST_HASH} values, by default 8 random alphanumeric characters.
+     */
+    public AccessLoggerBuilder requestIdGenerator(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+        return this;
+    }
+
+    /**
+     * Log only the given share, between 0 and 1, of requests not matching any URI specific sampling rate.
+     */
+    public AccessLoggerBuilder sampleRate(double rate) {
+        this.defaultSamplingRate = rate;
+        return this;
+    }
+
+    /**
+     * Log only the given share of requests whose path matches {@code uriPattern}.
+     */
+    public AccessLoggerBuilder sampleRate(String uriPattern, double rate) {
+        this.samplingRules.add(new SamplingRule(uriPattern, null, rate));
+        return this;
+    }
+
+    /**
+     * Log only the given share of {@code method} requests whose path matches {@code uriPattern}.
+     */
+    public AccessLoggerBuilder sampleRate(String uriPattern, String method, double rate) {
+        this.samplingRules.add(new SamplingRule(uriPattern, method, rate));
+        return this;
+    }
+
+    /**
+     * Log at most {@code requestsPerSecond} sampled requests on average, allowing bursts of {@code burst} requests.
+     */
+    public AccessLoggerBuilder sampleRateLimit(double requestsPerSecond, int burst) {
+        this.samplingCeiling = new TokenBucket(requestsPerSecond, burst);
+        return this;
+    }
+
+    /**
+     * Decide on requests carrying the given header from a hash of its value instead of randomly, so that all services
+     * sampling at the same rate log the same requests of a call chain.
+     */
+    public AccessLoggerBuilder sampleByCorrelationId(String correlationIdHeaderName) {
+        this.samplingCorrelationIdHeaderName = correlationIdHeaderName;
+        return this;
+    }
+
+    /**
+     * Use a custom sampler instead of the one configured with the {@code sample*} methods.
+     */
+    public AccessLoggerBuilder sampler(Sampler sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
+    /**
+     * Decide how much of a request is logged only once its response is known: slow or failed requests in full,
+     * all others in {@code healthyDetail}. Without thresholds, requests failing with a 5xx status are logged in full.
+     */
+    public AccessLoggerBuilder tailSampling(TailDetail healthyDetail) {
+        this.tailSamplingHealthyDetail = healthyDetail;
+        return this;
+    }
+
+    /**
+     * With tail sampling, log requests in full that take at least {@code slowThresholdMillis} or end with a status
+     * of at least {@code minErrorStatus}, on paths not matching any URI specific threshold.
+     */
+    public AccessLoggerBuilder tailSamplingThreshold(long slowThresholdMillis, int minErrorStatus) {
+        this.defaultTailSamplingRule = new TailSamplingRule("/**", slowThresholdMillis, minErrorStatus);
+        return this;
+    }
+
+    /**
+     * With tail sampling, log requests in full whose path matches {@code uriPattern} and that take at least
+     * {@code slowThresholdMillis} or end with a status of at least {@code minErrorStatus}.
+     */
+    public AccessLoggerBuilder tailSamplingThreshold(String uriPattern, long slowThresholdMillis, int minErrorStatus) {
+        this.tailSamplingRules.add(new TailSamplingRule(uriPattern, slowThresholdMillis, minErrorStatus));
+        return this;
+    }
+
+    /**
+     * Bytes, 16 MiB by default, that request values waiting for the tail sampling decision may take in total.
+     */
+    public AccessLoggerBuilder tailSamplingMemoryLimit(long bytes) {
+        this.tailSamplingMemoryLimit = bytes;
+        return this;
+    }
+
+    /**
+     * Record duration and body sizes of all requests into {@code metrics}, e.g. an {@code AccessLogMetrics} rendered with
+     * {@code PrometheusTextRenderer} of the {@code spring-access-logger-metrics} module.
+     */
+    public AccessLoggerBuilder metrics(RouteMetricsRecorder metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Replace path segments matching any of the rules with their placeholder in route keys of requests not handled by
+     * Spring MVC, instead of the default numeric, UUID and hex id rules.
+     */
+    public AccessLoggerBuilder routeSegmentRules(SegmentRule... segmentRules) {
+        this.routeKeyResolver = new RouteKeyResolver(List.of(segmentRules), RouteKeyResolver.DEFAULT_MAX_ROUTES,
+                RouteKeyResolver.DEFAULT_MAX_CACHED_PATHS);
+        return this;
+    }
+
+    /**
+     * Use a custom resolver of the {@code AL_ROUTE} field and the metrics route.
+     */
+    public AccessLoggerBuilder routeKeyResolver(RouteKeyResolver routeKeyResolver) {
+        this.routeKeyResolver = routeKeyResolver;
+        return this;
+    }
+
+    /**
+     * Keep the state of a request in its attributes instead of thread locals, and have the filter restore the MDC the
+     * request arrived with instead of clearing it. Suits servers running requests on virtual threads.
+     */
+    public AccessLoggerBuilder requestScopedState() {
+        this.requestScopedState = true;
+        return this;
+    }
+
+    /**
+     * Write the access log lines to {@code sink} instead of the {@code access-request-log} and
+     * {@code access-response-log} loggers.
+     */
+    public AccessLoggerBuilder sink(AccessLogSink sink) {
+        this.sink = sink;
+        return this;
+    }
+
+    public AccessLoggerBuilder addRequestProcessor(RequestLogProcessor requestLogProcessor) {
+        this.additionalRequestLogProcessors.add(requestLogProcessor);
+        return this;
+    }
+
+    public AccessLoggerBuilder addResponseProcessor(ResponseLogProcessor responseLogProcessor) {
+        this.additionalResponseLogProcessors.add(responseLogProcessor);
+        return this;
+    }
+
+    public AccessLoggerBuilder loggedRequestHeaders(String... headers) {
+        this.includedRequestHeaders.addAll(List.of(headers));
+        return this;
+    }
+
+    public AccessLoggerBuilder loggedResponseHeaders(String... headers) {
+        this.includedResponseHeaders.addAll(List.of(headers));
+        return this;
+    }
+
+    public AccessLoggerBuilder loggedResponseBodyMediaTypes(Set<String> loggedResponseBodyMediaTypes) {
+        this.loggedResponseBodyMediaTypes = loggedResponseBodyMediaTypes;
+        return this;
+    }
+
+    public AccessLogger build() {
+        Map<String, JsonFieldMasker> jsonFieldMaskers = new LinkedHashMap<>();
+        jsonFieldKeys.forEach((uriPattern, keys) -> jsonFieldMaskers.put(uriPattern, new JsonFieldMasker(keys)));
+        requestLogProcessors.add(new RequestHashLogProcessor(requestIdGenerator));
+        List<RequestLogProcessor> deferredRequestLogProcessors = new ArrayList<>();
+        requestLogProcessors.add(new RequestLineLogProcessor(parameterMaskers));
+        requestLogProcessors.add(new RequestHeadersLogProcessor(includedRequestHeaders));
+        if (logRequestBody) {
+            requestLogProcessors.add(new RequestBodyLengthLogProcessor());
+            List<RequestLogProcessor> bodyLogProcessors = captureRequestBodyOnRead ? deferredRequestLogProcessors : requestLogProcessors;
+            bodyLogProcessors.add(
+                    new RequestBodyLogProcessor(
+                            parameterMaskers,
+                            maxLoggedRequestBodyLength,
+                            multipartResolver,
+                            bodyMaskers,
+                            jsonFieldMaskers,
+                            bodyMaskingLookahead
+                    )
+            );
+        }
+
+        responseLogProcessors.add(new ResponseHeadersLogProcessor(includedResponseHeaders));
+        if (logResponseBody) {
+            responseLogProcessors.add(new ResponseBodyLogProcessor(maxLoggedResponseBodyLength, loggedResponseBodyMediaTypes, bodyMaskers, jsonFieldMaskers,
+                    bodyMaskingLookahead));
+        }
+
+        requestLogProcessors.addAll(additionalRequestLogProcessors);
+        responseLogProcessors.addAll(additionalResponseLogProcessors);
+        BodyCaptureSettings bodyCaptureSettings = new BodyCaptureSettings(
+                captureRequestBodyOnRead,
+                logRequestBody ? getCaptureLimit(maxLoggedRequestBodyLength) : 0,
+                requestBodyCaptureCeiling,
+                streamResponseBody,
+                logResponseBody ? getCaptureLimit(maxLoggedResponseBodyLength) : 0
+        );
+        AccessLogPipeline pipeline = AccessLogPipeline.compile(requestLogProcessors, deferredRequestLogProcessors, responseLogProcessors);
+        return new AccessLogger(pipeline, new AccessLoggerSettings(bodyCaptureSettings, asyncDispatcher, getSampler(), getTailSampler(), metrics,
+                routeKeyResolver, requestScopedState, sink));
+    }
+
+    private int getCaptureLimit(int maxLoggedBodyLength) {
+        if (bodyMaskingLookahead < 0) {
+            return maxLoggedBodyLength;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) maxLoggedBodyLength + bodyMaskingLookahead);
+    }
+
+    private Sampler getSampler() {
+        boolean headSampling = defaultSamplingRate < 1 || !samplingRules.isEmpty() || samplingCeiling != null;
+        if (sampler != null || !headSampling) {
+            return sampler;
+        }
+        return new HeadSampler(samplingRules, defaultSamplingRate, samplingCeiling, samplingCorrelationIdHeaderName);
+    }
+
+    private TailSampler getTailSampler() {
+        if (tailSamplingHealthyDetail == null) {
+            return null;
+        }
+        return new TailSampler(tailSamplingRules, defaultTailSamplingRule, tailSamplingHealthyDetail, tailSamplingMemoryLimit);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.access.route.RouteMetricsRecorder;
+import ee.datanor.spring.logger.access.sampling.Sampler;
+import ee.datanor.spring.logger.access.sampling.TailSampler;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Options of {@link AccessLogger} besides its processors, collected by {@link AccessLoggerBuilder}.
+ */
+@Getter
+@RequiredArgsConstructor
+final class AccessLoggerSettings {
+    static final AccessLoggerSettings DEFAULT = new AccessLoggerSettings(BodyCaptureSettings.DEFAULT, null, null, null, null,
+            new RouteKeyResolver(), false, null);
+
+    private final BodyCaptureSettings bodyCaptureSettings;
+    /**
+     * Leaves masking, escaping and writing the lines to the dispatcher's workers, the request thread only captures
+     * body slices for deferrable processors.
+     */
+    private final AsyncAccessLogDispatcher asyncDispatcher;
+    /**
+     * Logs only the requests it selects, their records carry the sampling weight.
+     */
+    private final Sampler sampler;
+    /**
+     * Holds the request values until the response is known and writes them with the response values, in as much
+     * detail as it decides.
+     */
+    private final TailSampler tailSampler;
+    /**
+     * Receives the duration and body sizes of every completed request, including requests that are not sampled.
+     */
+    private final RouteMetricsRecorder metrics;
+    private final RouteKeyResolver routeKeyResolver;
+    /**
+     * Keeps the record of a request in its attributes instead of a thread local, so no per-thread state is created
+     * and the record follows the request across async dispatches.
+     */
+    private final boolean requestScopedState;
+    /**
+     * Receives the request and response lines instead of the access loggers.
+     */
+    private final AccessLogSink sink;
+}
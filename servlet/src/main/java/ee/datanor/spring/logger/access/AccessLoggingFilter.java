@@ -0,0 +1,219 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class AccessLoggingFilter extends OncePerRequestFilter {
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    private final AccessLogger accessLogger;
+
+    public AccessLoggingFilter(AccessLogger accessLogger) {
+        this.accessLogger = accessLogger;
+    }
+
+    @Override
+    public void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!accessLogger.sample(request).isSampled()) {
+            doFilterUnsampled(request, response, chain);
+            return;
+        }
+        RequestTimer timer = RequestTimer.getOrStart(request);
+        Map<String, String> mdcContext = accessLogger.isRequestScopedState() ? MDC.getCopyOfContextMap() : null;
+        boolean isFirstRequest = isFirstRequest(request);
+        HttpServletRequest httpRequest = getHttpRequest(request, isFirstRequest);
+        ContentCachingResponseWrapper httpResponse = getHttpResponse(response, httpRequest);
+        try {
+            if (isFirstRequest) {
+                long requestLogStart = System.nanoTime();
+                logRequest(httpRequest);
+                timer.add(RequestTimer.Phase.REQUEST_LOG, System.nanoTime() - requestLogStart);
+            }
+            doFilter(chain, httpRequest, httpResponse, timer);
+        } finally {
+            if (httpRequest.isAsyncStarted() || AsyncCompletionListener.isRegistered(httpRequest)) {
+                logResponseOnAsyncCompletion(httpRequest, httpResponse, timer, mdcContext);
+            } else {
+                logResponseAndCleanup(httpRequest, httpResponse, timer, mdcContext);
+            }
+        }
+    }
+
+    protected HttpServletRequest getHttpRequest(HttpServletRequest request, boolean isFirstRequest) {
+        BodyCaptureSettings bodyCaptureSettings = accessLogger.getBodyCaptureSettings();
+        boolean shouldLog = isFirstRequest && !(request.getClass().isAssignableFrom(ContentCachingRequestWrapper.class))
+                && !bodyCaptureSettings.exceedsRequestBodyCaptureCeiling(request.getContentLengthLong());
+        if (shouldLog) {
+            String contentType = request.getContentType();
+            boolean isFormPost = contentType != null && contentType.contains(FORM_CONTENT_TYPE) && HttpMethod.POST.matches(request.getMethod());
+            if (isFormPost) {
+                ContentCachingRequestWrapper wrapper = new ContentCachingRequestWrapper(request);
+                //Trigger writeRequestParametersToCachedContent();
+                wrapper.getParameterNames();
+                return wrapper;
+            } else if (bodyCaptureSettings.isRequestBodyCapturedOnRead()) {
+                return new TeeCapturingRequestWrapper(request, bodyCaptureSettings.getRequestBodyCaptureLimit());
+            } else {
+                return new UnrestrictedContentCachingRequestWrapper(request);
+            }
+        }
+        else {
+            return request;
+        }
+    }
+
+    protected ContentCachingResponseWrapper getHttpResponse(HttpServletResponse response, HttpServletRequest httpRequest) {
+        BodyCaptureSettings bodyCaptureSettings = accessLogger.getBodyCaptureSettings();
+        if (bodyCaptureSettings.isResponseBodyStreamed()) {
+            return new StreamingContentCachingResponseWrapper(response, bodyCaptureSettings.getResponseBodyCaptureLimit());
+        }
+        return new AsyncAwareContentCachingResponseWrapper(response, httpRequest, bodyCaptureSettings.getResponseBodyCaptureLimit());
+    }
+
+    protected void logRequest(HttpServletRequest httpRequest) {
+        try {
+            accessLogger.logRequest(httpRequest);
+        } catch (Exception e) {
+            log.error("Failed to log HTTP request", e);
+        }
+    }
+
+    /**
+     * With request scoped state the MDC is restored to {@code mdcContext}, the context the request arrived with,
+     * otherwise it is cleared.
+     */
+    protected void logResponseAndCleanup(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, RequestTimer timer,
+                                         Map<String, String> mdcContext) {
+        long responseLogStart = System.nanoTime();
+        try {
+            boolean isAsync = isAsyncDispatch(httpRequest);
+            accessLogger.logResponse(httpRequest, responseWrapper, isAsync);
+        } catch (Exception e) {
+            log.error("Failed to log HTTP response", e);
+        } finally {
+            timer.add(RequestTimer.Phase.RESPONSE_LOG, System.nanoTime() - responseLogStart);
+            restoreMdc(mdcContext);
+        }
+        long copyBodyStart = System.nanoTime();
+        unwrapResponse(responseWrapper);
+        timer.add(RequestTimer.Phase.COPY_BODY, System.nanoTime() - copyBodyStart);
+    }
+
+    /**
+     * Defers the response line of a request in async processing until the async context completes, so that it carries
+     * the end-to-end processing time and the body written during async processing. No thread waits for the
+     * completion. The content cached so far is sent to the client right away.
+     */
+    protected void logResponseOnAsyncCompletion(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, RequestTimer timer,
+                                                Map<String, String> mdcContext) {
+        if (httpRequest.isAsyncStarted()) {
+            accessLogger.detachRecord(httpRequest);
+            AsyncCompletionListener.register(httpRequest, () -> logAsyncResponse(httpRequest, responseWrapper, timer));
+        }
+        restoreMdc(mdcContext);
+        unwrapResponse(responseWrapper);
+    }
+
+    /**
+     * Writes the response line of a completed async request on the container thread completing it, leaving that
+     * thread's MDC as it was.
+     */
+    protected void logAsyncResponse(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, RequestTimer timer) {
+        long responseLogStart = System.nanoTime();
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        try {
+            accessLogger.logResponse(httpRequest, responseWrapper, false);
+        } catch (Exception e) {
+            log.error("Failed to log HTTP response", e);
+        } finally {
+            timer.add(RequestTimer.Phase.RESPONSE_LOG, System.nanoTime() - responseLogStart);
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    protected boolean isFirstRequest(HttpServletRequest request) {
+        return !isAsyncDispatch(request);
+    }
+
+    /**
+     * Requests that are not sampled are passed on unwrapped. With metrics enabled they are still timed and recorded.
+     */
+    private void doFilterUnsampled(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (accessLogger.getMetrics() == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        RequestTimer timer = RequestTimer.getOrStart(request);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                AsyncCompletionListener.register(request,
+                        () -> accessLogger.recordMetrics(request, response, timer.elapsed(System.nanoTime(), TimeUnit.NANOSECONDS)));
+            } else if (!AsyncCompletionListener.isRegistered(request)) {
+                accessLogger.recordMetrics(request, response, timer.elapsed(System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+        }
+    }
+
+    private void restoreMdc(Map<String, String> mdcContext) {
+        if (accessLogger.isRequestScopedState() && mdcContext != null) {
+            MDC.setContextMap(mdcContext);
+        } else {
+            MDC.clear();
+        }
+    }
+
+    private static void doFilter(FilterChain chain, HttpServletRequest httpRequest, ContentCachingResponseWrapper httpResponse, RequestTimer timer)
+            throws IOException, ServletException {
+        long chainStart = System.nanoTime();
+        try {
+            chain.doFilter(httpRequest, httpResponse);
+        } finally {
+            timer.add(RequestTimer.Phase.CHAIN, System.nanoTime() - chainStart);
+        }
+    }
+
+    private void unwrapResponse(ContentCachingResponseWrapper response) {
+        try {
+            response.copyBodyToResponse();
+        } catch (IOException e) {
+            log.error("Failed to copy the cached body content to the response.", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Caches the response body until the filter copies it to the client, except for content written while the request is
+ * in async processing or when caching is disabled for streaming. That content is written through to the client and
+ * its first {@code captureLimit} bytes are kept for logging.
+ */
+@Slf4j
+public class AsyncAwareContentCachingResponseWrapper extends ContentCachingResponseWrapper implements WrittenBytesAware {
+    private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
+
+    private final HttpServletRequest request;
+    private final BodyCapture passThroughCapture;
+    private ServletOutputStream passThroughStream;
+    private PrintWriter passThroughWriter;
+
+    AsyncAwareContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request, int captureLimit) {
+        super(response);
+        this.request = request;
+        this.passThroughCapture = new BodyCapture(captureLimit);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (!isPassThrough()) {
+            return super.getOutputStream();
+        }
+        if (passThroughStream == null) {
+            passThroughStream = passThroughCapture.tee(getResponse().getOutputStream());
+        }
+        return passThroughStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (!isPassThrough()) {
+            return super.getWriter();
+        }
+        if (passThroughWriter == null) {
+            passThroughWriter = new PrintWriter(passThroughCapture.tee(getResponse().getWriter(), Charset.forName(getCharacterEncoding())));
+        }
+        return passThroughWriter;
+    }
+
+    /**
+     * The cached content or, once content has been written through, the captured prefix of it.
+     */
+    @Override
+    public byte[] getContentAsByteArray() {
+        return isPassedThrough() ? passThroughCapture.getContentAsByteArray() : super.getContentAsByteArray();
+    }
+
+    @Override
+    public InputStream getContentInputStream() {
+        return isPassedThrough() ? passThroughCapture.getContentInputStream() : super.getContentInputStream();
+    }
+
+    @Override
+    public int getContentSize() {
+        return isPassedThrough() ? passThroughCapture.getCapturedLength() : super.getContentSize();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return isPassedThrough() ? passThroughCapture.getBytesWritten() : super.getContentSize();
+    }
+
+    protected boolean isAsyncDispatch(HttpServletRequest request) {
+        return DispatcherType.ASYNC.equals(request.getDispatcherType());
+    }
+
+    private boolean isPassThrough() {
+        return isAsyncDispatch(request) || request.isAsyncStarted() || request.getAttribute(STREAMING_ATTRIBUTE) != null;
+    }
+
+    private boolean isPassedThrough() {
+        return passThroughStream != null || passThroughWriter != null;
+    }
+}
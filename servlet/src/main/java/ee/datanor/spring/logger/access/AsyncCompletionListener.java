@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletRequest;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs an action once, when the async processing of a request has completed, on the container thread completing it.
+ *
+ * <p>A timeout or error is always followed by {@link #onComplete(AsyncEvent)}, after the application and Spring have
+ * had the chance to write the error response, so the action runs there for all three outcomes.
+ */
+final class AsyncCompletionListener implements AsyncListener {
+    static final String ATTRIBUTE = AsyncCompletionListener.class.getName();
+
+    private final Runnable action;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private AsyncCompletionListener(Runnable action) {
+        this.action = action;
+    }
+
+    /**
+     * Registers {@code action} with the async context of {@code request}, unless an action is registered already.
+     */
+    static void register(ServletRequest request, Runnable action) {
+        if (request.getAttribute(ATTRIBUTE) == null) {
+            request.setAttribute(ATTRIBUTE, Boolean.TRUE);
+            request.getAsyncContext().addListener(new AsyncCompletionListener(action));
+        }
+    }
+
+    static boolean isRegistered(ServletRequest request) {
+        return request.getAttribute(ATTRIBUTE) != null;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        if (completed.compareAndSet(false, true)) {
+            action.run();
+        }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        // the response line is written on completion, with the status of the timeout response
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        // the response line is written on completion, with the status of the error response
+    }
+
+    /**
+     * Async processing restarted from an async dispatch gets a new context, which the listener follows.
+     */
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+        event.getAsyncContext().addListener(this);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * First {@code captureLimit} bytes and the total count of a response body that is written through to the client.
+ */
+final class BodyCapture {
+    private static final int ENCODER_BUFFER_SIZE = 512;
+
+    private final byte[] captured;
+    private int capturedLength;
+    private long bytesWritten;
+
+    BodyCapture(int captureLimit) {
+        this.captured = new byte[Math.max(captureLimit, 0)];
+    }
+
+    /**
+     * A stream writing to {@code delegate} and capturing what is written.
+     */
+    ServletOutputStream tee(ServletOutputStream delegate) {
+        return new TeeServletOutputStream(delegate);
+    }
+
+    /**
+     * A writer writing to {@code delegate} and capturing what is written, encoded in {@code charset}.
+     */
+    Writer tee(Writer delegate, Charset charset) {
+        return new TeeWriter(delegate, charset);
+    }
+
+    byte[] getContentAsByteArray() {
+        return Arrays.copyOf(captured, capturedLength);
+    }
+
+    InputStream getContentInputStream() {
+        return new ByteArrayInputStream(captured, 0, capturedLength);
+    }
+
+    int getCapturedLength() {
+        return capturedLength;
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    void reset() {
+        capturedLength = 0;
+        bytesWritten = 0;
+    }
+
+    void capture(byte[] b, int off, int len) {
+        int toCopy = Math.min(len, captured.length - capturedLength);
+        if (toCopy > 0) {
+            System.arraycopy(b, off, captured, capturedLength, toCopy);
+            capturedLength += toCopy;
+        }
+        bytesWritten += len;
+    }
+
+    void capture(int b) {
+        if (capturedLength < captured.length) {
+            captured[capturedLength++] = (byte) b;
+        }
+        bytesWritten++;
+    }
+
+    private final class TeeServletOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        TeeServletOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    /**
+     * Encodes the written characters through one encoder and fixed buffers, so that writes allocate nothing and a
+     * surrogate pair split across writes is encoded once its second half arrives.
+     */
+    private final class TeeWriter extends Writer {
+        private final Writer delegate;
+        private final CharsetEncoder encoder;
+        private final CharBuffer chars = CharBuffer.allocate(ENCODER_BUFFER_SIZE);
+        private final ByteBuffer bytes;
+
+        TeeWriter(Writer delegate, Charset charset) {
+            this.delegate = delegate;
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.bytes = ByteBuffer.allocate((int) Math.ceil(ENCODER_BUFFER_SIZE * encoder.maxBytesPerChar()));
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            delegate.write(cbuf, off, len);
+            int position = off;
+            int end = off + len;
+            while (position < end) {
+                int count = Math.min(end - position, chars.remaining());
+                chars.put(cbuf, position, count);
+                position += count;
+                chars.flip();
+                encode(false);
+                chars.compact();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        /**
+         * Counts a surrogate left without its pair as a replacement character.
+         */
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+            chars.flip();
+            encode(true);
+            CoderResult result;
+            do {
+                result = encoder.flush(bytes);
+                drain();
+            } while (result.isOverflow());
+            chars.clear();
+            encoder.reset();
+        }
+
+        private void encode(boolean endOfInput) {
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, endOfInput);
+                drain();
+            } while (result.isOverflow());
+        }
+
+        private void drain() {
+            bytes.flip();
+            capture(bytes.array(), 0, bytes.limit());
+            bytes.clear();
+        }
+    }
+}
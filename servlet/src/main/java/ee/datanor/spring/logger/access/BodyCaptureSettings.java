@@ -0,0 +1,49 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * How {@link AccessLoggingFilter} wraps requests and responses to make their bodies available for logging.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class BodyCaptureSettings {
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    public static final BodyCaptureSettings DEFAULT = new BodyCaptureSettings(false, 1024, UNLIMITED, false, 1024);
+
+    /**
+     * Capture the request body while the application reads it instead of reading it ahead of the filter chain.
+     */
+    private final boolean requestBodyCapturedOnRead;
+    private final int requestBodyCaptureLimit;
+    /**
+     * Requests with a declared Content-Length above this are not wrapped at all.
+     */
+    private final long requestBodyCaptureCeiling;
+    /**
+     * Write the response through to the client instead of buffering it until the filter chain completes.
+     */
+    private final boolean responseBodyStreamed;
+    private final int responseBodyCaptureLimit;
+
+    public boolean exceedsRequestBodyCaptureCeiling(long contentLength) {
+        return contentLength > requestBodyCaptureCeiling;
+    }
+}
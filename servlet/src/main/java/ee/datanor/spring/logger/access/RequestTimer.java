@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monotonic timings of a request, kept as a request attribute so that async dispatches handled by other threads
+ * add to the same timer. Durations of a phase run more than once, such as the filter chain of an async request,
+ * are summed up.
+ */
+public final class RequestTimer {
+    public static final String ATTRIBUTE = RequestTimer.class.getName();
+
+    private final long startNanos;
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    public enum Phase {
+        /**
+         * Running the request processors and writing the request line.
+         */
+        REQUEST_LOG,
+        /**
+         * The downstream filter chain.
+         */
+        CHAIN,
+        /**
+         * Running the response processors and writing the response line.
+         */
+        RESPONSE_LOG,
+        /**
+         * Copying the cached response body to the client, which happens after the response line is written.
+         */
+        COPY_BODY
+    }
+
+    RequestTimer(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * The timer of {@code request}, a new one started now when the request has none yet.
+     */
+    public static RequestTimer getOrStart(HttpServletRequest request) {
+        RequestTimer timer = get(request);
+        if (timer == null) {
+            timer = new RequestTimer(System.nanoTime());
+            request.setAttribute(ATTRIBUTE, timer);
+        }
+        return timer;
+    }
+
+    public static RequestTimer get(HttpServletRequest request) {
+        Object timer = request.getAttribute(ATTRIBUTE);
+        return timer instanceof RequestTimer ? (RequestTimer) timer : null;
+    }
+
+    public void add(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    public long get(Phase phase, TimeUnit unit) {
+        return unit.convert(phaseNanos[phase.ordinal()], TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time from the start of the request until {@code nanoTime}, a {@link System#nanoTime()} value.
+     */
+    public long elapsed(long nanoTime, TimeUnit unit) {
+        return unit.convert(nanoTime - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
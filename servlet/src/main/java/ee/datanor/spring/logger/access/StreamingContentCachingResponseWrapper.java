@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Writes the response straight through to the client and keeps only the first {@code captureLimit} bytes and
+ * the total byte count for logging.
+ *
+ * <p>Extends {@link ContentCachingResponseWrapper} so it can be handed to existing response processors, but
+ * none of its buffering is used: {@link #getContentAsByteArray()} returns the captured prefix and
+ * {@link #copyBodyToResponse()} only flushes what the application left in the writer.
+ */
+public class StreamingContentCachingResponseWrapper extends ContentCachingResponseWrapper implements WrittenBytesAware {
+    private final BodyCapture capture;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    public StreamingContentCachingResponseWrapper(HttpServletResponse response, int captureLimit) {
+        super(response);
+        this.capture = new BodyCapture(captureLimit);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        getHttpResponse().sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        getHttpResponse().sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        getHttpResponse().sendRedirect(location);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = capture.tee(getResponse().getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        getResponse().flushBuffer();
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        getResponse().setContentLength(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        getResponse().setContentLengthLong(len);
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        getResponse().setBufferSize(size);
+    }
+
+    @Override
+    public void resetBuffer() {
+        getResponse().resetBuffer();
+        capture.reset();
+    }
+
+    @Override
+    public void reset() {
+        getResponse().reset();
+        capture.reset();
+    }
+
+    @Override
+    public byte[] getContentAsByteArray() {
+        return capture.getContentAsByteArray();
+    }
+
+    @Override
+    public InputStream getContentInputStream() {
+        return capture.getContentInputStream();
+    }
+
+    /**
+     * Size of the captured prefix, see {@link #getBytesWritten()} for the full response size.
+     */
+    @Override
+    public int getContentSize() {
+        return capture.getCapturedLength();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return capture.getBytesWritten();
+    }
+
+    public boolean isTruncated() {
+        return capture.getBytesWritten() > capture.getCapturedLength();
+    }
+
+    @Override
+    protected void copyBodyToResponse(boolean complete) throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private HttpServletResponse getHttpResponse() {
+        return (HttpServletResponse) getResponse();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Copies the first {@code captureLimit} bytes of the request body aside while the application reads it.
+ *
+ * <p>Unlike {@link UnrestrictedContentCachingRequestWrapper} nothing is read ahead of the application, so the
+ * captured content is only available once the filter chain has consumed the body.
+ */
+public class TeeCapturingRequestWrapper extends HttpServletRequestWrapper {
+    private final byte[] captured;
+    private int capturedLength;
+    private long bytesRead;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    public TeeCapturingRequestWrapper(HttpServletRequest request, int captureLimit) {
+        super(request);
+        long contentLength = request.getContentLengthLong();
+        int capacity = contentLength >= 0 ? (int) Math.min(contentLength, captureLimit) : captureLimit;
+        this.captured = new byte[Math.max(capacity, 0)];
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new TeeServletInputStream(getRequest().getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            reader = new BufferedReader(new InputStreamReader(getInputStream(), getCharset()));
+        }
+        return reader;
+    }
+
+    public byte[] getContentAsByteArray() {
+        return Arrays.copyOf(captured, capturedLength);
+    }
+
+    public String getContentAsString() {
+        return new String(captured, 0, capturedLength, getCharset());
+    }
+
+    public InputStream getContentInputStream() {
+        return new ByteArrayInputStream(captured, 0, capturedLength);
+    }
+
+    public int getCapturedLength() {
+        return capturedLength;
+    }
+
+    /**
+     * Number of body bytes the application has read so far, including the ones that were not captured.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public boolean isTruncated() {
+        return bytesRead > capturedLength;
+    }
+
+    private Charset getCharset() {
+        String charset = getRequest().getCharacterEncoding();
+        return charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8;
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        int toCopy = Math.min(len, captured.length - capturedLength);
+        if (toCopy > 0) {
+            System.arraycopy(b, off, captured, capturedLength, toCopy);
+            capturedLength += toCopy;
+        }
+        bytesRead += len;
+    }
+
+    private void capture(int b) {
+        if (capturedLength < captured.length) {
+            captured[capturedLength++] = (byte) b;
+        }
+        bytesRead++;
+    }
+
+    private class TeeServletInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+
+        TeeServletInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                capture(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = delegate.read(b, off, len);
+            if (count > 0) {
+                capture(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public int readLine(byte[] b, int off, int len) throws IOException {
+            int count = delegate.readLine(b, off, len);
+            if (count > 0) {
+                capture(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -18,7 +18,6 @@ package ee.datanor.spring.logger.access;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -36,7 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UnrestrictedContentCachingRequestWrapper extends ContentCachingRequestWrapper {
 
-    private ByteArrayOutputStream cachedBytes;
+    private byte[] cachedBytes;
 
     public UnrestrictedContentCachingRequestWrapper(HttpServletRequest request) {
         super(request);
@@ -59,21 +58,24 @@ public class UnrestrictedContentCachingRequestWrapper extends ContentCachingRequ
 
     private void cacheInputStream() throws IOException {
         InputStream is = super.getInputStream();
-        byte[] bytes = is.readAllBytes();
-        cachedBytes = new ByteArrayOutputStream();
-        cachedBytes.writeBytes(bytes);
+        cachedBytes = is.readAllBytes();
     }
 
     public String getContentAsString() throws IOException {
         if (cachedBytes == null) cacheInputStream();
-        return new String(cachedBytes.toByteArray(), getCharset(getRequest()));
+        return new String(cachedBytes, getCharset(getRequest()));
+    }
+
+    public InputStream getContentInputStream() throws IOException {
+        if (cachedBytes == null) cacheInputStream();
+        return new ByteArrayInputStream(cachedBytes);
     }
 
     public class CachedServletInputStream extends ServletInputStream {
         private ByteArrayInputStream inputStream;
 
         public CachedServletInputStream() {
-            inputStream = new ByteArrayInputStream(cachedBytes.toByteArray());
+            inputStream = new ByteArrayInputStream(cachedBytes);
         }
 
         @Override
@@ -14,12 +14,14 @@
  * limitations under the License.
  */
 
-package ee.datanor.spring.logger.access.processor;
 
-import jakarta.servlet.http.HttpServletRequest;
+package ee.datanor.spring.logger.access;
 
-public interface RequestLogProcessor extends LogProcessor{
-
-    void process(HttpServletRequest httpRequest);
+/**
+ * A response wrapper that writes the body through to the client and counts its bytes, so the full body size is known
+ * even though only a prefix of it is kept.
+ */
+public interface WrittenBytesAware {
 
+    long getBytesWritten();
 }
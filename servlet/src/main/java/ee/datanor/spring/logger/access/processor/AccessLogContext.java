@@ -0,0 +1,146 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.processor;
+
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.util.RequestUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.Charset;
+
+/**
+ * Facts about a request shared by the processors of all logging phases. Each is computed on first use and kept for
+ * the remaining processors, instead of every processor deriving it from the request again. {@link #get} keeps the
+ * context in the request attributes, so the response phase reuses what the request phase computed.
+ */
+public final class AccessLogContext {
+    /**
+     * Request attribute holding the context of the request.
+     */
+    public static final String ATTRIBUTE = AccessLogContext.class.getName();
+
+    @Getter
+    private final HttpServletRequest request;
+    @Getter
+    private final HttpServletResponse response;
+    private final RouteKeyResolver routeKeyResolver;
+    private String requestPath;
+    private String route;
+    private boolean routeMatched;
+    private MediaType responseMediaType;
+    private boolean responseMediaTypeResolved;
+    private Charset responseCharset;
+
+    /**
+     * Without a {@code routeKeyResolver} only routes matched by Spring MVC or resolved earlier are known.
+     */
+    public AccessLogContext(HttpServletRequest request, HttpServletResponse response, RouteKeyResolver routeKeyResolver) {
+        this.request = request;
+        this.response = response;
+        this.routeKeyResolver = routeKeyResolver;
+    }
+
+    public static AccessLogContext of(HttpServletRequest request) {
+        return new AccessLogContext(request, null, null);
+    }
+
+    public static AccessLogContext of(HttpServletRequest request, HttpServletResponse response) {
+        return new AccessLogContext(request, response, null);
+    }
+
+    /**
+     * Context of {@code request} kept in its attributes. A context of the same request created for another phase,
+     * response or request wrapper passes on its request path and route.
+     */
+    public static AccessLogContext get(HttpServletRequest request, HttpServletResponse response, RouteKeyResolver routeKeyResolver) {
+        Object attribute = request.getAttribute(ATTRIBUTE);
+        AccessLogContext previous = attribute instanceof AccessLogContext ? (AccessLogContext) attribute : null;
+        if (previous != null && previous.request == request && previous.response == response) {
+            return previous;
+        }
+        AccessLogContext context = new AccessLogContext(request, response, routeKeyResolver);
+        if (previous != null) {
+            context.requestPath = previous.requestPath;
+            context.route = previous.route;
+            context.routeMatched = previous.routeMatched;
+        }
+        request.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    public String getRequestPath() {
+        if (requestPath == null) {
+            requestPath = RequestUtil.getRequestPath(request);
+        }
+        return requestPath;
+    }
+
+    /**
+     * The pattern matched by Spring MVC once the handler has been chosen, otherwise the route resolved from the
+     * request path, which is kept until a pattern is matched.
+     */
+    public String getRoute() {
+        if (routeMatched) {
+            return route;
+        }
+        Object pattern = request.getAttribute(RouteKeyResolver.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            route = pattern.toString();
+            routeMatched = true;
+        } else if (route == null) {
+            route = getResolvedRoute();
+        }
+        return route;
+    }
+
+    /**
+     * Media type of the response, {@code null} when the response declares none.
+     */
+    public MediaType getResponseMediaType() {
+        if (!responseMediaTypeResolved) {
+            String contentType = response.getContentType();
+            responseMediaType = StringUtils.isEmpty(contentType) ? null : MediaType.parseMediaType(contentType);
+            responseMediaTypeResolved = true;
+        }
+        return responseMediaType;
+    }
+
+    public Charset getResponseCharset() {
+        if (responseCharset == null) {
+            responseCharset = Charset.forName(response.getCharacterEncoding());
+        }
+        return responseCharset;
+    }
+
+    private String getResolvedRoute() {
+        Object resolved = request.getAttribute(RouteKeyResolver.ATTRIBUTE);
+        if (resolved instanceof String) {
+            return (String) resolved;
+        }
+        if (routeKeyResolver == null) {
+            return null;
+        }
+        String resolvedRoute = routeKeyResolver.resolve(getRequestPath());
+        request.setAttribute(RouteKeyResolver.ATTRIBUTE, resolvedRoute);
+        return resolvedRoute;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor;
+
+import ee.datanor.spring.logger.access.async.BodyBufferPool;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+public interface DeferrableResponseLogProcessor extends ResponseLogProcessor, DeferrableLogProcessor {
+
+    /**
+     * Captures what {@link #render(String, String)} needs. Values that are cheap to compute may be set directly
+     * into {@code record}, in which case {@code null} is returned.
+     */
+    DeferredLogValue capture(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync,
+                             AccessLogRecord record, BodyBufferPool bufferPool);
+
+    default DeferredLogValue capture(AccessLogContext context, ContentCachingResponseWrapper responseWrapper, boolean isASync,
+                                     AccessLogRecord record, BodyBufferPool bufferPool) {
+        return capture(context.getRequest(), responseWrapper, isASync, record, bufferPool);
+    }
+
+}
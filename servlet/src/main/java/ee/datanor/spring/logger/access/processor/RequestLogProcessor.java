@@ -16,39 +16,36 @@
 
 package ee.datanor.spring.logger.access.processor;
 
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import ee.datanor.spring.logger.util.BodyMasker;
-import ee.datanor.spring.logger.util.EscapeUtil;
 import ee.datanor.spring.logger.util.RequestUtil;
 import jakarta.servlet.http.HttpServletRequest;
-import org.apache.commons.lang3.StringUtils;
-import org.slf4j.MDC;
 import org.springframework.util.PathMatcher;
 
 import java.util.Map;
 
-public interface LogProcessor {
-    String EMPTY_REPLACEMENT = "-";
+public interface RequestLogProcessor extends LogProcessor{
 
-    default void setMDCValue(String attribute, Object value) {
-        MDC.put(attribute, EscapeUtil.escape(replaceEmpty(value)));
+    void process(HttpServletRequest httpRequest);
+
+    /**
+     * Writes the processor's values into {@code record}. Processors that only implement
+     * {@link #process(HttpServletRequest)} keep writing to the MDC directly.
+     */
+    default void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        process(httpRequest);
     }
 
-    default String replaceEmpty(Object value) {
-        String parsedValue = "null".equalsIgnoreCase("" + value) ? EMPTY_REPLACEMENT : "" + value;
-        return StringUtils.firstNonBlank(parsedValue, EMPTY_REPLACEMENT);
+    /**
+     * Called by the access logger with the facts shared by all processors of the request. Processors that do not
+     * override it get the plain request.
+     */
+    default void process(AccessLogContext context, AccessLogRecord record) {
+        process(context.getRequest(), record);
     }
 
     default String maskSensitiveBody(HttpServletRequest httpRequest, PathMatcher pathMatcher, Map<String, BodyMasker> maskers, String content) {
-        if (content == null) {
-            return null;
-        }
-        String response = content;
-        for (Map.Entry<String, BodyMasker> path : maskers.entrySet()) {
-            if (pathMatcher.match(path.getKey(), RequestUtil.getRequestPath(httpRequest))) {
-                response = path.getValue().mask(content);
-            }
-        }
-
-        return response;
+        return maskSensitiveBody(RequestUtil.getRequestPath(httpRequest), pathMatcher, maskers, content);
     }
+
 }
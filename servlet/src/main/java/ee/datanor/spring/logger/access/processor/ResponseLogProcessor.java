@@ -0,0 +1,43 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor;
+
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+public interface ResponseLogProcessor extends LogProcessor {
+
+    void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync);
+
+    /**
+     * Writes the processor's values into {@code record}. Processors that only implement
+     * {@link #process(HttpServletRequest, ContentCachingResponseWrapper, boolean)} keep writing to the MDC directly.
+     */
+    default void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+        process(httpRequest, responseWrapper, isASync);
+    }
+
+    /**
+     * Called by the access logger with the facts shared by all processors of the response. Processors that do not
+     * override it get the plain request.
+     */
+    default void process(AccessLogContext context, ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+        process(context.getRequest(), responseWrapper, isASync, record);
+    }
+
+}
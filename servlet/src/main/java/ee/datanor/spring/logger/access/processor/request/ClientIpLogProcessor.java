@@ -17,6 +17,8 @@
 package ee.datanor.spring.logger.access.processor.request;
 
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import jakarta.servlet.http.HttpServletRequest;
 
 
@@ -25,6 +27,11 @@ public class ClientIpLogProcessor implements RequestLogProcessor {
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(MDC_KEY, replaceEmpty(httpRequest.getRemoteAddr()));
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        setValue(record, AccessLogField.CLIENT_IP, replaceEmpty(httpRequest.getRemoteAddr()));
     }
 }
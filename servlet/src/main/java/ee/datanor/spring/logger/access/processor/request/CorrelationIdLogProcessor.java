@@ -16,8 +16,11 @@
 
 package ee.datanor.spring.logger.access.processor.request;
 
+import ee.datanor.spring.logger.access.id.RandomRequestIdGenerator;
+import ee.datanor.spring.logger.access.id.RequestIdGenerator;
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
-import ee.datanor.spring.logger.util.HashUtil;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 
@@ -26,8 +29,8 @@ public class CorrelationIdLogProcessor implements RequestLogProcessor {
     public static final int DEFAULT_HASH_LENGTH = 8;
     public static final String DEFAULT_CORRELATION_ID_HEADER_NAME = "X-Correlation-ID";
 
-    private int hashLength;
-    private String correlationIdHeaderName;
+    private final RequestIdGenerator requestIdGenerator;
+    private final String correlationIdHeaderName;
 
     public CorrelationIdLogProcessor() {
         this(DEFAULT_HASH_LENGTH, DEFAULT_CORRELATION_ID_HEADER_NAME);
@@ -38,16 +41,28 @@ public class CorrelationIdLogProcessor implements RequestLogProcessor {
     }
 
     public CorrelationIdLogProcessor(int hashLength, String correlationIdHeaderName) {
-        this.hashLength = hashLength;
+        this(new RandomRequestIdGenerator(hashLength), correlationIdHeaderName);
+    }
+
+    /**
+     * Uses {@code requestIdGenerator} for requests without a correlation id header.
+     */
+    public CorrelationIdLogProcessor(RequestIdGenerator requestIdGenerator, String correlationIdHeaderName) {
+        this.requestIdGenerator = requestIdGenerator;
         this.correlationIdHeaderName = correlationIdHeaderName;
     }
 
     @Override
     public void process(HttpServletRequest httpRequest) {
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
         String correlationId = httpRequest.getHeader(correlationIdHeaderName);
         if (StringUtils.isEmpty(correlationId)) {
-            correlationId = HashUtil.generateHash(hashLength);
+            correlationId = requestIdGenerator.generate();
         }
-        setMDCValue(MDC_KEY, correlationId);
+        setValue(record, AccessLogField.CORRELATION_ID_HASH, correlationId);
     }
 }
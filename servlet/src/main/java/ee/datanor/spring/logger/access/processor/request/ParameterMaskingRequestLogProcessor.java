@@ -19,27 +19,32 @@ package ee.datanor.spring.logger.access.processor.request;
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
 import ee.datanor.spring.logger.util.ParameterMasker;
 import ee.datanor.spring.logger.util.RequestUtil;
+import ee.datanor.spring.logger.util.UriPatternIndex;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.PathMatcher;
 
 import java.util.Map;
 
-@RequiredArgsConstructor
 public abstract class ParameterMaskingRequestLogProcessor implements RequestLogProcessor {
-    private final Map<String, ParameterMasker> maskers;
+    private final UriPatternIndex<ParameterMasker> maskers;
     protected final PathMatcher pathMatcher = new AntPathMatcher();
 
+    public ParameterMaskingRequestLogProcessor(Map<String, ParameterMasker> maskers) {
+        this.maskers = new UriPatternIndex<>(maskers);
+    }
+
     protected String maskSensitiveParameters(HttpServletRequest httpRequest, String content) {
+        return maskSensitiveParameters(RequestUtil.getRequestPath(httpRequest), content);
+    }
+
+    protected String maskSensitiveParameters(String requestPath, String content) {
         if (content == null) {
             return null;
         }
         String response = content;
-        for (Map.Entry<String, ParameterMasker> path : maskers.entrySet()) {
-            if (pathMatcher.match(path.getKey(), RequestUtil.getRequestPath(httpRequest))) {
-                response = path.getValue().mask(content);
-            }
+        for (ParameterMasker masker : maskers.match(requestPath)) {
+            response = masker.mask(response);
         }
 
         return response;
@@ -17,6 +17,8 @@
 package ee.datanor.spring.logger.access.processor.request;
 
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import jakarta.servlet.http.HttpServletRequest;
 
 
@@ -25,6 +27,11 @@ public class RequestBodyLengthLogProcessor implements RequestLogProcessor {
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(MDC_KEY, replaceEmpty(httpRequest.getContentLength()));
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        setValue(record, AccessLogField.REQUEST_BODY_LENGTH, replaceEmpty(httpRequest.getContentLength()));
     }
 }
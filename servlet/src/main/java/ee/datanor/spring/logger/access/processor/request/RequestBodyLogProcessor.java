@@ -0,0 +1,212 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor.request;
+
+import ee.datanor.spring.logger.access.TeeCapturingRequestWrapper;
+import ee.datanor.spring.logger.access.UnrestrictedContentCachingRequestWrapper;
+import ee.datanor.spring.logger.access.async.BodyBufferPool;
+import ee.datanor.spring.logger.access.processor.AccessLogContext;
+import ee.datanor.spring.logger.access.processor.BodyRenderer;
+import ee.datanor.spring.logger.access.processor.DeferrableRequestLogProcessor;
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.JsonFieldMasker;
+import ee.datanor.spring.logger.util.ParameterMasker;
+import ee.datanor.spring.logger.util.RequestUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+@Slf4j
+public class RequestBodyLogProcessor extends ParameterMaskingRequestLogProcessor implements DeferrableRequestLogProcessor {
+    public static final String MDC_KEY = "AL_REQUEST_BODY";
+
+    private final MultipartResolver multipartResolver;
+    private final BodyRenderer renderer;
+
+    public RequestBodyLogProcessor(MultipartResolver multipartResolver) {
+        this(Map.of(), 2048, multipartResolver, Map.of());
+    }
+
+    public RequestBodyLogProcessor(Map<String, ParameterMasker> maskers, int maxLoggedRequestLength,
+                                   MultipartResolver multipartResolver, Map<String, BodyMasker> sensitiveBodyMaskers) {
+        this(maskers, maxLoggedRequestLength, multipartResolver, sensitiveBodyMaskers, Map.of());
+    }
+
+    public RequestBodyLogProcessor(Map<String, ParameterMasker> maskers, int maxLoggedRequestLength, MultipartResolver multipartResolver,
+                                   Map<String, BodyMasker> sensitiveBodyMaskers, Map<String, JsonFieldMasker> jsonFieldMaskers) {
+        this(maskers, maxLoggedRequestLength, multipartResolver, sensitiveBodyMaskers, jsonFieldMaskers, MASK_WHOLE_BODY);
+    }
+
+    /**
+     * With a non-negative {@code maskingLookahead} only the first {@code maxLoggedRequestLength + maskingLookahead}
+     * bytes of the body are read, decoded and masked, and the result is cut to {@code maxLoggedRequestLength} bytes.
+     */
+    public RequestBodyLogProcessor(Map<String, ParameterMasker> maskers, int maxLoggedRequestLength, MultipartResolver multipartResolver,
+                                   Map<String, BodyMasker> sensitiveBodyMaskers, Map<String, JsonFieldMasker> jsonFieldMaskers,
+                                   int maskingLookahead) {
+        super(maskers);
+        this.multipartResolver = multipartResolver;
+        this.renderer = new BodyRenderer(maskers, maxLoggedRequestLength, sensitiveBodyMaskers, jsonFieldMaskers, maskingLookahead);
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest) {
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        process(AccessLogContext.of(httpRequest), record);
+    }
+
+    @Override
+    public void process(AccessLogContext context, AccessLogRecord record) {
+        String requestPath = context.getRequestPath();
+        setValue(record, AccessLogField.REQUEST_BODY, render(requestPath, getRequestBody(context.getRequest(), requestPath)));
+    }
+
+    @Override
+    public DeferredLogValue capture(HttpServletRequest httpRequest, AccessLogRecord record, BodyBufferPool bufferPool) {
+        return capture(AccessLogContext.of(httpRequest), record, bufferPool);
+    }
+
+    @Override
+    public DeferredLogValue capture(AccessLogContext context, AccessLogRecord record, BodyBufferPool bufferPool) {
+        HttpServletRequest httpRequest = context.getRequest();
+        String requestPath = context.getRequestPath();
+        try {
+            if (isMultipart(httpRequest)) {
+                return DeferredLogValue.ofText(AccessLogField.REQUEST_BODY, this, requestPath, parseMultipartRequest((HttpServletRequestWrapper) httpRequest));
+            }
+            InputStream content = getContentInputStream(httpRequest);
+            if (content == null) {
+                return DeferredLogValue.ofText(AccessLogField.REQUEST_BODY, this, requestPath, null);
+            }
+            if (renderer.getMaskingLookahead() < 0) {
+                byte[] body = content.readAllBytes();
+                return DeferredLogValue.ofBytes(AccessLogField.REQUEST_BODY, this, requestPath, body, body.length, getCharset(httpRequest), null);
+            }
+            int windowLength = renderer.getWindowLength();
+            byte[] buffer = bufferPool.acquire(windowLength);
+            int length = content.readNBytes(buffer, 0, windowLength);
+            return DeferredLogValue.ofBytes(AccessLogField.REQUEST_BODY, this, requestPath, buffer, length, getCharset(httpRequest), bufferPool);
+        } catch (MultipartException | IOException e) {
+            log.error("Failed to read request body", e);
+        }
+        return DeferredLogValue.ofText(AccessLogField.REQUEST_BODY, this, requestPath, null);
+    }
+
+    @Override
+    public String render(String requestPath, String content) {
+        return renderer.render(requestPath, content);
+    }
+
+    @Override
+    public String render(String requestPath, byte[] content, int length, Charset charset) {
+        return renderer.render(requestPath, content, length, charset);
+    }
+
+    private String getRequestBody(HttpServletRequest httpRequest, String requestPath) {
+        try {
+            if (isMultipart(httpRequest)) {
+                return parseMultipartRequest((HttpServletRequestWrapper) httpRequest);
+            }
+            if (renderer.getMaskingLookahead() < 0 && !renderer.masksJsonFields(requestPath)) {
+                return parseRequest(httpRequest);
+            }
+            byte[] content = getContent(httpRequest);
+            if (content == null) {
+                return null;
+            }
+            return renderer.decode(requestPath, content, content.length, getCharset(httpRequest));
+        } catch (MultipartException | IOException e) {
+            log.error("Failed to read request body", e);
+        }
+        return null;
+    }
+
+    private boolean isMultipart(HttpServletRequest httpRequest) {
+        return multipartResolver.isMultipart(httpRequest) && httpRequest instanceof HttpServletRequestWrapper;
+    }
+
+    private String parseMultipartRequest(HttpServletRequestWrapper requestWrapper) {
+        MultipartHttpServletRequest multipartHttpServletRequest;
+        if (WebUtils.getNativeRequest(requestWrapper.getRequest(), MultipartHttpServletRequest.class) != null) {
+            log.debug("Request is already a MultipartHttpServletRequest");
+            multipartHttpServletRequest = (MultipartHttpServletRequest) requestWrapper.getRequest();
+        } else {
+            multipartHttpServletRequest = multipartResolver.resolveMultipart(requestWrapper);
+        }
+        return RequestUtil.requestParametersToString(multipartHttpServletRequest);
+    }
+
+    private String parseRequest(HttpServletRequest request) throws IOException {
+        if (request instanceof UnrestrictedContentCachingRequestWrapper) {
+            UnrestrictedContentCachingRequestWrapper requestWrapper = (UnrestrictedContentCachingRequestWrapper) request;
+            return requestWrapper.getContentAsString();
+        } else if (request instanceof TeeCapturingRequestWrapper) {
+            return ((TeeCapturingRequestWrapper) request).getContentAsString();
+        } else if (request instanceof ContentCachingRequestWrapper) {
+            ContentCachingRequestWrapper requestWrapper = (ContentCachingRequestWrapper) request;
+            return new String(requestWrapper.getContentAsByteArray(), requestWrapper.getCharacterEncoding());
+        } else {
+            log.trace("Request body was not captured");
+            return null;
+        }
+    }
+
+    private byte[] getContent(HttpServletRequest request) throws IOException {
+        InputStream content = getContentInputStream(request);
+        if (content == null) {
+            return null;
+        }
+        return renderer.getMaskingLookahead() < 0 ? content.readAllBytes() : content.readNBytes(renderer.getWindowLength());
+    }
+
+    private InputStream getContentInputStream(HttpServletRequest request) throws IOException {
+        if (request instanceof UnrestrictedContentCachingRequestWrapper) {
+            return ((UnrestrictedContentCachingRequestWrapper) request).getContentInputStream();
+        } else if (request instanceof TeeCapturingRequestWrapper) {
+            return ((TeeCapturingRequestWrapper) request).getContentInputStream();
+        } else if (request instanceof ContentCachingRequestWrapper) {
+            return new ByteArrayInputStream(((ContentCachingRequestWrapper) request).getContentAsByteArray());
+        } else {
+            log.trace("Request body was not captured");
+            return null;
+        }
+    }
+
+    private Charset getCharset(HttpServletRequest request) {
+        String charset = request.getCharacterEncoding();
+        return charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8;
+    }
+}
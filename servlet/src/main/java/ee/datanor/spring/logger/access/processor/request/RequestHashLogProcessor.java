@@ -16,26 +16,38 @@
 
 package ee.datanor.spring.logger.access.processor.request;
 
+import ee.datanor.spring.logger.access.id.RandomRequestIdGenerator;
+import ee.datanor.spring.logger.access.id.RequestIdGenerator;
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
-import ee.datanor.spring.logger.util.HashUtil;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import jakarta.servlet.http.HttpServletRequest;
 
 public class RequestHashLogProcessor implements RequestLogProcessor {
     public static final String MDC_KEY = "AL_REQUEST_HASH";
     public static final int DEFAULT_HASH_LENGTH = 8;
 
-    private int hashLength;
+    private final RequestIdGenerator requestIdGenerator;
 
     public RequestHashLogProcessor() {
         this(DEFAULT_HASH_LENGTH);
     }
 
     public RequestHashLogProcessor(int hashLength) {
-        this.hashLength = hashLength;
+        this(new RandomRequestIdGenerator(hashLength));
+    }
+
+    public RequestHashLogProcessor(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
     }
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(MDC_KEY, HashUtil.generateHash(hashLength));
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        setValue(record, AccessLogField.REQUEST_HASH, requestIdGenerator.generate());
     }
 }
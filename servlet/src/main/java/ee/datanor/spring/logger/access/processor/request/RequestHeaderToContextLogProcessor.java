@@ -17,6 +17,7 @@
 package ee.datanor.spring.logger.access.processor.request;
 
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
@@ -28,6 +29,11 @@ public class RequestHeaderToContextLogProcessor implements RequestLogProcessor {
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(contextAttribute, replaceEmpty(httpRequest.getHeader(headerName)));
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        setValue(record, contextAttribute, replaceEmpty(httpRequest.getHeader(headerName)));
     }
 }
@@ -17,31 +17,41 @@
 package ee.datanor.spring.logger.access.processor.request;
 
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.util.HeaderSelector;
 import ee.datanor.spring.logger.util.HeaderUtil;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 
 public class RequestHeadersLogProcessor implements RequestLogProcessor {
     public static final String MDC_KEY = "AL_REQUEST_HEADERS";
 
-    private final Set<String> includedRequestHeaders;
+    private final HeaderSelector headerSelector;
 
     public RequestHeadersLogProcessor() {
-        this(Set.of("referer", "user-agent", "content-type", "accept"));
+        this(new LinkedHashSet<>(List.of("referer", "user-agent", "content-type", "accept")));
     }
 
     public RequestHeadersLogProcessor(Set<String> includedRequestHeaders) {
-        this.includedRequestHeaders = includedRequestHeaders;
+        this.headerSelector = new HeaderSelector(includedRequestHeaders);
     }
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(MDC_KEY, replaceEmpty(getRequestHeaders(httpRequest)));
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        setValue(record, AccessLogField.REQUEST_HEADERS, replaceEmpty(getRequestHeaders(httpRequest)));
     }
 
     private String getRequestHeaders(HttpServletRequest httpRequest) {
-        return HeaderUtil.headersToString(httpRequest, includedRequestHeaders);
+        return HeaderUtil.select(headerSelector, httpRequest);
     }
 }
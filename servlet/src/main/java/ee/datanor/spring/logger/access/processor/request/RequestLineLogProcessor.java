@@ -16,6 +16,10 @@
 
 package ee.datanor.spring.logger.access.processor.request;
 
+import ee.datanor.spring.logger.access.processor.AccessLogContext;
+import ee.datanor.spring.logger.access.processor.RequestLineRenderer;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import ee.datanor.spring.logger.util.ParameterMasker;
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -25,27 +29,35 @@ import java.util.Map;
 public class RequestLineLogProcessor extends ParameterMaskingRequestLogProcessor {
     public static final String MDC_KEY = "AL_REQUEST_LINE";
 
+    private final RequestLineRenderer renderer;
+
     public RequestLineLogProcessor() {
         this(new HashMap<>());
     }
 
     public RequestLineLogProcessor(Map<String, ParameterMasker> maskers) {
         super(maskers);
+        this.renderer = new RequestLineRenderer(maskers);
     }
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(MDC_KEY, replaceEmpty(getRequestLine(httpRequest)));
+        processToMDC(record -> process(httpRequest, record));
     }
 
-    private String getRequestLine(HttpServletRequest httpRequest) {
-        return String.format("%s %s %s", httpRequest.getMethod(), getRequestUrl(httpRequest), httpRequest.getProtocol());
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        process(AccessLogContext.of(httpRequest), record);
+    }
+
+    @Override
+    public void process(AccessLogContext context, AccessLogRecord record) {
+        setValue(record, AccessLogField.REQUEST_LINE, replaceEmpty(getRequestLine(context)));
     }
 
-    private String getRequestUrl(HttpServletRequest httpRequest) {
-        if (httpRequest.getQueryString() != null) {
-            return httpRequest.getRequestURI() + "?" + maskSensitiveParameters(httpRequest, httpRequest.getQueryString());
-        }
-        return httpRequest.getRequestURI();
+    private String getRequestLine(AccessLogContext context) {
+        HttpServletRequest httpRequest = context.getRequest();
+        return renderer.render(httpRequest.getMethod(), context.getRequestPath(), httpRequest.getRequestURI(), httpRequest.getQueryString(),
+                httpRequest.getProtocol());
     }
 }
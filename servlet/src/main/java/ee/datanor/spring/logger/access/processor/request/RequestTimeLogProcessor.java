@@ -17,9 +17,11 @@
 package ee.datanor.spring.logger.access.processor.request;
 
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.util.CachedTimestampRenderer;
 import jakarta.servlet.http.HttpServletRequest;
 
-import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 
@@ -27,18 +29,23 @@ public class RequestTimeLogProcessor implements RequestLogProcessor {
     public static final String MDC_KEY = "AL_REQUEST_TIME";
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").withLocale(Locale.getDefault());
 
-    private DateTimeFormatter dateTimeFormatter;
+    private final CachedTimestampRenderer timestampRenderer;
 
     public RequestTimeLogProcessor() {
         this(DATE_FORMAT);
     }
 
     public RequestTimeLogProcessor(DateTimeFormatter dateTimeFormatter) {
-        this.dateTimeFormatter = dateTimeFormatter;
+        this.timestampRenderer = new CachedTimestampRenderer(dateTimeFormatter);
     }
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(MDC_KEY, dateTimeFormatter.format(OffsetDateTime.now()));
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        setValue(record, AccessLogField.REQUEST_TIME, timestampRenderer.render());
     }
 }
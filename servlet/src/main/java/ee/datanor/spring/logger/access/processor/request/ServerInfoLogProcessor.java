@@ -17,6 +17,8 @@
 package ee.datanor.spring.logger.access.processor.request;
 
 import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import jakarta.servlet.http.HttpServletRequest;
 
 public class ServerInfoLogProcessor implements RequestLogProcessor {
@@ -25,7 +27,12 @@ public class ServerInfoLogProcessor implements RequestLogProcessor {
 
     @Override
     public void process(HttpServletRequest httpRequest) {
-        setMDCValue(NAME_MDC_KEY, replaceEmpty(httpRequest.getServerName()));
-        setMDCValue(PORT_MDC_KEY, replaceEmpty(httpRequest.getServerPort()));
+        processToMDC(record -> process(httpRequest, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+        setValue(record, AccessLogField.SERVER_NAME, replaceEmpty(httpRequest.getServerName()));
+        setValue(record, AccessLogField.SERVER_PORT, replaceEmpty(httpRequest.getServerPort()));
     }
 }
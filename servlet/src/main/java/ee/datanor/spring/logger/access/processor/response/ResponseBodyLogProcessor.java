@@ -0,0 +1,181 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.processor.response;
+
+import ee.datanor.spring.logger.access.WrittenBytesAware;
+import ee.datanor.spring.logger.access.async.BodyBufferPool;
+import ee.datanor.spring.logger.access.processor.AccessLogContext;
+import ee.datanor.spring.logger.access.processor.BodyRenderer;
+import ee.datanor.spring.logger.access.processor.DeferrableResponseLogProcessor;
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.JsonFieldMasker;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class ResponseBodyLogProcessor implements DeferrableResponseLogProcessor {
+    private static final int DEFAULT_MAX_LOGGED_CONTENT_LENGTH = 2048;
+
+    private final Set<String> includedResponseBodyMediaSubtypes;
+    private final BodyRenderer renderer;
+    protected final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public ResponseBodyLogProcessor() {
+        this(DEFAULT_MAX_LOGGED_CONTENT_LENGTH, Set.of("json", "xml"), Map.of());
+    }
+
+
+    public ResponseBodyLogProcessor(int maxLoggedResponseLength, Set<String> includedResponseBodyMediaSubtypes, Map<String, BodyMasker> sensitiveBodyMaskers) {
+        this(maxLoggedResponseLength, includedResponseBodyMediaSubtypes, sensitiveBodyMaskers, Map.of());
+    }
+
+    public ResponseBodyLogProcessor(int maxLoggedResponseLength, Set<String> includedResponseBodyMediaSubtypes, Map<String, BodyMasker> sensitiveBodyMaskers,
+                                    Map<String, JsonFieldMasker> jsonFieldMaskers) {
+        this(maxLoggedResponseLength, includedResponseBodyMediaSubtypes, sensitiveBodyMaskers, jsonFieldMaskers, MASK_WHOLE_BODY);
+    }
+
+    /**
+     * With a non-negative {@code maskingLookahead} only the first {@code maxLoggedResponseLength + maskingLookahead}
+     * bytes of the body are read, decoded and masked, and the result is cut to {@code maxLoggedResponseLength} bytes.
+     */
+    public ResponseBodyLogProcessor(int maxLoggedResponseLength, Set<String> includedResponseBodyMediaSubtypes, Map<String, BodyMasker> sensitiveBodyMaskers,
+                                    Map<String, JsonFieldMasker> jsonFieldMaskers, int maskingLookahead) {
+        this.includedResponseBodyMediaSubtypes = includedResponseBodyMediaSubtypes.stream()
+                .map(subtype -> subtype.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.renderer = new BodyRenderer(Map.of(), maxLoggedResponseLength, sensitiveBodyMaskers, jsonFieldMaskers, maskingLookahead);
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync) {
+        processToMDC(record -> process(httpRequest, responseWrapper, isASync, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+        process(AccessLogContext.of(httpRequest, responseWrapper), responseWrapper, isASync, record);
+    }
+
+    @Override
+    public void process(AccessLogContext context, ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+        setBodyLength(responseWrapper, isASync, record);
+        if (responseBodyMediaSubtypeMatches(context) && !isASync) {
+            setValue(record, AccessLogField.RESPONSE_BODY, getResponseBody(context, responseWrapper));
+        } else {
+            setValue(record, AccessLogField.RESPONSE_BODY, EMPTY_REPLACEMENT);
+        }
+    }
+
+    @Override
+    public DeferredLogValue capture(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync,
+                                    AccessLogRecord record, BodyBufferPool bufferPool) {
+        return capture(AccessLogContext.of(httpRequest, responseWrapper), responseWrapper, isASync, record, bufferPool);
+    }
+
+    @Override
+    public DeferredLogValue capture(AccessLogContext context, ContentCachingResponseWrapper responseWrapper, boolean isASync,
+                                    AccessLogRecord record, BodyBufferPool bufferPool) {
+        setBodyLength(responseWrapper, isASync, record);
+        if (responseBodyMediaSubtypeMatches(context) && !isASync) {
+            String requestPath = context.getRequestPath();
+            if (renderer.getMaskingLookahead() < 0) {
+                byte[] content = responseWrapper.getContentAsByteArray();
+                return DeferredLogValue.ofBytes(AccessLogField.RESPONSE_BODY, this, requestPath, content, content.length, context.getResponseCharset(), null);
+            }
+            int windowLength = renderer.getWindowLength();
+            byte[] buffer = bufferPool.acquire(windowLength);
+            try (InputStream content = responseWrapper.getContentInputStream()) {
+                int length = content.readNBytes(buffer, 0, windowLength);
+                return DeferredLogValue.ofBytes(AccessLogField.RESPONSE_BODY, this, requestPath, buffer, length, context.getResponseCharset(), bufferPool);
+            } catch (Exception e) {
+                log.error("Failed to read response attributes", e);
+                bufferPool.release(buffer);
+                return DeferredLogValue.ofText(AccessLogField.RESPONSE_BODY, this, requestPath, "");
+            }
+        }
+        setValue(record, AccessLogField.RESPONSE_BODY, EMPTY_REPLACEMENT);
+        return null;
+    }
+
+    @Override
+    public String render(String requestPath, String content) {
+        return renderer.render(requestPath, content);
+    }
+
+    @Override
+    public String render(String requestPath, byte[] content, int length, Charset charset) {
+        return renderer.render(requestPath, content, length, charset);
+    }
+
+    private void setBodyLength(ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+        if (!isASync) {
+            setValue(record, AccessLogField.RESPONSE_BODY_LENGTH, getResponseBodyLength(responseWrapper));
+        } else {
+            setValue(record, AccessLogField.RESPONSE_BODY_LENGTH, EMPTY_REPLACEMENT);
+        }
+    }
+
+    private long getResponseBodyLength(ContentCachingResponseWrapper httpResponse) {
+        if (httpResponse instanceof WrittenBytesAware) {
+            return ((WrittenBytesAware) httpResponse).getBytesWritten();
+        }
+        return httpResponse.getContentSize();
+    }
+
+    private String getResponseBody(AccessLogContext context, ContentCachingResponseWrapper httpResponse) {
+        String requestPath = context.getRequestPath();
+        try {
+            byte[] content = getContent(httpResponse);
+            return render(requestPath, content, content.length, context.getResponseCharset());
+        } catch (Exception e) {
+            log.error("Failed to read response attributes", e);
+            return render(requestPath, "");
+        }
+    }
+
+    private byte[] getContent(ContentCachingResponseWrapper httpResponse) throws IOException {
+        if (renderer.getMaskingLookahead() < 0) {
+            return httpResponse.getContentAsByteArray();
+        }
+        try (InputStream content = httpResponse.getContentInputStream()) {
+            return content.readNBytes(renderer.getWindowLength());
+        }
+    }
+
+    /**
+     * Media subtypes are kept lower case, as {@link MediaType} reports them.
+     */
+    private boolean responseBodyMediaSubtypeMatches(AccessLogContext context) {
+        MediaType mediaType = context.getResponseMediaType();
+        return mediaType != null && includedResponseBodyMediaSubtypes.contains(mediaType.getSubtype());
+    }
+}
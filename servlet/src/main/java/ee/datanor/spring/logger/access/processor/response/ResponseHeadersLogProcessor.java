@@ -17,31 +17,37 @@
 package ee.datanor.spring.logger.access.processor.response;
 
 import ee.datanor.spring.logger.access.processor.ResponseLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.util.HeaderSelector;
 import ee.datanor.spring.logger.util.HeaderUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 public class ResponseHeadersLogProcessor implements ResponseLogProcessor {
     public static final String MDC_KEY = "AL_RESPONSE_HEADERS";
 
-    private final Set<String> includedResponseHeaders;
+    private final HeaderSelector headerSelector;
 
     public ResponseHeadersLogProcessor() {
-        this(Set.of("content-type", "location"));
+        this(new LinkedHashSet<>(List.of("content-type", "location")));
     }
 
     public ResponseHeadersLogProcessor(Set<String> includedResponseHeaders) {
-        this.includedResponseHeaders = includedResponseHeaders;
+        this.headerSelector = new HeaderSelector(includedResponseHeaders);
     }
 
     @Override
     public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync) {
-        setMDCValue(MDC_KEY, HeaderUtil.headersToString(responseWrapper, includedResponseHeaders));
+        processToMDC(record -> process(httpRequest, responseWrapper, isASync, record));
     }
 
-    private String getResponseHeaders(HttpServletRequest httpRequest) {
-        return HeaderUtil.headersToString(httpRequest, includedResponseHeaders);
+    @Override
+    public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+        setValue(record, AccessLogField.RESPONSE_HEADERS, HeaderUtil.select(headerSelector, responseWrapper));
     }
 }
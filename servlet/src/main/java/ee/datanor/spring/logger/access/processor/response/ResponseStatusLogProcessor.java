@@ -17,6 +17,8 @@
 package ee.datanor.spring.logger.access.processor.response;
 
 import ee.datanor.spring.logger.access.processor.ResponseLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
@@ -25,6 +27,11 @@ public class ResponseStatusLogProcessor implements ResponseLogProcessor {
 
     @Override
     public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync) {
-        setMDCValue(MDC_KEY, responseWrapper.getStatus());
+        processToMDC(record -> process(httpRequest, responseWrapper, isASync, record));
+    }
+
+    @Override
+    public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+        setValue(record, AccessLogField.RESPONSE_STATUS, responseWrapper.getStatus());
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import ee.datanor.spring.logger.util.RequestUtil;
+import ee.datanor.spring.logger.util.UriPatternIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples requests at the rate of the first matching {@link SamplingRule}, or at {@code defaultRate}.
+ *
+ * <p>Rules are tried in the order their patterns were first registered, method-specific rules of a pattern before
+ * its catch-all rule. When the request carries a correlation id, the decision is made from its hash, so every
+ * service seeing the same correlation id with the same rate makes the same decision: the 64-bit FNV-1a hash of the
+ * id's UTF-8 bytes, mixed with the MurmurHash3 {@code fmix64} finalizer and taken as an unsigned fraction of 2^64,
+ * must be below the rate.
+ * Requests selected by rate must also get a permit from the optional token bucket. The weight of a sampled request
+ * then accounts for the selected requests that were refused a permit, see {@link TokenBucket#getAdmissionRatio()}.
+ */
+public final class HeadSampler implements Sampler {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final double TWO_TO_THE_64 = 0x1.0p64;
+
+    private final UriPatternIndex<List<SamplingRule>> rules;
+    private final double defaultRate;
+    private final TokenBucket tokenBucket;
+    private final String correlationIdHeaderName;
+
+    /**
+     * @param tokenBucket ceiling on the number of sampled requests, {@code null} for none
+     * @param correlationIdHeaderName header whose value decides, {@code null} to decide randomly
+     */
+    public HeadSampler(List<SamplingRule> rules, double defaultRate, TokenBucket tokenBucket, String correlationIdHeaderName) {
+        Map<String, List<SamplingRule>> rulesByPattern = new LinkedHashMap<>();
+        for (SamplingRule rule : rules) {
+            rulesByPattern.computeIfAbsent(rule.getUriPattern(), p -> new ArrayList<>()).add(rule);
+        }
+        rulesByPattern.values().forEach(patternRules -> patternRules.sort(Comparator.comparing(rule -> rule.getMethod() == null)));
+        this.rules = new UriPatternIndex<>(rulesByPattern);
+        this.defaultRate = defaultRate;
+        this.tokenBucket = tokenBucket;
+        this.correlationIdHeaderName = correlationIdHeaderName;
+    }
+
+    @Override
+    public SamplingDecision decide(HttpServletRequest request) {
+        double rate = getRate(request);
+        if (!isSelected(request, rate)) {
+            return SamplingDecision.NOT_SAMPLED;
+        }
+        if (tokenBucket == null) {
+            return SamplingDecision.sampled(rate);
+        }
+        if (!tokenBucket.tryAcquire()) {
+            return SamplingDecision.NOT_SAMPLED;
+        }
+        return SamplingDecision.sampled(rate * tokenBucket.getAdmissionRatio());
+    }
+
+    /**
+     * Position of {@code correlationId} in [0, 1) used to compare against the sampling rate.
+     */
+    public static double hash(String correlationId) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : correlationId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash = mix(hash);
+        double unsigned = hash >= 0 ? hash : hash + TWO_TO_THE_64;
+        return Math.min(unsigned / TWO_TO_THE_64, Math.nextDown(1.0));
+    }
+
+    private static long mix(long hash) {
+        long mixed = hash;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xff51afd7ed558ccdL;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xc4ceb9fe1a85ec53L;
+        mixed ^= mixed >>> 33;
+        return mixed;
+    }
+
+    private double getRate(HttpServletRequest request) {
+        if (rules.isEmpty()) {
+            return defaultRate;
+        }
+        String method = request.getMethod();
+        for (List<SamplingRule> patternRules : rules.match(RequestUtil.getRequestPath(request))) {
+            for (SamplingRule rule : patternRules) {
+                if (rule.matchesMethod(method)) {
+                    return rule.getRate();
+                }
+            }
+        }
+        return defaultRate;
+    }
+
+    private boolean isSelected(HttpServletRequest request, double rate) {
+        if (rate >= 1) {
+            return true;
+        } else if (rate <= 0) {
+            return false;
+        }
+        String correlationId = correlationIdHeaderName != null ? request.getHeader(correlationIdHeaderName) : null;
+        double position = StringUtils.isEmpty(correlationId) ? ThreadLocalRandom.current().nextDouble() : hash(correlationId);
+        return position < rate;
+    }
+}
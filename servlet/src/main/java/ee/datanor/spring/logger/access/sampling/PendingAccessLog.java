@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+
+/**
+ * Request values held in the request attributes until the response decides whether they are logged.
+ */
+@Getter
+public final class PendingAccessLog {
+    public static final String ATTRIBUTE = PendingAccessLog.class.getName();
+
+    private final AccessLogRecord record;
+    private final long reservedBytes;
+    private final long startNanos;
+
+    PendingAccessLog(AccessLogRecord record, long reservedBytes, long startNanos) {
+        this.record = record;
+        this.reservedBytes = reservedBytes;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Takes the pending values of {@code request} out of its attributes, {@code null} if there are none.
+     */
+    public static PendingAccessLog remove(HttpServletRequest request) {
+        Object pending = request.getAttribute(ATTRIBUTE);
+        if (!(pending instanceof PendingAccessLog)) {
+            return null;
+        }
+        request.removeAttribute(ATTRIBUTE);
+        return (PendingAccessLog) pending;
+    }
+}
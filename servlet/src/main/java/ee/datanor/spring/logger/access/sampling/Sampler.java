@@ -14,13 +14,17 @@
  * limitations under the License.
  */
 
-package ee.datanor.spring.logger.access.processor;
 
-import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+package ee.datanor.spring.logger.access.sampling;
 
-public interface ResponseLogProcessor extends LogProcessor {
+import jakarta.servlet.http.HttpServletRequest;
 
-    void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync);
+/**
+ * Decides at filter entry whether a request is logged. Requests that are not sampled are passed on without
+ * wrappers and no processor runs for them.
+ */
+@FunctionalInterface
+public interface Sampler {
 
+    SamplingDecision decide(HttpServletRequest request);
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+
+/**
+ * Outcome of sampling a request, kept as a request attribute so that async dispatches reuse it.
+ */
+@Getter
+public final class SamplingDecision {
+    public static final String ATTRIBUTE = SamplingDecision.class.getName();
+    public static final SamplingDecision ALWAYS = new SamplingDecision(true, 1);
+    public static final SamplingDecision NOT_SAMPLED = new SamplingDecision(false, 0);
+
+    private final boolean sampled;
+    /**
+     * Number of requests a logged one stands for, the inverse of the probability it was logged with.
+     */
+    private final double weight;
+
+    private SamplingDecision(boolean sampled, double weight) {
+        this.sampled = sampled;
+        this.weight = weight;
+    }
+
+    /**
+     * A sampled request, logged with probability {@code rate}.
+     */
+    public static SamplingDecision sampled(double rate) {
+        return rate >= 1 ? ALWAYS : new SamplingDecision(true, 1 / rate);
+    }
+
+    public static SamplingDecision get(HttpServletRequest request) {
+        Object decision = request.getAttribute(ATTRIBUTE);
+        return decision instanceof SamplingDecision ? (SamplingDecision) decision : null;
+    }
+
+    /**
+     * The weight as logged, without a fraction when it is a whole number.
+     */
+    public String formatWeight() {
+        long whole = (long) weight;
+        return whole == weight ? Long.toString(whole) : Double.toString(weight);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sampling rate of requests whose path matches {@code uriPattern} and, unless {@code method} is {@code null}, whose
+ * method is {@code method}.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class SamplingRule {
+    private final String uriPattern;
+    private final String method;
+    private final double rate;
+
+    public boolean matchesMethod(String requestMethod) {
+        return method == null || method.equalsIgnoreCase(requestMethod);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+/**
+ * How much of a request is logged once its outcome is known.
+ */
+public enum TailDetail {
+    /**
+     * Request and response lines with bodies.
+     */
+    FULL,
+    /**
+     * Request and response lines without bodies. Body processors are not run for the response.
+     */
+    HEADERS_ONLY,
+    /**
+     * Nothing.
+     */
+    NONE
+}
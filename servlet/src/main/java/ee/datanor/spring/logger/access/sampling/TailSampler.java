@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import ee.datanor.spring.logger.access.processor.LogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.util.UriPatternIndex;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides after the response how much of a request is logged: requests matching their route's
+ * {@link TailSamplingRule} in full, all others at {@code healthyDetail}.
+ *
+ * <p>Request values wait for the decision in a {@link PendingAccessLog}. Their size is accounted against
+ * {@code memoryLimit} bytes shared by all pending requests; when the limit is reached, new requests are held without
+ * their body and, failing that, not at all, in which case only their response line can be logged.
+ */
+public final class TailSampler {
+    public static final long DEFAULT_MEMORY_LIMIT = 16 * 1024 * 1024;
+
+    private final UriPatternIndex<TailSamplingRule> rules;
+    private final TailSamplingRule defaultRule;
+    private final TailDetail healthyDetail;
+    private final long memoryLimit;
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    public TailSampler(List<TailSamplingRule> rules, TailSamplingRule defaultRule, TailDetail healthyDetail, long memoryLimit) {
+        Map<String, TailSamplingRule> rulesByPattern = new LinkedHashMap<>();
+        rules.forEach(rule -> rulesByPattern.putIfAbsent(rule.getUriPattern(), rule));
+        this.rules = new UriPatternIndex<>(rulesByPattern);
+        this.defaultRule = defaultRule;
+        this.healthyDetail = healthyDetail;
+        this.memoryLimit = memoryLimit;
+    }
+
+    public TailDetail decide(String requestPath, int status, long durationMillis) {
+        List<TailSamplingRule> matching = rules.isEmpty() ? List.of() : rules.match(requestPath);
+        TailSamplingRule rule = matching.isEmpty() ? defaultRule : matching.get(0);
+        return rule.isOfInterest(status, durationMillis) ? TailDetail.FULL : healthyDetail;
+    }
+
+    /**
+     * Reserves memory for {@code record} and wraps it, dropping its body if the whole record does not fit. Returns
+     * {@code null} when not even that fits.
+     */
+    public PendingAccessLog hold(AccessLogRecord record, long startNanos) {
+        long size = record.estimateSize();
+        if (!tryReserve(size)) {
+            record.set(AccessLogField.REQUEST_BODY, LogProcessor.EMPTY_REPLACEMENT);
+            size = record.estimateSize();
+            if (!tryReserve(size)) {
+                return null;
+            }
+        }
+        return new PendingAccessLog(record, size, startNanos);
+    }
+
+    public void release(PendingAccessLog pending) {
+        pendingBytes.addAndGet(-pending.getReservedBytes());
+    }
+
+    /**
+     * Bytes currently held for requests waiting for their decision.
+     */
+    public long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    private boolean tryReserve(long size) {
+        while (true) {
+            long current = pendingBytes.get();
+            if (current + size > memoryLimit) {
+                return false;
+            }
+            if (pendingBytes.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Requests on paths matching {@code uriPattern} are logged in full when they take at least
+ * {@code slowThresholdMillis} or end with a status of at least {@code minErrorStatus}.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class TailSamplingRule {
+    private final String uriPattern;
+    private final long slowThresholdMillis;
+    private final int minErrorStatus;
+
+    public boolean isOfInterest(int status, long durationMillis) {
+        return status >= minErrorStatus || durationMillis >= slowThresholdMillis;
+    }
+}
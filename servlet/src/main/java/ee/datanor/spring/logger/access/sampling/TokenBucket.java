@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free rate limiter allowing {@code permitsPerSecond} on average and bursts of up to {@code burst} permits.
+ *
+ * <p>The whole state is the time at which the bucket would be full again, updated with a compare-and-set. Taking a
+ * permit moves it one interval further; a permit is refused when that would put it more than a burst ahead of now.
+ *
+ * <p>Requested and granted permits are counted per second, so that callers can scale what they count by the share of
+ * requests that got a permit.
+ */
+public final class TokenBucket {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong fullAt;
+    private final AtomicLong windowStart;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong granted = new AtomicLong();
+    private volatile long previousRequested;
+    private volatile long previousGranted;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive: " + permitsPerSecond + ", " + burst);
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.fullAt = new AtomicLong(nanoClock.getAsLong());
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        countWindow(now);
+        requested.incrementAndGet();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current - now, 0) + now + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                granted.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Share of the permits requested in the current and the previous second that were granted, 1 before any request.
+     */
+    public double getAdmissionRatio() {
+        long requestedPermits = previousRequested + requested.get();
+        long grantedPermits = previousGranted + granted.get();
+        return requestedPermits == 0 ? 1 : Math.min(1, (double) grantedPermits / requestedPermits);
+    }
+
+    /**
+     * Starts a new window once a second has passed. The counts of the window that ended become the previous ones,
+     * unless it ended more than a second ago.
+     */
+    private void countWindow(long now) {
+        long start = windowStart.get();
+        if (now - start < WINDOW_NANOS || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        long requestedPermits = requested.getAndSet(0);
+        long grantedPermits = granted.getAndSet(0);
+        boolean recent = now - start < 2 * WINDOW_NANOS;
+        previousRequested = recent ? requestedPermits : 0;
+        previousGranted = recent ? grantedPermits : 0;
+    }
+}
@@ -20,12 +20,12 @@ import org.springframework.util.StringUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -34,25 +34,46 @@ public class HeaderUtil {
     private HeaderUtil() {
     }
 
+    /**
+     * Renders the given headers, or all headers when {@code headersToInclude} is {@code null}. Callers rendering the
+     * same headers repeatedly should keep a {@link HeaderSelector} instead.
+     */
     public static String headersToString(HttpServletRequest request, Set<String> headersToInclude) {
-        return headersToString(getHeadersAsMap(request), headersToInclude);
+        if (headersToInclude != null) {
+            return select(new HeaderSelector(headersToInclude), request);
+        }
+        return headersToString(getHeadersAsMap(request));
     }
 
     public static String headersToString(HttpServletResponse response, Set<String> headersToInclude) {
-        return headersToString(getHeadersAsMap(response), headersToInclude);
+        if (headersToInclude != null) {
+            return select(new HeaderSelector(headersToInclude), response);
+        }
+        return headersToString(getHeadersAsMap(response));
     }
 
     public static String maskAuthorizationHeaderValue(String value) {
-        if (value.trim().startsWith("Bearer")) {
-            int index=value.lastIndexOf('.');
-            if (index > 0 && value.chars().filter(ch -> ch == '.').count() > 1) {
-                return value.substring(0, index) + ".***";
-            } else {
-                return value;
-            }
-        }
+        return HeaderSelector.maskAuthorizationValue(value);
+    }
 
-        return "***";
+    /**
+     * Headers of {@code request} selected by {@code selector}.
+     */
+    public static String select(HeaderSelector selector, HttpServletRequest request) {
+        return selector.select(name -> {
+            Enumeration<String> values = request.getHeaders(name);
+            return values != null ? values.asIterator() : null;
+        });
+    }
+
+    /**
+     * Headers of {@code response} selected by {@code selector}.
+     */
+    public static String select(HeaderSelector selector, HttpServletResponse response) {
+        return selector.select(name -> {
+            Collection<String> values = response.getHeaders(name);
+            return values != null ? values.iterator() : null;
+        });
     }
 
     private static Map<String, String> getHeadersAsMap(HttpServletRequest request) {
@@ -91,27 +112,10 @@ public class HeaderUtil {
         return result;
     }
 
-    private static String headersToString(Map<String, String> headers, Set<String> headersToInclude) {
-        TreeMap<String, String> caseInsensitiveHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        caseInsensitiveHeaders.putAll(headers);
+    private static String headersToString(Map<String, String> headers) {
         StringBuilder sb = new StringBuilder();
-        if (headersToInclude != null) {
-            headersToInclude.stream()
-                    .filter(caseInsensitiveHeaders::containsKey)
-                    .map(key -> findKeyIgnoreCase(caseInsensitiveHeaders, key))
-                    .forEach(key -> appendHeader(sb, key, caseInsensitiveHeaders.get(key)));
-        } else {
-            headers.forEach((key, value) -> appendHeader(sb, key, value));
-        }
+        headers.forEach((key, value) -> sb.append(key).append(": ").append(value).append("\n"));
         return sb.toString();
     }
 
-    private static StringBuilder appendHeader(StringBuilder headerValuesStringBuilder, String key, String value) {
-        return headerValuesStringBuilder.append(key).append(": ").append(value).append("\n");
-    }
-
-    private static String findKeyIgnoreCase(Map<String, ?> map, String key) {
-        return map.keySet().stream().filter(key::equalsIgnoreCase).findAny().orElse(null);
-    }
-
 }
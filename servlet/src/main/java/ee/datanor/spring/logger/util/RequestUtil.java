@@ -16,6 +16,7 @@
 
 package ee.datanor.spring.logger.util;
 
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.util.StringUtils;
 
@@ -53,4 +54,22 @@ public final class RequestUtil {
         }
         return url;
     }
+
+    /**
+     * Route key of the request: the pattern matched by Spring MVC once the handler has been chosen, otherwise the
+     * normalized path, resolved once and kept in the request attributes.
+     */
+    public static String getRoute(HttpServletRequest request, RouteKeyResolver resolver) {
+        Object pattern = request.getAttribute(RouteKeyResolver.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        Object resolved = request.getAttribute(RouteKeyResolver.ATTRIBUTE);
+        if (resolved instanceof String) {
+            return (String) resolved;
+        }
+        String route = resolver.resolve(getRequestPath(request));
+        request.setAttribute(RouteKeyResolver.ATTRIBUTE, route);
+        return route;
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.processor.AccessLogContext;
+import ee.datanor.spring.logger.access.processor.RequestLogProcessor;
+import ee.datanor.spring.logger.access.processor.response.ResponseBodyLogProcessor;
+import ee.datanor.spring.logger.access.processor.response.ResponseStatusLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AccessLogPipelineTest {
+
+    @Test
+    void shouldResolveRequestPathOncePerPhase() {
+        // given
+        MockHttpServletRequest request = spy(new MockHttpServletRequest("GET", "/uri"));
+        request.setServletPath("/uri");
+        AccessLogPipeline pipeline = AccessLogPipeline.compile(List.of(new PathLogProcessor("A"), new PathLogProcessor("B")), List.of(), List.of());
+        AccessLogRecord record = new AccessLogRecord();
+
+        // when
+        pipeline.processRequest(AccessLogContext.of(request), record);
+
+        // then
+        assertEquals("/uri", record.getAttribute("A"));
+        assertEquals("/uri", record.getAttribute("B"));
+        verify(request, times(1)).getServletPath();
+    }
+
+    @Test
+    void shouldRunProcessorsImplementingOnlyTheRequestMethod() {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uri");
+        RequestLogProcessor processor = new RequestLogProcessor() {
+            @Override
+            public void process(HttpServletRequest httpRequest) {
+            }
+
+            @Override
+            public void process(HttpServletRequest httpRequest, AccessLogRecord record) {
+                record.setAttribute("METHOD", httpRequest.getMethod());
+            }
+        };
+        AccessLogPipeline pipeline = AccessLogPipeline.compile(List.of(processor), List.of(), List.of());
+        AccessLogRecord record = new AccessLogRecord();
+
+        // when
+        pipeline.processRequest(AccessLogContext.of(request), record);
+
+        // then
+        assertEquals("GET", record.getAttribute("METHOD"));
+    }
+
+    @Test
+    void shouldSkipBodyProcessorsWithoutBodies() throws IOException {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uri");
+        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+        response.setContentType("application/json");
+        response.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        AccessLogPipeline pipeline = AccessLogPipeline.compile(List.of(), List.of(),
+                List.of(new ResponseStatusLogProcessor(), new ResponseBodyLogProcessor()));
+        AccessLogRecord withBodies = new AccessLogRecord();
+        AccessLogRecord withoutBodies = new AccessLogRecord();
+
+        // when
+        pipeline.processResponse(AccessLogContext.of(request, response), response, false, withBodies, true);
+        pipeline.processResponse(AccessLogContext.of(request, response), response, false, withoutBodies, false);
+
+        // then
+        assertEquals("{}", withBodies.get(AccessLogField.RESPONSE_BODY));
+        assertEquals("200", withoutBodies.get(AccessLogField.RESPONSE_STATUS));
+        assertNull(withoutBodies.get(AccessLogField.RESPONSE_BODY));
+    }
+
+    private static final class PathLogProcessor implements RequestLogProcessor {
+        private final String attribute;
+
+        PathLogProcessor(String attribute) {
+            this.attribute = attribute;
+        }
+
+        @Override
+        public void process(HttpServletRequest httpRequest) {
+        }
+
+        @Override
+        public void process(AccessLogContext context, AccessLogRecord record) {
+            record.setAttribute(attribute, context.getRequestPath());
+        }
+    }
+}
@@ -0,0 +1,817 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.async.OverflowPolicy;
+import ee.datanor.spring.logger.access.metrics.AccessLogMetrics;
+import ee.datanor.spring.logger.access.processor.LogProcessor;
+import ee.datanor.spring.logger.access.processor.request.CorrelationIdLogProcessor;
+import ee.datanor.spring.logger.access.processor.request.RequestHeadersLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.access.sampling.PendingAccessLog;
+import ee.datanor.spring.logger.access.sampling.SamplingDecision;
+import ee.datanor.spring.logger.access.sampling.TailDetail;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccessLoggerTest {
+
+    @Mock
+    private MultipartResolver multipartResolver;
+
+    @Mock
+    private UnrestrictedContentCachingRequestWrapper httpServletRequest;
+
+    @Mock
+    private ContentCachingResponseWrapper httpServletResponse;
+
+    private AccessLogger accessLogger;
+
+    @BeforeEach
+    void setUp() {
+        accessLogger = AccessLogger.builder()
+                .logRequestBody(multipartResolver)
+                .logResponseBody()
+                .sensitiveUriParameter("/uri", "sensitive")
+                .loggedRequestHeaders("h1")
+                .loggedResponseHeaders("h1")
+                .sensitiveBodyPattern("/uri", "\"key\"\\s*:\\s*\"([^\"]+)")
+                .loggedResponseBodyMediaTypes(Set.of("json", "xml"))
+                .addRequestProcessor(new CorrelationIdLogProcessor())
+                .build();
+        MDC.clear();
+    }
+
+    @Test
+    void shouldGenerateHashes() {
+        // given
+        mockRequestHeaders();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+
+        // then
+        assertNotEmpty("AL_CORRELATION_ID_HASH");
+        assertNotEmpty("AL_REQUEST_HASH");
+    }
+
+    @Test
+    void shouldAddRequestHeaders() {
+        // given
+        mockRequestHeaders();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+
+        // then
+        assertNotEmpty("AL_REQUEST_HEADERS");
+    }
+
+    @Test
+    void shouldRenderRequestHeadersInConfigurationOrder() {
+        // given
+        AccessLogger logger = AccessLogger.builder()
+                .loggedRequestHeaders("x-zeta", "accept", "x-alpha", "b", "user-agent")
+                .build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        for (String name : List.of("b", "user-agent", "x-alpha", "accept", "x-zeta")) {
+            request.addHeader(name, "v");
+        }
+
+        // when
+        logger.logRequest(request);
+
+        // then
+        assertEquals("x-zeta: v\\naccept: v\\nx-alpha: v\\nb: v\\nuser-agent: v\\n", MDC.get("AL_REQUEST_HEADERS"));
+    }
+
+    @Test
+    void shouldRenderDefaultHeadersInDeclarationOrder() {
+        // given
+        AccessLogger logger = new AccessLogger(List.of(new RequestHeadersLogProcessor()), List.of());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        for (String name : List.of("accept", "content-type", "user-agent", "referer")) {
+            request.addHeader(name, "v");
+        }
+
+        // when
+        logger.logRequest(request);
+
+        // then
+        assertEquals("referer: v\\nuser-agent: v\\ncontent-type: v\\naccept: v\\n", MDC.get("AL_REQUEST_HEADERS"));
+    }
+
+    @Test
+    void shouldAddRequestLine() {
+        // given
+        mockRequestHeaders();
+        doReturn("GET").when(httpServletRequest).getMethod();
+        doReturn("/uri").when(httpServletRequest).getRequestURI();
+        doReturn("HTTP/1.1").when(httpServletRequest).getProtocol();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_REQUEST_LINE");
+
+        // then
+        assertEquals("GET /uri HTTP/1.1", result);
+    }
+
+    @Test
+    void shouldAddRequestLineWithQueryString() {
+        // given
+        mockRequestHeaders();
+        doReturn("GET").when(httpServletRequest).getMethod();
+        doReturn("/uri").when(httpServletRequest).getRequestURI();
+        doReturn("HTTP/1.1").when(httpServletRequest).getProtocol();
+        doReturn("a=b&c=d").when(httpServletRequest).getQueryString();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_REQUEST_LINE");
+
+        // then
+        assertEquals("GET /uri?a=b&c=d HTTP/1.1", result);
+    }
+
+    @Test
+    void shouldMaskSensitiveParameterOnRequestLine() {
+        // given
+        mockRequestHeaders();
+        doReturn("GET").when(httpServletRequest).getMethod();
+        doReturn("/uri").when(httpServletRequest).getRequestURI();
+        doReturn("/uri").when(httpServletRequest).getServletPath();
+        doReturn("HTTP/1.1").when(httpServletRequest).getProtocol();
+        doReturn("a=b&sensitive=17&c=d").when(httpServletRequest).getQueryString();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_REQUEST_LINE");
+
+        // then
+        assertEquals("GET /uri?a=b&sensitive=***&c=d HTTP/1.1", result);
+    }
+
+    @Test
+    void shouldAddRequestTime() {
+        // given
+        mockRequestHeaders();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+
+        // then
+        assertNotEmpty("AL_REQUEST_TIME");
+    }
+
+    @Test
+    void shouldAddServerName() {
+        // given
+        mockRequestHeaders();
+        doReturn("localhost").when(httpServletRequest).getServerName();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_SERVER_NAME");
+
+        // then
+        assertEquals("localhost", result);
+    }
+
+    @Test
+    void shouldAddServerPort() {
+        // given
+        mockRequestHeaders();
+        doReturn(88).when(httpServletRequest).getServerPort();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_SERVER_PORT");
+
+        // then
+        assertEquals("88", result);
+    }
+
+    @Test
+    void shouldAddClientIp() {
+        // given
+        mockRequestHeaders();
+        doReturn("1.2.3.4").when(httpServletRequest).getRemoteAddr();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_CLIENT_IP");
+
+        // then
+        assertEquals("1.2.3.4", result);
+    }
+
+    @Test
+    void shouldAddRequestBodyWhenDebugIsEnabled() throws IOException {
+        // given
+        mockRequestHeaders();
+        doReturn("test").when(httpServletRequest).getContentAsString();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+
+        // then
+        assertNotEmpty("AL_REQUEST_BODY");
+    }
+
+    @Test
+    @Disabled
+    void shouldLimitRequestBodyLength() throws IOException {
+        // given
+        mockRequestHeaders();
+        doReturn("test").when(httpServletRequest).getContentAsString();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_REQUEST_BODY");
+
+        // then
+        assertEquals("te", result);
+    }
+
+    @Test
+    void shouldMaskSensitiveRequestBody() throws IOException {
+        // given
+        mockRequestHeaders();
+        doReturn("/uri").when(httpServletRequest).getServletPath();
+        doReturn("{\"key\":\"value\"}").when(httpServletRequest).getContentAsString();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_REQUEST_BODY");
+
+        // then
+        assertEquals("{\"key\":\"***\"}", result);
+    }
+
+    @Test
+    void shouldMaskValueCrossingTheCutWithBoundedMasking() throws IOException {
+        // given
+        accessLogger = AccessLogger.builder()
+                .logRequestBody(multipartResolver)
+                .maxRequestBodyLength(15)
+                .boundedBodyMasking(32)
+                .sensitiveBodyPattern("/uri", "\"card\":\"(\\d{16})\"")
+                .build();
+        doReturn("/uri").when(httpServletRequest).getServletPath();
+        String body = "{\"card\":\"1234567812345678\",\"data\":\"" + "x".repeat(100_000) + "\"}";
+        doReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).when(httpServletRequest).getContentInputStream();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_REQUEST_BODY");
+
+        // then
+        assertEquals("{\"card\":\"***\",\"", result);
+        verify(httpServletRequest, never()).getContentAsString();
+    }
+
+    @Test
+    void shouldMaskBodyPatternCrossingTheCutAfterJsonFields() throws IOException {
+        // given
+        accessLogger = AccessLogger.builder()
+                .logRequestBody(multipartResolver)
+                .logResponseBody()
+                .maxRequestBodyLength(22)
+                .maxResponseBodyLength(22)
+                .sensitiveJsonFields("/uri", "password")
+                .sensitiveBodyPattern("/uri", "\"card\":\"(\\d{16})\"")
+                .build();
+        byte[] body = "{\"card\":\"1234567812345678\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8);
+        doReturn("/uri").when(httpServletRequest).getServletPath();
+        doReturn(new ByteArrayInputStream(body)).when(httpServletRequest).getContentInputStream();
+        doReturn(body.length).when(httpServletResponse).getContentSize();
+        doReturn(body).when(httpServletResponse).getContentAsByteArray();
+        doReturn("UTF-8").when(httpServletResponse).getCharacterEncoding();
+        doReturn("application/json").when(httpServletResponse).getContentType();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String requestBody = MDC.get("AL_REQUEST_BODY");
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+        String responseBody = MDC.get("AL_RESPONSE_BODY");
+
+        // then
+        assertEquals("{\"card\":\"***\",\"passwor", requestBody);
+        assertEquals("{\"card\":\"***\",\"passwor", responseBody);
+    }
+
+    @Test
+    void shouldMaskWholeBodiesBeforeTruncatingWithAsyncDispatcher() throws IOException {
+        // given
+        Map<AccessLogLine, AccessLogRecord> records = new HashMap<>();
+        AsyncAccessLogDispatcher dispatcher = new AsyncAccessLogDispatcher(16, 1, OverflowPolicy.BLOCK);
+        accessLogger = AccessLogger.builder()
+                .logRequestBody(multipartResolver)
+                .logResponseBody()
+                .maxRequestBodyLength(15)
+                .maxResponseBodyLength(15)
+                .sensitiveBodyPattern("/uri", "\"card\":\"(\\d{16})\"")
+                .asyncDispatcher(dispatcher)
+                .sink(new AccessLogSink() {
+                    @Override
+                    public void write(AccessLogLine line, AccessLogRecord record) {
+                        records.put(line, record);
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                })
+                .build();
+        String body = "{\"card\":\"1234567812345678\"}";
+        doReturn("/uri").when(httpServletRequest).getServletPath();
+        doReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).when(httpServletRequest).getContentInputStream();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType("application/json");
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        responseWrapper.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        accessLogger.logResponse(httpServletRequest, responseWrapper, false);
+        dispatcher.close();
+
+        // then
+        assertEquals("{\"card\":\"***\"}", records.get(AccessLogLine.REQUEST).get(AccessLogField.REQUEST_BODY));
+        assertEquals("{\"card\":\"***\"}", records.get(AccessLogLine.RESPONSE).get(AccessLogField.RESPONSE_BODY));
+    }
+
+    @Test
+    void shouldNotAddRequestBodyWhenDisabledInOptions() {
+        // given
+        mockRequestHeaders();
+
+        // when
+        accessLogger.logRequest(httpServletRequest);
+        String result = MDC.get("AL_REQUEST_BODY");
+
+        // then
+        assertEquals(LogProcessor.EMPTY_REPLACEMENT, result);
+    }
+
+    @Test
+    void shouldAddMultipartRequestParameters() {
+        // given
+        MultipartHttpServletRequest multipartHttpServletRequest = mock(MultipartHttpServletRequest.class);
+        Map<String, String[]> parameterMap = new HashMap<>() {
+            {
+                put("param", new String[] {"value"});
+            }
+        };
+        doReturn(parameterMap).when(multipartHttpServletRequest).getParameterMap();
+        mockRequestHeaders(multipartHttpServletRequest);
+        doReturn(true).when(multipartResolver).isMultipart(any());
+        UnrestrictedContentCachingRequestWrapper httpServletRequestWrapper = new UnrestrictedContentCachingRequestWrapper(multipartHttpServletRequest);
+
+        // when
+        accessLogger.logRequest(httpServletRequestWrapper);
+        String result = MDC.get("AL_REQUEST_BODY");
+
+        // then
+        assertEquals("param=value", result);
+    }
+
+    @Test
+    void shouldLogRequestBodyCapturedOnReadWithResponse() throws IOException {
+        // given
+        AccessLogger teeAccessLogger = AccessLogger.builder()
+                .logRequestBody(multipartResolver)
+                .captureRequestBodyOnRead()
+                .build();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/uri");
+        request.setContent("body".getBytes(StandardCharsets.UTF_8));
+        TeeCapturingRequestWrapper requestWrapper = new TeeCapturingRequestWrapper(request, 1024);
+
+        // when
+        teeAccessLogger.logRequest(requestWrapper);
+        String bodyBeforeChain = MDC.get("AL_REQUEST_BODY");
+        requestWrapper.getInputStream().readAllBytes();
+        teeAccessLogger.logResponse(requestWrapper, httpServletResponse, false);
+
+        // then
+        assertNull(bodyBeforeChain);
+        assertEquals("body", MDC.get("AL_REQUEST_BODY"));
+    }
+
+    @Test
+    void shouldAddResponseHeaders() {
+        // given
+        mockResponseHeaders();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+
+        // then
+        assertNotEmpty("AL_RESPONSE_HEADERS");
+    }
+
+    @Test
+    void shouldAddResponseStatus() {
+        // given
+        mockResponseHeaders();
+        doReturn(200).when(httpServletResponse).getStatus();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+
+        // then
+        assertNotEmpty("AL_RESPONSE_HEADERS");
+    }
+
+    @Test
+    void shouldAddResponseBody() {
+        // given
+        mockResponseHeaders();
+        doReturn("test".getBytes(StandardCharsets.UTF_8)).when(httpServletResponse).getContentAsByteArray();
+        doReturn("UTF-8").when(httpServletResponse).getCharacterEncoding();
+        doReturn("application/json").when(httpServletResponse).getContentType();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+
+        // then
+        assertNotEmpty("AL_RESPONSE_BODY");
+    }
+
+    @Test
+    void shouldNotAddResponseBodyForAsyncDispatch() {
+        // given
+        mockResponseHeaders();
+        doReturn("application/json").when(httpServletResponse).getContentType();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, true);
+
+        // then
+        verify(httpServletResponse, never()).getContentAsByteArray();
+    }
+
+    @Test
+    void shouldMaskSensitiveJsonFieldsInResponseBody() {
+        // given
+        accessLogger = AccessLogger.builder()
+                .logResponseBody()
+                .sensitiveJsonFields("/accounts/**", "iban", "owner.name")
+                .build();
+        doReturn("/accounts/1").when(httpServletRequest).getServletPath();
+        doReturn(46).when(httpServletResponse).getContentSize();
+        doReturn("{\"iban\":\"EE38\",\"owner\":{\"name\":\"Mari\",\"id\":1}}".getBytes(StandardCharsets.UTF_8))
+                .when(httpServletResponse).getContentAsByteArray();
+        doReturn("UTF-8").when(httpServletResponse).getCharacterEncoding();
+        doReturn("application/json").when(httpServletResponse).getContentType();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+        String result = MDC.get("AL_RESPONSE_BODY");
+
+        // then
+        assertEquals("{\"iban\":\"***\",\"owner\":{\"name\":\"***\",\"id\":1}}", result);
+    }
+
+    @Test
+    void shouldTruncateResponseBodyOnCodePointBoundaryWithBoundedMasking() throws IOException {
+        // given
+        accessLogger = AccessLogger.builder()
+                .logResponseBody()
+                .maxResponseBodyLength(5)
+                .boundedBodyMasking(0)
+                .build();
+        doReturn(new ByteArrayInputStream("[\"äää\"]".getBytes(StandardCharsets.UTF_8))).when(httpServletResponse).getContentInputStream();
+        doReturn("UTF-8").when(httpServletResponse).getCharacterEncoding();
+        doReturn("application/json").when(httpServletResponse).getContentType();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+        String result = MDC.get("AL_RESPONSE_BODY");
+
+        // then
+        assertEquals("[\"ä", result);
+        verify(httpServletResponse, never()).getContentAsByteArray();
+    }
+
+    @Test
+    void shouldAddPhaseTimingsFromRequestTimer() {
+        // given
+        accessLogger = AccessLogger.builder().build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uri");
+        RequestTimer timer = new RequestTimer(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5));
+        timer.add(RequestTimer.Phase.REQUEST_LOG, 1_500);
+        timer.add(RequestTimer.Phase.CHAIN, 3_000_000);
+        request.setAttribute(RequestTimer.ATTRIBUTE, timer);
+
+        // when
+        accessLogger.logResponse(request, httpServletResponse, false);
+
+        // then
+        assertTrue(Long.parseLong(MDC.get("AL_PROCESSING_TIME")) >= 5);
+        assertEquals("1", MDC.get("AL_REQUEST_LOG_TIME_US"));
+        assertEquals("3000", MDC.get("AL_CHAIN_TIME_US"));
+        assertNotNull(MDC.get("AL_RESPONSE_LOG_TIME_US"));
+    }
+
+    @Test
+    void shouldDeriveRequestPathOnceForRequestAndResponse() {
+        // given
+        accessLogger = AccessLogger.builder().sensitiveUriParameter("/users/**", "token").build();
+        MockHttpServletRequest request = spy(new MockHttpServletRequest("GET", "/users/5"));
+        request.setServletPath("/users/5");
+        request.setQueryString("token=abc");
+        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+
+        // when
+        accessLogger.logRequest(request);
+        accessLogger.logResponse(request, response, false);
+
+        // then
+        assertEquals("GET /users/5?token=*** HTTP/1.1", MDC.get("AL_REQUEST_LINE"));
+        assertEquals("/users/{id}", MDC.get("AL_ROUTE"));
+        verify(request, times(1)).getServletPath();
+    }
+
+    @Test
+    void shouldUseSpringMvcPatternOnResponseLineAndMetricsOnly() {
+        // given
+        AccessLogMetrics metrics = new AccessLogMetrics();
+        accessLogger = AccessLogger.builder().metrics(metrics).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/5");
+        request.setServletPath("/users/5");
+        request.setAttribute(RequestTimer.ATTRIBUTE, new RequestTimer(System.nanoTime()));
+        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+
+        // when
+        accessLogger.logRequest(request);
+        String requestRoute = MDC.get("AL_ROUTE");
+        request.setAttribute(RouteKeyResolver.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users/{userId}");
+        accessLogger.logResponse(request, response, false);
+
+        // then
+        assertEquals("/users/{id}", requestRoute);
+        assertEquals("/users/{userId}", MDC.get("AL_ROUTE"));
+        assertEquals("/users/{userId}", metrics.snapshot().get(0).getKey().getRoute());
+    }
+
+    @Test
+    void shouldLogFailedRequestOnlyOnceResponseIsKnownWithTailSampling() {
+        // given
+        accessLogger = AccessLogger.builder().tailSampling(TailDetail.NONE).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uri");
+        request.setServletPath("/uri");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(500);
+
+        // when
+        accessLogger.logRequest(request);
+        String requestLineBeforeResponse = MDC.get("AL_REQUEST_LINE");
+        accessLogger.logResponse(request, new ContentCachingResponseWrapper(response), false);
+
+        // then
+        assertNull(requestLineBeforeResponse);
+        assertEquals("GET /uri HTTP/1.1", MDC.get("AL_REQUEST_LINE"));
+        assertEquals("500", MDC.get("AL_RESPONSE_STATUS"));
+        assertNull(request.getAttribute(PendingAccessLog.ATTRIBUTE));
+        assertEquals(0, accessLogger.getTailSampler().getPendingBytes());
+    }
+
+    @Test
+    void shouldNotLogHealthyRequestWithTailSampling() {
+        // given
+        accessLogger = AccessLogger.builder().tailSampling(TailDetail.NONE).tailSamplingThreshold("/uri", 60_000, 400).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uri");
+        request.setServletPath("/uri");
+
+        // when
+        accessLogger.logRequest(request);
+        boolean held = request.getAttribute(PendingAccessLog.ATTRIBUTE) != null;
+        accessLogger.logResponse(request, new ContentCachingResponseWrapper(new MockHttpServletResponse()), false);
+
+        // then
+        assertTrue(held);
+        assertNull(MDC.get("AL_REQUEST_LINE"));
+        assertNull(MDC.get("AL_RESPONSE_STATUS"));
+        assertEquals(0, accessLogger.getTailSampler().getPendingBytes());
+    }
+
+    @Test
+    void shouldAddRouteKey() {
+        // given
+        accessLogger = AccessLogger.builder().build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/98231/orders/5");
+        request.setServletPath("/users/98231/orders/5");
+
+        // when
+        accessLogger.logRequest(request);
+
+        // then
+        assertEquals("/users/{id}/orders/{id}", MDC.get("AL_ROUTE"));
+    }
+
+    @Test
+    void shouldWriteLinesToSinkInsteadOfLoggers() {
+        // given
+        List<String> lines = new ArrayList<>();
+        AccessLogSink sink = new AccessLogSink() {
+            @Override
+            public void write(AccessLogLine line, AccessLogRecord record) {
+                lines.add(line + " " + record.get(AccessLogField.REQUEST_LINE) + " " + record.get(AccessLogField.RESPONSE_STATUS));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        accessLogger = AccessLogger.builder().sink(sink).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        request.setServletPath("/users");
+        request.setProtocol("HTTP/1.1");
+
+        // when
+        accessLogger.logRequest(request);
+        accessLogger.logResponse(request, new ContentCachingResponseWrapper(new MockHttpServletResponse()), false);
+
+        // then
+        assertEquals(List.of("REQUEST GET /users HTTP/1.1 null", "RESPONSE GET /users HTTP/1.1 200"), lines);
+        assertNull(MDC.get("AL_RESPONSE_STATUS"));
+    }
+
+    @Test
+    void shouldKeepRecordInRequestWithRequestScopedState() throws InterruptedException {
+        // given
+        accessLogger = AccessLogger.builder().requestScopedState().build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uri");
+        request.setServletPath("/uri");
+        Map<String, String> responseContext = new HashMap<>();
+
+        // when
+        accessLogger.logRequest(request);
+        Thread responseThread = new Thread(() -> {
+            accessLogger.logResponse(request, httpServletResponse, true);
+            responseContext.putAll(MDC.getCopyOfContextMap());
+        });
+        responseThread.start();
+        responseThread.join();
+
+        // then
+        assertTrue(request.getAttribute(AccessLogger.RECORD_ATTRIBUTE) instanceof AccessLogRecord);
+        assertEquals("GET /uri HTTP/1.1", responseContext.get("AL_REQUEST_LINE"));
+    }
+
+    @Test
+    void shouldAddSamplingWeightOfSampledRequest() {
+        // given
+        accessLogger = AccessLogger.builder().sampler(request -> SamplingDecision.sampled(0.25)).build();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uri");
+
+        // when
+        boolean sampled = accessLogger.sample(request).isSampled();
+        accessLogger.logResponse(request, httpServletResponse, false);
+
+        // then
+        assertTrue(sampled);
+        assertEquals("4", MDC.get("AL_SAMPLING_WEIGHT"));
+    }
+
+    @Test
+    void shouldNotAddResponseBodyForContentType() {
+        // given
+        mockResponseHeaders();
+        doReturn(4).when(httpServletResponse).getContentSize();
+        doReturn("text/plain").when(httpServletResponse).getContentType();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+        String result = MDC.get("AL_RESPONSE_BODY");
+
+        // then
+        assertEquals(LogProcessor.EMPTY_REPLACEMENT, result);
+        assertEquals("4", MDC.get("AL_RESPONSE_BODY_LENGTH"));
+    }
+
+    @Test
+    @Disabled
+    void shouldLimitMaxResponseBodyLength() {
+        // given
+        mockResponseHeaders();
+        doReturn("test".getBytes(StandardCharsets.UTF_8)).when(httpServletResponse).getContentAsByteArray();
+        doReturn("UTF-8").when(httpServletResponse).getCharacterEncoding();
+        doReturn("application/json").when(httpServletResponse).getContentType();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+        String result = MDC.get("AL_RESPONSE_BODY");
+
+        // then
+        assertEquals("te", result);
+    }
+
+    @Test
+    void shouldNotAddResponseBodyWhenDisabledInOptions() {
+        // given
+        mockResponseHeaders();
+        doReturn(4).when(httpServletResponse).getContentSize();
+
+        // when
+        accessLogger.logResponse(httpServletRequest, httpServletResponse, false);
+        String result = MDC.get("AL_RESPONSE_BODY");
+
+        // then
+        assertEquals(LogProcessor.EMPTY_REPLACEMENT, result);
+        assertEquals("4", MDC.get("AL_RESPONSE_BODY_LENGTH"));
+    }
+
+    private void mockRequestHeaders() {
+        mockRequestHeaders(httpServletRequest);
+    }
+
+    private void mockRequestHeaders(HttpServletRequest httpServletRequest) {
+        Enumeration<String> headerValues = Collections.enumeration(Collections.singletonList("val"));
+        doReturn(headerValues).when(httpServletRequest).getHeaders(eq("h1"));
+    }
+
+    private void mockResponseHeaders() {
+        List<String> headerValues = Collections.singletonList("val");
+        doReturn(headerValues).when(httpServletResponse).getHeaders(eq("h1"));
+    }
+
+    private void assertNotEmpty(String attr) {
+        String value = MDC.get(attr);
+        assertNotNull(value);
+        assertNotEquals("-", value);
+    }
+
+    private void setLoggingLevel(String logger, Level level) {
+        LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
+        Configuration config = ctx.getConfiguration();
+        LoggerConfig loggerConfig = config.getLoggerConfig(logger);
+        loggerConfig.setLevel(level);
+        ctx.updateLoggers();
+
+    }
+}
\ No newline at end of file
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.metrics.AccessLogMetrics;
+import ee.datanor.spring.logger.access.processor.ResponseLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sampling.SamplingDecision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccessLoggingFilterTest {
+
+    @Mock
+    private AccessLogger accessLogger;
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    @Spy
+    private AccessLoggingFilter accessLoggingFilter;
+
+    @BeforeEach
+    void setUp() {
+        MDC.clear();
+        lenient().doReturn(BodyCaptureSettings.DEFAULT).when(accessLogger).getBodyCaptureSettings();
+        lenient().doReturn(SamplingDecision.ALWAYS).when(accessLogger).sample(any(HttpServletRequest.class));
+    }
+
+    @Test
+    void shouldLogRequest() throws IOException, ServletException {
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(accessLogger, times(1)).logRequest(any(HttpServletRequest.class));
+    }
+
+    @Test
+    void shouldNotLogRequestForAsyncDispatch() throws IOException, ServletException {
+        // given
+        doReturn(false).when(accessLoggingFilter).isFirstRequest(any(HttpServletRequest.class));
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(accessLogger, never()).logRequest(any(HttpServletRequest.class));
+    }
+
+    @Test
+    void shouldSuppressLogRequestException() throws IOException, ServletException {
+        // given
+        doThrow(new RuntimeException()).when(accessLogger).logRequest(any(HttpServletRequest.class));
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+    }
+
+
+    @Test
+    void shouldLogResponse() throws IOException, ServletException {
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(accessLogger, times(1)).logResponse(any(HttpServletRequest.class), any(ContentCachingResponseWrapper.class), anyBoolean());
+    }
+
+    @Test
+    void shouldSuppressLogResponseException() throws IOException, ServletException {
+        // given
+        doThrow(new RuntimeException()).when(accessLogger).logResponse(any(HttpServletRequest.class), any(ContentCachingResponseWrapper.class), anyBoolean());
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void shouldCaptureRequestBodyOnReadWhenEnabled() throws IOException, ServletException {
+        // given
+        doReturn(new BodyCaptureSettings(true, 1024, BodyCaptureSettings.UNLIMITED, false, 1024)).when(accessLogger).getBodyCaptureSettings();
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(any(TeeCapturingRequestWrapper.class), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void shouldNotWrapRequestAboveCaptureCeiling() throws IOException, ServletException {
+        // given
+        doReturn(new BodyCaptureSettings(true, 1024, 10, false, 1024)).when(accessLogger).getBodyCaptureSettings();
+        doReturn(11L).when(request).getContentLengthLong();
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(eq(request), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void shouldStreamResponseWhenEnabled() throws IOException, ServletException {
+        // given
+        doReturn(new BodyCaptureSettings(false, 1024, BodyCaptureSettings.UNLIMITED, true, 1024)).when(accessLogger).getBodyCaptureSettings();
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(any(HttpServletRequest.class), any(StreamingContentCachingResponseWrapper.class));
+    }
+
+    @Test
+    void shouldPassUnsampledRequestThroughUnwrapped() throws IOException, ServletException {
+        // given
+        doReturn(SamplingDecision.NOT_SAMPLED).when(accessLogger).sample(request);
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(request, response);
+        verify(accessLogger, never()).logRequest(any(HttpServletRequest.class));
+        verify(accessLogger, never()).logResponse(any(HttpServletRequest.class), any(ContentCachingResponseWrapper.class), anyBoolean());
+    }
+
+    @Test
+    void shouldRecordMetricsOfUnsampledRequest() throws IOException, ServletException {
+        // given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/uri");
+        MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+        doReturn(SamplingDecision.NOT_SAMPLED).when(accessLogger).sample(mockRequest);
+        doReturn(new AccessLogMetrics()).when(accessLogger).getMetrics();
+
+        // when
+        accessLoggingFilter.doFilterInternal(mockRequest, mockResponse, filterChain);
+
+        // then
+        verify(filterChain, times(1)).doFilter(mockRequest, mockResponse);
+        verify(accessLogger, times(1)).recordMetrics(eq(mockRequest), eq(mockResponse), anyLong());
+    }
+
+    @Test
+    void shouldRestoreMdcOfCallerWithRequestScopedState() throws IOException, ServletException {
+        // given
+        MDC.put("trace", "abc");
+        doReturn(true).when(accessLogger).isRequestScopedState();
+        doAnswer(invocation -> {
+            MDC.put("AL_REQUEST_LINE", "GET /uri HTTP/1.1");
+            return null;
+        }).when(accessLogger).logRequest(any(HttpServletRequest.class));
+
+        // when
+        accessLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        assertEquals("abc", MDC.get("trace"));
+        assertNull(MDC.get("AL_REQUEST_LINE"));
+    }
+
+    @Test
+    void shouldLogAsyncResponseOnceWhenAsyncContextCompletes() throws IOException, ServletException {
+        // given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/uri");
+        mockRequest.setAsyncSupported(true);
+        doAnswer(invocation -> {
+            mockRequest.startAsync(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(filterChain).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+
+        // when
+        accessLoggingFilter.doFilterInternal(mockRequest, new MockHttpServletResponse(), filterChain);
+        verify(accessLogger, never()).logResponse(any(HttpServletRequest.class), any(ContentCachingResponseWrapper.class), anyBoolean());
+        mockRequest.getAsyncContext().complete();
+
+        // then
+        verify(accessLogger, times(1)).detachRecord(any(HttpServletRequest.class));
+        verify(accessLogger, times(1)).logResponse(any(HttpServletRequest.class), any(ContentCachingResponseWrapper.class), eq(false));
+    }
+
+    @Test
+    void shouldLogBodyAndEndToEndTimeOfAsyncResponse() throws IOException, ServletException {
+        // given
+        AtomicReference<String> loggedBody = new AtomicReference<>();
+        AccessLoggingFilter filter = new AccessLoggingFilter(AccessLogger.builder()
+                .logResponseBody()
+                .addResponseProcessor(new ResponseLogProcessor() {
+                    @Override
+                    public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync) {
+                    }
+
+                    @Override
+                    public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync,
+                                        AccessLogRecord record) {
+                        loggedBody.set(record.get(AccessLogField.RESPONSE_BODY));
+                    }
+                })
+                .build());
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/uri");
+        mockRequest.setAsyncSupported(true);
+        MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+        mockResponse.setContentType("application/json");
+        doAnswer(invocation -> {
+            mockRequest.startAsync(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(filterChain).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+
+        // when
+        filter.doFilterInternal(mockRequest, mockResponse, filterChain);
+        AsyncContext asyncContext = mockRequest.getAsyncContext();
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+        asyncContext.getResponse().getOutputStream().write("{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+        asyncContext.complete();
+
+        // then
+        assertEquals("{\"ok\":true}", mockResponse.getContentAsString());
+        assertEquals("{\"ok\":true}", loggedBody.get());
+        assertTrue(RequestTimer.get(mockRequest).get(RequestTimer.Phase.RESPONSE_LOG, TimeUnit.NANOSECONDS) > 0);
+        assertTrue(RequestTimer.get(mockRequest).elapsed(System.nanoTime(), TimeUnit.MILLISECONDS) >= 20);
+    }
+
+    @Test
+    void shouldRecordPhaseTimingsOnRequest() throws IOException, ServletException {
+        // given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/uri");
+        doAnswer(invocation -> {
+            Thread.sleep(2);
+            return null;
+        }).when(filterChain).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+
+        // when
+        accessLoggingFilter.doFilterInternal(mockRequest, new MockHttpServletResponse(), filterChain);
+        RequestTimer timer = RequestTimer.get(mockRequest);
+
+        // then
+        assertNotNull(timer);
+        assertTrue(timer.get(RequestTimer.Phase.CHAIN, TimeUnit.MICROSECONDS) >= 2000);
+        assertTrue(timer.elapsed(System.nanoTime(), TimeUnit.MICROSECONDS) >= timer.get(RequestTimer.Phase.CHAIN, TimeUnit.MICROSECONDS));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BodyCaptureTest {
+
+    @Test
+    void shouldEncodeSurrogatePairSplitAcrossWrites() throws IOException {
+        // given
+        BodyCapture capture = new BodyCapture(1024);
+        StringWriter delegate = new StringWriter();
+        Writer writer = capture.tee(delegate, StandardCharsets.UTF_8);
+        String text = "a😀b";
+
+        // when
+        writer.write(text.substring(0, 2));
+        writer.write(text.substring(2));
+
+        // then
+        assertEquals(text, delegate.toString());
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), capture.getContentAsByteArray());
+        assertEquals(6, capture.getBytesWritten());
+    }
+
+    @Test
+    void shouldCountEncodedBytesBeyondCaptureLimit() throws IOException {
+        // given
+        BodyCapture capture = new BodyCapture(4);
+        Writer writer = capture.tee(new StringWriter(), StandardCharsets.UTF_8);
+
+        // when
+        writer.write("tõlge".repeat(300));
+        writer.close();
+
+        // then
+        assertArrayEquals("tõl".getBytes(StandardCharsets.UTF_8), capture.getContentAsByteArray());
+        assertEquals(1800, capture.getBytesWritten());
+    }
+
+    @Test
+    void shouldCountUnpairedSurrogateAsReplacementOnClose() throws IOException {
+        // given
+        BodyCapture capture = new BodyCapture(1024);
+        Writer writer = capture.tee(new StringWriter(), StandardCharsets.UTF_8);
+        writer.write("a\uD83D");
+
+        // when
+        writer.close();
+
+        // then
+        assertArrayEquals("a?".getBytes(StandardCharsets.UTF_8), capture.getContentAsByteArray());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingContentCachingResponseWrapperTest {
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+    }
+
+    @Test
+    void shouldWriteThroughToResponse() throws IOException {
+        // given
+        StreamingContentCachingResponseWrapper wrapper = new StreamingContentCachingResponseWrapper(response, 1024);
+
+        // when
+        wrapper.getOutputStream().write("body".getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertEquals("body", response.getContentAsString());
+        assertEquals("body", new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8));
+        assertFalse(wrapper.isTruncated());
+    }
+
+    @Test
+    void shouldCaptureOnlyUpToLimitAndCountAllBytes() throws IOException {
+        // given
+        StreamingContentCachingResponseWrapper wrapper = new StreamingContentCachingResponseWrapper(response, 3);
+
+        // when
+        wrapper.getOutputStream().write("bo".getBytes(StandardCharsets.UTF_8));
+        wrapper.getOutputStream().write('d');
+        wrapper.getOutputStream().write("y and more".getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertEquals("body and more", response.getContentAsString());
+        assertArrayEquals("bod".getBytes(StandardCharsets.UTF_8), wrapper.getContentAsByteArray());
+        assertEquals(3, wrapper.getContentSize());
+        assertEquals(13, wrapper.getBytesWritten());
+        assertTrue(wrapper.isTruncated());
+    }
+
+    @Test
+    void shouldFlushWriterOnCopyBodyToResponse() throws IOException {
+        // given
+        StreamingContentCachingResponseWrapper wrapper = new StreamingContentCachingResponseWrapper(response, 1024);
+        wrapper.getWriter().write("tõlge");
+
+        // when
+        wrapper.copyBodyToResponse();
+
+        // then
+        assertEquals("tõlge", response.getContentAsString());
+        assertEquals(6, wrapper.getBytesWritten());
+    }
+
+    @Test
+    void shouldPassContentLengthThrough() {
+        // given
+        StreamingContentCachingResponseWrapper wrapper = new StreamingContentCachingResponseWrapper(response, 1024);
+
+        // when
+        wrapper.setContentLength(42);
+
+        // then
+        assertEquals(42, response.getContentLength());
+    }
+}
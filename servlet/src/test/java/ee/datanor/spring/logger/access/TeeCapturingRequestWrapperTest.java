@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TeeCapturingRequestWrapperTest {
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("POST", "/uri");
+        request.setContent("{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldNotCaptureBeforeBodyIsRead() {
+        // given
+        TeeCapturingRequestWrapper wrapper = new TeeCapturingRequestWrapper(request, 1024);
+
+        // when
+        String content = wrapper.getContentAsString();
+
+        // then
+        assertEquals("", content);
+    }
+
+    @Test
+    void shouldPassBodyThroughAndCaptureIt() throws IOException {
+        // given
+        TeeCapturingRequestWrapper wrapper = new TeeCapturingRequestWrapper(request, 1024);
+
+        // when
+        String body = IOUtils.toString(wrapper.getInputStream(), StandardCharsets.UTF_8);
+
+        // then
+        assertEquals("{\"key\":\"value\"}", body);
+        assertEquals("{\"key\":\"value\"}", wrapper.getContentAsString());
+        assertFalse(wrapper.isTruncated());
+    }
+
+    @Test
+    void shouldCaptureOnlyUpToLimit() throws IOException {
+        // given
+        TeeCapturingRequestWrapper wrapper = new TeeCapturingRequestWrapper(request, 4);
+
+        // when
+        String body = IOUtils.toString(wrapper.getReader());
+
+        // then
+        assertEquals("{\"key\":\"value\"}", body);
+        assertEquals("{\"ke", wrapper.getContentAsString());
+        assertEquals(15, wrapper.getBytesRead());
+        assertTrue(wrapper.isTruncated());
+    }
+
+    @Test
+    void shouldCaptureSingleByteReads() throws IOException {
+        // given
+        TeeCapturingRequestWrapper wrapper = new TeeCapturingRequestWrapper(request, 2);
+
+        // when
+        wrapper.getInputStream().read();
+        wrapper.getInputStream().read();
+        wrapper.getInputStream().read();
+
+        // then
+        assertEquals("{\"", wrapper.getContentAsString());
+        assertEquals(3, wrapper.getBytesRead());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access;
+
+import ee.datanor.spring.logger.access.processor.ResponseLogProcessor;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the filter with request scoped state on one virtual thread per request. Run on Java 21 by the
+ * {@code virtualThreadTest} task, which fails it on older versions; skipped below Java 21 elsewhere.
+ */
+class VirtualThreadFilterTest {
+    private static final int REQUESTS = 10_000;
+    private static final long CHAIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String REQUIRED_PROPERTY = "virtualThreads.required";
+
+    @Test
+    void shouldFilterOnVirtualThreadsWithoutPinningOrThreadLocalState() throws Exception {
+        // given
+        if (Boolean.getBoolean(REQUIRED_PROPERTY)) {
+            assertTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21, running " + Runtime.version());
+        } else {
+            assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21");
+        }
+        AtomicInteger loggedResponses = new AtomicInteger();
+        AtomicInteger keptRequestScopedState = new AtomicInteger();
+        AccessLogger accessLogger = AccessLogger.builder()
+                .requestScopedState()
+                .addResponseProcessor(new CountingResponseLogProcessor(loggedResponses))
+                .build();
+        AccessLoggingFilter filter = new AccessLoggingFilter(accessLogger);
+        FilterChain chain = (request, response) -> LockSupport.parkNanos(CHAIN_NANOS);
+
+        // when
+        Path events = Files.createTempFile("virtual-threads", ".jfr");
+        long elapsedNanos;
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withoutThreshold();
+            recording.start();
+            long start = System.nanoTime();
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            for (int i = 0; i < REQUESTS; i++) {
+                String path = "/users/" + i;
+                executor.execute(() -> {
+                    MDC.put("caller", path);
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+                    request.setServletPath(path);
+                    try {
+                        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    boolean requestScoped = request.getAttribute(AccessLogger.RECORD_ATTRIBUTE) != null;
+                    if (requestScoped && path.equals(MDC.get("caller")) && MDC.get("AL_REQUEST_LINE") == null) {
+                        keptRequestScopedState.incrementAndGet();
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+            elapsedNanos = System.nanoTime() - start;
+            recording.stop();
+            recording.dump(events);
+        }
+
+        // then
+        long pinned = RecordingFile.readAllEvents(events).stream()
+                .filter(event -> PINNED_EVENT.equals(event.getEventType().getName()))
+                .count();
+        Files.delete(events);
+        assertEquals(REQUESTS, loggedResponses.get());
+        assertEquals(REQUESTS, keptRequestScopedState.get());
+        assertEquals(0, accessLogger.getThreadRecordCount());
+        assertEquals(0, pinned);
+        assertTrue(elapsedNanos < REQUESTS * CHAIN_NANOS / 2, "requests were not handled concurrently: " + elapsedNanos / 1_000_000 + " ms");
+    }
+
+    /**
+     * Looked up reflectively, the tests are compiled for Java 17.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws ReflectiveOperationException {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+
+    private static final class CountingResponseLogProcessor implements ResponseLogProcessor {
+        private final AtomicInteger count;
+
+        private CountingResponseLogProcessor(AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void process(HttpServletRequest httpRequest, ContentCachingResponseWrapper responseWrapper, boolean isASync, AccessLogRecord record) {
+            count.incrementAndGet();
+        }
+    }
+}
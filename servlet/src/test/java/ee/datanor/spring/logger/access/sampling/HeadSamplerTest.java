@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadSamplerTest {
+
+    @Test
+    void shouldUseFirstMatchingRule() {
+        // given
+        HeadSampler sampler = new HeadSampler(List.of(
+                new SamplingRule("/api/**", null, 0),
+                new SamplingRule("/api/**", "POST", 1),
+                new SamplingRule("/health", null, 0)
+        ), 1, null, null);
+
+        // then
+        assertTrue(sampler.decide(request("POST", "/api/orders")).isSampled());
+        assertFalse(sampler.decide(request("GET", "/api/orders")).isSampled());
+        assertFalse(sampler.decide(request("GET", "/health")).isSampled());
+        assertTrue(sampler.decide(request("GET", "/other")).isSampled());
+    }
+
+    @Test
+    void shouldDecideDeterministicallyByCorrelationId() {
+        // given
+        HeadSampler sampler = new HeadSampler(List.of(), 0.5, null, "X-Correlation-ID");
+
+        // when
+        long sampled = IntStream.range(0, 2000)
+                .filter(i -> {
+                    boolean first = sampler.decide(request("id-" + i)).isSampled();
+                    assertEquals(first, sampler.decide(request("id-" + i)).isSampled());
+                    return first;
+                })
+                .count();
+
+        // then
+        assertTrue(sampled > 900 && sampled < 1100, "sampled " + sampled);
+        assertEquals(2.0, sampler.decide(request(sampledId(sampler))).getWeight());
+    }
+
+    @Test
+    void shouldHashWithFnv1aAndFmix64() {
+        // then
+        assertEquals(0x82a2a958L / 0x1.0p32, HeadSampler.hash("a"), 0x1.0p-32);
+    }
+
+    @Test
+    void shouldNotSampleBeyondTokenBucketCeiling() {
+        // given
+        HeadSampler sampler = new HeadSampler(List.of(), 1, new TokenBucket(0.001, 3), null);
+
+        // when
+        long sampled = IntStream.range(0, 10).filter(i -> sampler.decide(new MockHttpServletRequest()).isSampled()).count();
+
+        // then
+        assertEquals(3, sampled);
+    }
+
+    @Test
+    void shouldCountRequestsRefusedByTokenBucketInWeight() {
+        // given
+        AtomicLong nanos = new AtomicLong();
+        HeadSampler sampler = new HeadSampler(List.of(), 0.5, new TokenBucket(1, 1, nanos::get), "X-Correlation-ID");
+        String id = sampledId(new HeadSampler(List.of(), 0.5, null, "X-Correlation-ID"));
+
+        // when
+        SamplingDecision first = sampler.decide(request(id));
+        IntStream.range(0, 3).forEach(i -> sampler.decide(request(id)));
+        nanos.set(TimeUnit.SECONDS.toNanos(1));
+        SamplingDecision afterRefusals = sampler.decide(request(id));
+
+        // then
+        assertEquals(2.0, first.getWeight());
+        assertEquals(5.0, afterRefusals.getWeight());
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private static MockHttpServletRequest request(String correlationId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader("X-Correlation-ID", correlationId);
+        return request;
+    }
+
+    private static String sampledId(HeadSampler sampler) {
+        return IntStream.range(0, 100).mapToObj(i -> "id-" + i).filter(id -> sampler.decide(request(id)).isSampled()).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sampling;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TailSamplerTest {
+
+    @Test
+    void shouldDecideByRouteThresholds() {
+        // given
+        TailSampler sampler = new TailSampler(List.of(new TailSamplingRule("/reports/**", 5_000, 500)),
+                new TailSamplingRule("/**", 200, 400), TailDetail.NONE, 1024);
+
+        // then
+        assertEquals(TailDetail.FULL, sampler.decide("/orders", 404, 10));
+        assertEquals(TailDetail.FULL, sampler.decide("/orders", 200, 200));
+        assertEquals(TailDetail.NONE, sampler.decide("/orders", 200, 199));
+        assertEquals(TailDetail.NONE, sampler.decide("/reports/daily", 404, 1_000));
+        assertEquals(TailDetail.FULL, sampler.decide("/reports/daily", 200, 5_000));
+    }
+
+    @Test
+    void shouldDropBodyAndThenRequestWhenMemoryLimitIsReached() {
+        // given
+        TailSampler sampler = new TailSampler(List.of(), new TailSamplingRule("/**", Long.MAX_VALUE, 500), TailDetail.NONE, 320);
+
+        // when
+        PendingAccessLog first = sampler.hold(record("x".repeat(100)), 0);
+        PendingAccessLog second = sampler.hold(record("x".repeat(100)), 0);
+        PendingAccessLog third = sampler.hold(record("x".repeat(100)), 0);
+
+        // then
+        assertEquals("x".repeat(100), first.getRecord().get(AccessLogField.REQUEST_BODY));
+        assertEquals("-", second.getRecord().get(AccessLogField.REQUEST_BODY));
+        assertNull(third);
+        assertEquals(first.getReservedBytes() + second.getReservedBytes(), sampler.getPendingBytes());
+
+        // when
+        sampler.release(first);
+        sampler.release(second);
+
+        // then
+        assertEquals(0, sampler.getPendingBytes());
+        assertNotNull(sampler.hold(record("x".repeat(100)), 0));
+    }
+
+    private static AccessLogRecord record(String body) {
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_LINE, "POST /orders HTTP/1.1");
+        record.set(AccessLogField.REQUEST_BODY, body);
+        return record;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class HeaderSelectorTest {
+
+    @Mock
+    private HttpServletRequest httpServletRequest;
+    @Mock
+    private HttpServletResponse httpServletResponse;
+
+    @Test
+    void shouldLookUpOnlyConfiguredRequestHeaders() {
+        // given
+        HeaderSelector selector = new HeaderSelector(List.of("Accept", "accept", "X-Missing", "Authorization"));
+        doReturn(Collections.enumeration(List.of("a", "b"))).when(httpServletRequest).getHeaders(eq("Accept"));
+        doReturn(Collections.emptyEnumeration()).when(httpServletRequest).getHeaders(eq("X-Missing"));
+        doReturn(Collections.enumeration(List.of("Basic ABC"))).when(httpServletRequest).getHeaders(eq("Authorization"));
+
+        // when
+        String headers = HeaderUtil.select(selector, httpServletRequest);
+
+        // then
+        assertEquals("Accept: a;b\nAuthorization: ***\n", headers);
+        verify(httpServletRequest, never()).getHeaderNames();
+    }
+
+    @Test
+    void shouldLookUpOnlyConfiguredResponseHeaders() {
+        // given
+        HeaderSelector selector = new HeaderSelector(List.of("Content-Type", "Location"));
+        doReturn(List.of("application/json")).when(httpServletResponse).getHeaders(eq("Content-Type"));
+        doReturn(List.of()).when(httpServletResponse).getHeaders(eq("Location"));
+
+        // when
+        String headers = HeaderUtil.select(selector, httpServletResponse);
+
+        // then
+        assertEquals("Content-Type: application/json\n", headers);
+        verify(httpServletResponse, never()).getHeaderNames();
+    }
+}
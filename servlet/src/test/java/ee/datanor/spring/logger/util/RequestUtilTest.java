@@ -17,13 +17,17 @@
 package ee.datanor.spring.logger.util;
 
 
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.access.route.SegmentRule;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -69,4 +73,24 @@ class RequestUtilTest {
         // then
         assertEquals("param=value&param2=value2", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldPreferSpringMvcPatternAndResolveOncePerRequest() {
+        // given
+        RouteKeyResolver resolver = new RouteKeyResolver(List.of(SegmentRule.matching("[a-z]{2}-[A-Z]{2}", "{locale}")), 10, 10);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/et-EE/users/1");
+        request.setServletPath("/et-EE/users/1");
+
+        // when
+        String beforeHandler = RequestUtil.getRoute(request, resolver);
+        request.setServletPath("/other");
+        String cached = RequestUtil.getRoute(request, resolver);
+        request.setAttribute(RouteKeyResolver.BEST_MATCHING_PATTERN_ATTRIBUTE, "/{locale}/users/{userId}");
+        String afterHandler = RequestUtil.getRoute(request, resolver);
+
+        // then
+        assertEquals("/{locale}/users/1", beforeHandler);
+        assertEquals("/{locale}/users/1", cached);
+        assertEquals("/{locale}/users/{userId}", afterHandler);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.util.CachedTimestampRenderer;
+import ee.datanor.spring.logger.util.Utf8Util;
+
+import java.nio.ByteBuffer;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Encodes access log lines straight from the record to UTF-8, in the tab separated layout of the {@code REQ} and
+ * {@code RES} patterns of the README:
+ *
+ * <pre>
+ * REQ  time  AL_REQUEST_HASH  AL_SERVER_NAME:AL_SERVER_PORT  AL_CLIENT_IP  -  AL_REQUEST_LINE  AL_REQUEST_HEADERS  AL_REQUEST_BODY_LENGTH  AL_REQUEST_BODY
+ * RES  time  AL_REQUEST_LINE  AL_PROCESSING_TIMEms  AL_RESPONSE_STATUS  AL_RESPONSE_HEADERS  AL_RESPONSE_BODY_LENGTH  AL_RESPONSE_BODY
+ * </pre>
+ *
+ * <p>Missing values are written empty, as {@code %X} does, and an empty request body as {@code -}.
+ */
+public final class AccessLineEncoder {
+    public static final DateTimeFormatter DEFAULT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+    private static final AccessLogField[] REQUEST_FIELDS = {
+        AccessLogField.REQUEST_LINE, AccessLogField.REQUEST_HEADERS, AccessLogField.REQUEST_BODY_LENGTH
+    };
+    private static final AccessLogField[] RESPONSE_FIELDS = {
+        AccessLogField.RESPONSE_STATUS, AccessLogField.RESPONSE_HEADERS, AccessLogField.RESPONSE_BODY_LENGTH, AccessLogField.RESPONSE_BODY
+    };
+    private static final AccessLogField[] REQUEST_LINE_FIELDS = {
+        AccessLogField.REQUEST_HASH, AccessLogField.SERVER_NAME, AccessLogField.SERVER_PORT, AccessLogField.CLIENT_IP,
+        AccessLogField.REQUEST_LINE, AccessLogField.REQUEST_HEADERS, AccessLogField.REQUEST_BODY_LENGTH, AccessLogField.REQUEST_BODY
+    };
+    private static final AccessLogField[] RESPONSE_LINE_FIELDS = {
+        AccessLogField.REQUEST_LINE, AccessLogField.PROCESSING_TIME, AccessLogField.RESPONSE_STATUS, AccessLogField.RESPONSE_HEADERS,
+        AccessLogField.RESPONSE_BODY_LENGTH, AccessLogField.RESPONSE_BODY
+    };
+    /**
+     * Bytes of the line prefix, separators, {@code ms} and the line feed, with room to spare.
+     */
+    private static final int FIXED_LENGTH = 32;
+    private static final byte TAB = '\t';
+
+    private final CachedTimestampRenderer timestampRenderer;
+
+    public AccessLineEncoder() {
+        this(new CachedTimestampRenderer(DEFAULT_TIME_FORMAT));
+    }
+
+    public AccessLineEncoder(CachedTimestampRenderer timestampRenderer) {
+        this.timestampRenderer = timestampRenderer;
+    }
+
+    /**
+     * Appends the line to {@code buffer}. When it does not fit, the content of {@code buffer} is copied into a larger
+     * heap buffer, which is returned instead. Heap buffers are written through their array and are copied into direct
+     * ones in bulk, so they are the faster choice for {@code buffer}.
+     */
+    public ByteBuffer encode(AccessLogLine line, AccessLogRecord record, ByteBuffer buffer) {
+        String time = timestampRenderer.render();
+        AccessLogField[] fields = line == AccessLogLine.REQUEST ? REQUEST_LINE_FIELDS : RESPONSE_LINE_FIELDS;
+        ByteBuffer target = ensureCapacity(buffer, getMaxLength(record, fields, time));
+        if (line == AccessLogLine.REQUEST) {
+            encodeRequest(record, time, target);
+        } else {
+            encodeResponse(record, time, target);
+        }
+        target.put((byte) '\n');
+        return target;
+    }
+
+    private static void encodeRequest(AccessLogRecord record, String time, ByteBuffer target) {
+        put("REQ", target);
+        putField(time, target);
+        putField(record.get(AccessLogField.REQUEST_HASH), target);
+        putField(record.get(AccessLogField.SERVER_NAME), target);
+        target.put((byte) ':');
+        put(record.get(AccessLogField.SERVER_PORT), target);
+        putField(record.get(AccessLogField.CLIENT_IP), target);
+        putField("-", target);
+        for (AccessLogField field : REQUEST_FIELDS) {
+            putField(record.get(field), target);
+        }
+        String body = record.get(AccessLogField.REQUEST_BODY);
+        putField(body == null || body.isEmpty() ? "-" : body, target);
+    }
+
+    private static void encodeResponse(AccessLogRecord record, String time, ByteBuffer target) {
+        put("RES", target);
+        putField(time, target);
+        putField(record.get(AccessLogField.REQUEST_LINE), target);
+        putField(record.get(AccessLogField.PROCESSING_TIME), target);
+        put("ms", target);
+        for (AccessLogField field : RESPONSE_FIELDS) {
+            putField(record.get(field), target);
+        }
+    }
+
+    private static void putField(String value, ByteBuffer target) {
+        target.put(TAB);
+        put(value, target);
+    }
+
+    private static void put(String value, ByteBuffer target) {
+        if (value != null) {
+            Utf8Util.encode(value, target);
+        }
+    }
+
+    private static int getMaxLength(AccessLogRecord record, AccessLogField[] fields, String time) {
+        long length = FIXED_LENGTH + Utf8Util.maxEncodedLength(time);
+        for (AccessLogField field : fields) {
+            String value = record.get(field);
+            if (value != null) {
+                length += Utf8Util.maxEncodedLength(value);
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, length);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int length) {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(2L * buffer.capacity(), (long) buffer.position() + length));
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        grown.put(buffer.flip());
+        return grown;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes access log lines to a file with group commit.
+ *
+ * <p>The calling thread encodes the line into a heap buffer of its own and, under a short lock, appends the bytes
+ * to the pending batch. A single writer thread swaps the pending batch with the one it has just written and appends
+ * it to the file in one {@link java.nio.channels.FileChannel} write, so lines arriving while the file is written or
+ * forced form the next batch. The file is forced to disk once {@code syncBytes} are unsynced or the oldest unsynced
+ * batch is {@code syncInterval} old. Callers wait when the pending batch is full.
+ *
+ * <p>Lines are encoded by a {@link LineBufferEncoder}, which keeps the heap buffer per thread.
+ */
+@Slf4j
+public class FileAccessLogSink implements AccessLogSink {
+    /**
+     * Largest encoding buffer a thread keeps, longer lines are encoded into a buffer of their own.
+     */
+    private static final int MAX_LINE_BUFFER_SIZE = 64 * 1024;
+
+    private final LineBufferEncoder encoder;
+    private final RollingFileChannel file;
+    private final long syncBytes;
+    private final long syncIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchPending = lock.newCondition();
+    private final Condition batchTaken = lock.newCondition();
+    private final AtomicLong droppedLines = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final Thread writer;
+    private ByteBuffer pendingBatch;
+    private ByteBuffer writtenBatch;
+    private boolean running = true;
+
+    FileAccessLogSink(AccessLineEncoder encoder, RollingFileChannel file, int batchSize, long syncBytes, long syncIntervalNanos) {
+        this.encoder = new LineBufferEncoder(encoder, MAX_LINE_BUFFER_SIZE);
+        this.file = file;
+        this.syncBytes = syncBytes;
+        this.syncIntervalNanos = syncIntervalNanos;
+        this.pendingBatch = ByteBuffer.allocateDirect(batchSize);
+        this.writtenBatch = ByteBuffer.allocateDirect(batchSize);
+        this.writer = new Thread(this::writeBatches, "access-log-file-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static FileAccessLogSinkBuilder builder(Path path) {
+        return new FileAccessLogSinkBuilder(path);
+    }
+
+    @Override
+    public void write(AccessLogLine line, AccessLogRecord record) {
+        append(encoder.encode(line, record));
+    }
+
+    /**
+     * Bytes written to the file, in this and rotated files.
+     */
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    /**
+     * Number of file writes, each of one or more lines.
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getSyncs() {
+        return syncs.get();
+    }
+
+    public long getRotations() {
+        return file.getRotations();
+    }
+
+    /**
+     * Lines written after the sink was closed, which are not in the file.
+     */
+    public long getDroppedLines() {
+        return droppedLines.get();
+    }
+
+    /**
+     * Stops accepting lines, writes and forces the pending ones and closes the file.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            batchPending.signal();
+            batchTaken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(ByteBuffer line) {
+        lock.lock();
+        try {
+            while (running && pendingBatch.remaining() < line.remaining()) {
+                if (pendingBatch.position() == 0) {
+                    pendingBatch = ByteBuffer.allocateDirect(line.remaining());
+                    break;
+                }
+                batchTaken.awaitUninterruptibly();
+            }
+            if (!running) {
+                droppedLines.incrementAndGet();
+                return;
+            }
+            if (pendingBatch.position() == 0) {
+                batchPending.signal();
+            }
+            pendingBatch.put(line);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeBatches() {
+        long unsyncedBytes = 0;
+        long unsyncedSince = 0;
+        while (true) {
+            long waitNanos = unsyncedBytes > 0 ? syncIntervalNanos - (System.nanoTime() - unsyncedSince) : Long.MAX_VALUE;
+            ByteBuffer batch = takeBatch(waitNanos);
+            if (batch == null) {
+                sync();
+                closeFile();
+                return;
+            }
+            if (batch.hasRemaining()) {
+                unsyncedSince = unsyncedBytes == 0 ? System.nanoTime() : unsyncedSince;
+                unsyncedBytes += writeBatch(batch);
+            }
+            if (unsyncedBytes > 0 && (unsyncedBytes >= syncBytes || System.nanoTime() - unsyncedSince >= syncIntervalNanos)) {
+                sync();
+                unsyncedBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Waits up to {@code waitNanos} for lines and swaps them with the batch written last.
+     *
+     * @return the lines to write, possibly none when the wait timed out, or {@code null} once closed and drained
+     */
+    private ByteBuffer takeBatch(long waitNanos) {
+        lock.lock();
+        try {
+            long remainingNanos = waitNanos;
+            while (running && pendingBatch.position() == 0 && remainingNanos > 0) {
+                remainingNanos = batchPending.awaitNanos(remainingNanos);
+            }
+            if (!running && pendingBatch.position() == 0) {
+                return null;
+            }
+            ByteBuffer batch = pendingBatch;
+            pendingBatch = writtenBatch.clear();
+            writtenBatch = batch;
+            batchTaken.signalAll();
+            return batch.flip();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int writeBatch(ByteBuffer batch) {
+        int length = batch.remaining();
+        try {
+            file.write(batch);
+            writtenBytes.addAndGet(length);
+            batches.incrementAndGet();
+        } catch (IOException e) {
+            log.error("Failed to write {} bytes of access log lines", length, e);
+        }
+        return length;
+    }
+
+    private void sync() {
+        try {
+            file.force();
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            log.error("Failed to force access log file to disk", e);
+        }
+    }
+
+    private void closeFile() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            log.error("Failed to close access log file", e);
+        }
+    }
+}
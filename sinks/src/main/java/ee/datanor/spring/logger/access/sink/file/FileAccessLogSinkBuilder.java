@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import ee.datanor.spring.logger.util.CachedTimestampRenderer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+
+public class FileAccessLogSinkBuilder {
+    private final Path path;
+    private int batchSize = 256 * 1024;
+    private long syncBytes = 1024 * 1024;
+    private Duration syncInterval = Duration.ofSeconds(1);
+    private long maxFileSize = Long.MAX_VALUE;
+    private Duration rotationInterval;
+    private DateTimeFormatter timeFormat = AccessLineEncoder.DEFAULT_TIME_FORMAT;
+    private Clock clock = Clock.systemDefaultZone();
+
+    FileAccessLogSinkBuilder(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Bytes, 256 KiB by default, that lines waiting for the writer may take. Callers wait when it is full.
+     */
+    public FileAccessLogSinkBuilder batchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Force the file to disk once {@code bytes} have been written since the last time, or when the oldest write not
+     * on disk is {@code interval} old. By default after 1 MiB or 1 second.
+     */
+    public FileAccessLogSinkBuilder sync(long bytes, Duration interval) {
+        this.syncBytes = bytes;
+        this.syncInterval = interval;
+        return this;
+    }
+
+    /**
+     * Leave it to the operating system when the written lines reach the disk, the file is forced only when rotated and
+     * closed.
+     */
+    public FileAccessLogSinkBuilder noSync() {
+        this.syncBytes = Long.MAX_VALUE;
+        this.syncInterval = null;
+        return this;
+    }
+
+    /**
+     * Rotate the file before it would grow past {@code bytes}.
+     */
+    public FileAccessLogSinkBuilder maxFileSize(long bytes) {
+        this.maxFileSize = bytes;
+        return this;
+    }
+
+    /**
+     * Rotate the file every {@code interval}, at multiples of the interval since the epoch.
+     */
+    public FileAccessLogSinkBuilder rotationInterval(Duration interval) {
+        if (interval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Rotation interval must be at least a millisecond: " + interval);
+        }
+        this.rotationInterval = interval;
+        return this;
+    }
+
+    /**
+     * Format of the time of the lines, {@code yyyy-MM-dd'T'HH:mm:ss.SSSXXX} by default.
+     */
+    public FileAccessLogSinkBuilder timeFormat(DateTimeFormatter timeFormat) {
+        this.timeFormat = timeFormat;
+        return this;
+    }
+
+    public FileAccessLogSinkBuilder clock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Opens the file, creating it when missing, and starts the writer thread.
+     *
+     * @throws UncheckedIOException when the file cannot be opened
+     */
+    public FileAccessLogSink build() {
+        long rotationIntervalMillis = rotationInterval != null ? rotationInterval.toMillis() : Long.MAX_VALUE;
+        long syncIntervalNanos = syncInterval != null ? syncInterval.toNanos() : Long.MAX_VALUE;
+        try {
+            RollingFileChannel file = new RollingFileChannel(path, maxFileSize, rotationIntervalMillis, clock);
+            AccessLineEncoder encoder = new AccessLineEncoder(new CachedTimestampRenderer(timeFormat, clock));
+            return new FileAccessLogSink(encoder, file, batchSize, syncBytes, syncIntervalNanos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open access log file " + path, e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes lines with an {@link AccessLineEncoder} into a heap buffer of the calling thread, for sinks that copy the
+ * line elsewhere before they return.
+ *
+ * <p>Each thread keeps its encoding buffer for its lifetime, so on virtual threads lines should reach the sink
+ * through an {@link ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher}. A buffer grown for a long line
+ * replaces it only up to {@code maxRetainedCapacity}, so a single large body does not stay allocated in every thread
+ * that wrote one.
+ */
+public final class LineBufferEncoder {
+    private static final int LINE_BUFFER_SIZE = 4096;
+
+    private final AccessLineEncoder encoder;
+    private final int maxRetainedCapacity;
+    private final ThreadLocal<ByteBuffer> lineBuffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(LINE_BUFFER_SIZE));
+
+    public LineBufferEncoder(AccessLineEncoder encoder, int maxRetainedCapacity) {
+        this.encoder = encoder;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    /**
+     * Encodes the line and returns it ready to be read. The buffer is only valid until the next call of the thread.
+     */
+    public ByteBuffer encode(AccessLogLine line, AccessLogRecord record) {
+        ByteBuffer buffer = lineBuffers.get();
+        buffer.clear();
+        ByteBuffer encoded = encoder.encode(line, record, buffer);
+        if (encoded != buffer && encoded.capacity() <= maxRetainedCapacity) {
+            lineBuffers.set(encoded);
+        }
+        return encoded.flip();
+    }
+}
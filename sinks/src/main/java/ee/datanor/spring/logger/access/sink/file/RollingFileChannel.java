@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Appends to a file and moves it aside when it would grow past the size limit or when the rotation interval has
+ * passed. Rotated files are named after the file with the time it was opened appended, e.g.
+ * {@code access.log.2023-05-02-13-00-00}, followed by a sequence number if that name is taken. Intervals are aligned
+ * to multiples of the interval since the epoch, so daily files roll over at midnight UTC. Not thread-safe, it is used
+ * by the writer thread of a sink only.
+ */
+final class RollingFileChannel implements Closeable {
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
+
+    private final Path path;
+    private final long maxFileSize;
+    private final long rotationIntervalMillis;
+    private final Clock clock;
+    private FileChannel channel;
+    private long size;
+    private long openedMillis;
+    private long nextRotationMillis;
+    private long rotations;
+
+    /**
+     * A {@code maxFileSize} or {@code rotationIntervalMillis} of {@link Long#MAX_VALUE} disables that rotation.
+     */
+    RollingFileChannel(Path path, long maxFileSize, long rotationIntervalMillis, Clock clock) throws IOException {
+        this.path = path;
+        this.maxFileSize = maxFileSize;
+        this.rotationIntervalMillis = rotationIntervalMillis;
+        this.clock = clock;
+        open();
+    }
+
+    /**
+     * Writes all lines of {@code batch}, rotating the file when needed. A batch is split across files only between
+     * lines, and a line longer than the size limit gets a file of its own.
+     */
+    void write(ByteBuffer batch) throws IOException {
+        if (size > 0 && clock.millis() >= nextRotationMillis) {
+            rotate();
+        }
+        while (size + batch.remaining() > maxFileSize) {
+            int end = size > 0 ? lastLineEnd(batch, maxFileSize - size) : firstLineEnd(batch);
+            writeUntil(batch, end);
+            if (!batch.hasRemaining()) {
+                return;
+            }
+            rotate();
+        }
+        writeUntil(batch, batch.limit());
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    long getRotations() {
+        return rotations;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void writeUntil(ByteBuffer batch, int end) throws IOException {
+        int limit = batch.limit();
+        batch.limit(end);
+        while (batch.hasRemaining()) {
+            size += channel.write(batch);
+        }
+        batch.limit(limit);
+    }
+
+    /**
+     * End of the last whole line within the first {@code maxBytes} of {@code batch}, its position if there is none.
+     */
+    private static int lastLineEnd(ByteBuffer batch, long maxBytes) {
+        int start = batch.position();
+        for (int i = (int) Math.min(batch.limit(), start + maxBytes) - 1; i >= start; i--) {
+            if (batch.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static int firstLineEnd(ByteBuffer batch) {
+        for (int i = batch.position(); i < batch.limit(); i++) {
+            if (batch.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return batch.limit();
+    }
+
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        Files.move(path, getRotatedPath());
+        rotations++;
+        open();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+        openedMillis = clock.millis();
+        nextRotationMillis = rotationIntervalMillis == Long.MAX_VALUE ? Long.MAX_VALUE
+                : Math.floorDiv(openedMillis, rotationIntervalMillis) * rotationIntervalMillis + rotationIntervalMillis;
+    }
+
+    private Path getRotatedPath() {
+        String name = path.getFileName() + "." + SUFFIX_FORMAT.format(Instant.ofEpochMilli(openedMillis).atZone(clock.getZone()));
+        Path rotated = path.resolveSibling(name);
+        for (int sequence = 1; Files.exists(rotated); sequence++) {
+            rotated = path.resolveSibling(name + "." + sequence);
+        }
+        return rotated;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.ring;
+
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.access.sink.AccessLogSink;
+import ee.datanor.spring.logger.access.sink.file.AccessLineEncoder;
+import ee.datanor.spring.logger.access.sink.file.LineBufferEncoder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent access log lines in a memory-mapped file used as a ring of fixed size slots, one line per
+ * slot, for the postmortem of a process that died. The lines are written to the mapping, not through a buffer of the
+ * process, so the operating system has them as soon as {@link #write} returns and writes them to the file even when
+ * the JVM is killed or crashes. Only a crash of the operating system may lose lines that were not
+ * {@linkplain #force() forced}.
+ *
+ * <p>Writing is lock-free: a thread claims the next sequence from the cursor in the file header and copies its line
+ * into the slot. Lines longer than a slot are truncated. {@link RingBufferReader} reads the ring, also while it is
+ * written by another process, and {@link RingBufferDump} prints it.
+ *
+ * <p>Lines are encoded by a {@link LineBufferEncoder}, which keeps the heap buffer per thread up to the slot size.
+ */
+public class RingBufferAccessLogSink implements AccessLogSink {
+    private final LineBufferEncoder encoder;
+    private final RingBufferFile file;
+    private final AtomicLong truncatedLines = new AtomicLong();
+    private final AtomicLong droppedLines = new AtomicLong();
+    private volatile boolean closed;
+
+    RingBufferAccessLogSink(AccessLineEncoder encoder, RingBufferFile file) {
+        this.encoder = new LineBufferEncoder(encoder, file.getSlotSize());
+        this.file = file;
+    }
+
+    public static RingBufferAccessLogSinkBuilder builder(Path path) {
+        return new RingBufferAccessLogSinkBuilder(path);
+    }
+
+    @Override
+    public void write(AccessLogLine line, AccessLogRecord record) {
+        if (closed) {
+            droppedLines.incrementAndGet();
+            return;
+        }
+        ByteBuffer encoded = encoder.encode(line, record);
+        if (encoded.remaining() > file.getMaxLineLength()) {
+            truncatedLines.incrementAndGet();
+        }
+        file.write(file.claim(), encoded);
+    }
+
+    /**
+     * Sequence of the next line, which is also the number of lines written to the file since it was created.
+     */
+    public long getCursor() {
+        return file.getCursor();
+    }
+
+    /**
+     * Lines longer than a slot, which are in the file without their end.
+     */
+    public long getTruncatedLines() {
+        return truncatedLines.get();
+    }
+
+    /**
+     * Lines written after the sink was closed, which are not in the file.
+     */
+    public long getDroppedLines() {
+        return droppedLines.get();
+    }
+
+    /**
+     * Writes the ring to the disk, which only matters for a crash of the operating system.
+     */
+    public void force() {
+        file.force();
+    }
+
+    /**
+     * Stops accepting lines and forces the ring to disk. The mapping is released when the sink is garbage collected.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        force();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.ring;
+
+import ee.datanor.spring.logger.access.sink.file.AccessLineEncoder;
+import ee.datanor.spring.logger.util.CachedTimestampRenderer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.format.DateTimeFormatter;
+
+@Slf4j
+public class RingBufferAccessLogSinkBuilder {
+    private final Path path;
+    private int slotSize = 1024;
+    private int slotCount = 16 * 1024;
+    private DateTimeFormatter timeFormat = AccessLineEncoder.DEFAULT_TIME_FORMAT;
+    private Clock clock = Clock.systemDefaultZone();
+
+    RingBufferAccessLogSinkBuilder(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Bytes, 1 KiB by default, of a slot. A slot holds one line of up to {@code slotSize - 12} bytes, longer lines
+     * are truncated.
+     */
+    public RingBufferAccessLogSinkBuilder slotSize(int slotSize) {
+        if (slotSize <= RingBufferFile.SLOT_HEADER_SIZE || slotSize % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Slot size must be a multiple of 8 larger than 12: " + slotSize);
+        }
+        this.slotSize = slotSize;
+        return this;
+    }
+
+    /**
+     * Number of the most recent lines kept, 16384 by default.
+     */
+    public RingBufferAccessLogSinkBuilder slotCount(int slotCount) {
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("Slot count must be positive: " + slotCount);
+        }
+        this.slotCount = slotCount;
+        return this;
+    }
+
+    /**
+     * Format of the time of the lines, {@code yyyy-MM-dd'T'HH:mm:ss.SSSXXX} by default.
+     */
+    public RingBufferAccessLogSinkBuilder timeFormat(DateTimeFormatter timeFormat) {
+        this.timeFormat = timeFormat;
+        return this;
+    }
+
+    public RingBufferAccessLogSinkBuilder clock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Maps the file, creating it when missing. A file of the same slot size and count is continued after its last
+     * line, any other file is replaced.
+     *
+     * @throws UncheckedIOException when the file cannot be mapped
+     */
+    public RingBufferAccessLogSink build() {
+        try {
+            RingBufferFile file = RingBufferFile.create(path, slotSize, slotCount);
+            if (file.isReplaced()) {
+                log.warn("Replaced access log ring buffer {} of another layout", path);
+            }
+            return new RingBufferAccessLogSink(new AccessLineEncoder(new CachedTimestampRenderer(timeFormat, clock)), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map access log ring buffer " + path, e);
+        }
+    }
+}
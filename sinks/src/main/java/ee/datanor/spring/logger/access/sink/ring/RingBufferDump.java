@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.ring;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Prints the lines of a {@link RingBufferAccessLogSink} file, oldest first, and with {@code --follow} keeps printing
+ * new lines as they are written:
+ *
+ * <pre>
+ * java -cp spring-access-logger-sinks.jar:spring-access-logger-core.jar \
+ *     ee.datanor.spring.logger.access.sink.ring.RingBufferDump access.ring [--follow]
+ * </pre>
+ */
+public final class RingBufferDump {
+    private static final String FOLLOW = "--follow";
+
+    private RingBufferDump() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0 || args.length > 2 || args.length == 2 && !FOLLOW.equals(args[1])) {
+            System.err.println("Usage: RingBufferDump <file> [" + FOLLOW + "]");
+            System.exit(2);
+        }
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+        dump(Path.of(args[0]), args.length == 2, out);
+    }
+
+    /**
+     * Prints the lines of the ring to {@code out}. Without {@code follow} lines that are not complete are skipped, as
+     * their writer may be dead.
+     */
+    public static void dump(Path path, boolean follow, PrintStream out) throws IOException, InterruptedException {
+        RingBufferReader reader = RingBufferReader.open(path);
+        long next = reader.read(reader.getOldest(), !follow, out::println);
+        out.flush();
+        if (follow) {
+            reader.follow(next, out::println);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.ring;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Layout of the ring buffer file, little endian:
+ *
+ * <pre>
+ * header  0  int   magic "ALRB"
+ *         4  int   version
+ *         8  int   slot size
+ *        12  int   slot count
+ *        16  long  cursor, the next sequence to be written
+ *        64  slots
+ * slot    0  long  sequence + 1 once the record is complete, 0 while it is written
+ *         8  int   length of the line, which is truncated to the slot
+ *        12        line
+ * </pre>
+ *
+ * <p>Record {@code n} is in slot {@code n % slotCount}. The cursor and the slot sequences are read and written
+ * atomically, so the file may be shared by processes that map it.
+ *
+ * <p>The class does not log, so that the reader runs with only the sinks and core jars on the classpath.
+ */
+final class RingBufferFile {
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_HEADER_SIZE = 12;
+    private static final int MAGIC = 0x42524c41;
+    private static final int VERSION = 1;
+    private static final int SLOT_SIZE_OFFSET = 8;
+    private static final int SLOT_COUNT_OFFSET = 12;
+    private static final int CURSOR_OFFSET = 16;
+    private static final int LENGTH_OFFSET = 8;
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final ByteBuffer buffer;
+    @Getter
+    private final int slotSize;
+    @Getter
+    private final int slotCount;
+    /**
+     * Whether {@link #create} truncated a file of another layout.
+     */
+    @Getter
+    private final boolean replaced;
+
+    private RingBufferFile(ByteBuffer buffer, int slotSize, int slotCount, boolean replaced) {
+        this.buffer = buffer;
+        this.slotSize = slotSize;
+        this.slotCount = slotCount;
+        this.replaced = replaced;
+    }
+
+    /**
+     * Maps the file for writing. An existing file of the same slot size and count is continued, so the records of a
+     * previous run stay until they are overwritten; any other file is replaced.
+     */
+    static RingBufferFile create(Path path, int slotSize, int slotCount) throws IOException {
+        long size = HEADER_SIZE + (long) slotSize * slotCount;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring buffer of " + slotCount + " slots of " + slotSize + " bytes is larger than 2 GiB");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean continued = channel.size() == size && hasLayout(channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE), slotSize, slotCount);
+            boolean replaced = !continued && channel.size() > 0;
+            if (replaced) {
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (!continued) {
+                buffer.putInt(4, VERSION);
+                buffer.putInt(SLOT_SIZE_OFFSET, slotSize);
+                buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+                buffer.putInt(0, MAGIC);
+            }
+            return new RingBufferFile(buffer, slotSize, slotCount, replaced);
+        }
+    }
+
+    /**
+     * Maps an existing file for reading.
+     */
+    static RingBufferFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not an access log ring buffer: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            int slotSize = header.getInt(SLOT_SIZE_OFFSET);
+            int slotCount = header.getInt(SLOT_COUNT_OFFSET);
+            if (!hasLayout(header, slotSize, slotCount) || slotSize <= SLOT_HEADER_SIZE || slotSize % Long.BYTES != 0 || slotCount <= 0
+                    || channel.size() != HEADER_SIZE + (long) slotSize * slotCount) {
+                throw new IOException("Not an access log ring buffer: " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            return new RingBufferFile(buffer, slotSize, slotCount, false);
+        }
+    }
+
+    private static boolean hasLayout(ByteBuffer header, int slotSize, int slotCount) {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getInt(SLOT_SIZE_OFFSET) == slotSize && header.getInt(SLOT_COUNT_OFFSET) == slotCount;
+    }
+
+    long getCursor() {
+        return (long) LONG.getAcquire(buffer, CURSOR_OFFSET);
+    }
+
+    long claim() {
+        return (long) LONG.getAndAdd(buffer, CURSOR_OFFSET, 1L);
+    }
+
+    int getMaxLineLength() {
+        return slotSize - SLOT_HEADER_SIZE;
+    }
+
+    /**
+     * Writes the remaining bytes of {@code line}, as many as fit, as record {@code sequence}.
+     */
+    void write(long sequence, ByteBuffer line) {
+        int slot = getSlot(sequence);
+        LONG.setOpaque(buffer, slot, 0L);
+        VarHandle.storeStoreFence();
+        buffer.putInt(slot + LENGTH_OFFSET, line.remaining());
+        buffer.put(slot + SLOT_HEADER_SIZE, line, line.position(), Math.min(line.remaining(), getMaxLineLength()));
+        LONG.setRelease(buffer, slot, sequence + 1);
+    }
+
+    /**
+     * Copies record {@code sequence} into {@code target}, which holds a slot.
+     *
+     * @return the length of the line, of which at most {@link #getMaxLineLength()} bytes are copied; {@code -1} when
+     *         the record is being written or was not completed, {@code -2} when it has been overwritten
+     */
+    int read(long sequence, byte[] target) {
+        int slot = getSlot(sequence);
+        long marker = (long) LONG.getAcquire(buffer, slot);
+        if (marker != sequence + 1) {
+            return marker > sequence + 1 ? -2 : -1;
+        }
+        int length = Math.max(0, buffer.getInt(slot + LENGTH_OFFSET));
+        buffer.get(slot + SLOT_HEADER_SIZE, target, 0, Math.min(length, getMaxLineLength()));
+        VarHandle.loadLoadFence();
+        return (long) LONG.getOpaque(buffer, slot) == marker ? length : -2;
+    }
+
+    void force() {
+        if (buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) buffer).force();
+        }
+    }
+
+    private int getSlot(long sequence) {
+        return HEADER_SIZE + (int) (sequence % slotCount) * slotSize;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.ring;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the lines of a {@link RingBufferAccessLogSink} file in the order they were written. The file is mapped
+ * read-only, so a sidecar process can tail the ring of a running application through the page cache, without a
+ * socket or a copy of the file.
+ */
+public final class RingBufferReader {
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    /**
+     * Time after which a record that is still not complete is skipped, as its writer has most likely died.
+     */
+    private static final long INCOMPLETE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RingBufferFile file;
+    private final byte[] slot;
+
+    private RingBufferReader(RingBufferFile file) {
+        this.file = file;
+        this.slot = new byte[file.getMaxLineLength()];
+    }
+
+    /**
+     * @throws IOException when the file cannot be read or is not a ring buffer
+     */
+    public static RingBufferReader open(Path path) throws IOException {
+        return new RingBufferReader(RingBufferFile.open(path));
+    }
+
+    /**
+     * Sequence of the next line to be written.
+     */
+    public long getCursor() {
+        return file.getCursor();
+    }
+
+    /**
+     * Sequence of the oldest line still in the ring.
+     */
+    public long getOldest() {
+        return Math.max(0, file.getCursor() - file.getSlotCount());
+    }
+
+    /**
+     * Passes the lines from sequence {@code from} on, without the line feed, to {@code consumer}. Lines that were
+     * overwritten before they could be read are skipped. A line still being written ends the read, unless
+     * {@code skipIncomplete} is set, as when reading the ring of a dead process. Truncated lines end with {@code ...}.
+     *
+     * @return the sequence to continue from
+     */
+    public long read(long from, boolean skipIncomplete, Consumer<String> consumer) {
+        long cursor = file.getCursor();
+        long sequence = Math.max(from, cursor - file.getSlotCount());
+        while (sequence < cursor) {
+            int length = file.read(sequence, slot);
+            if (length == -1 && !skipIncomplete) {
+                break;
+            }
+            if (length >= 0) {
+                consumer.accept(toLine(length));
+            }
+            sequence++;
+        }
+        return sequence;
+    }
+
+    /**
+     * Passes the lines from sequence {@code from} on to {@code consumer} as they are written, until the thread is
+     * interrupted. A line that is not completed within a second is skipped.
+     */
+    public void follow(long from, Consumer<String> consumer) throws InterruptedException {
+        long sequence = from;
+        long incompleteSince = 0;
+        while (true) {
+            long next = read(sequence, false, consumer);
+            if (next == sequence && next < file.getCursor()) {
+                if (incompleteSince == 0) {
+                    incompleteSince = System.nanoTime();
+                } else if (System.nanoTime() - incompleteSince > INCOMPLETE_TIMEOUT_NANOS) {
+                    next++;
+                    incompleteSince = 0;
+                }
+            } else {
+                incompleteSince = 0;
+            }
+            if (next == sequence) {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+            sequence = next;
+        }
+    }
+
+    private String toLine(int length) {
+        if (length > slot.length) {
+            return new String(slot, 0, slot.length, StandardCharsets.UTF_8) + "...";
+        }
+        int end = length > 0 && slot[length - 1] == '\n' ? length - 1 : length;
+        return new String(slot, 0, end, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import ee.datanor.spring.logger.util.CachedTimestampRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccessLineEncoderTest {
+    private final AccessLineEncoder encoder = new AccessLineEncoder(new CachedTimestampRenderer(AccessLineEncoder.DEFAULT_TIME_FORMAT,
+            Clock.fixed(Instant.parse("2023-05-02T10:15:30.123Z"), ZoneOffset.UTC)));
+
+    @Test
+    void shouldEncodeRequestLine() {
+        // given
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_HASH, "abcd1234");
+        record.set(AccessLogField.SERVER_NAME, "localhost");
+        record.set(AccessLogField.SERVER_PORT, "8080");
+        record.set(AccessLogField.CLIENT_IP, "127.0.0.1");
+        record.set(AccessLogField.REQUEST_LINE, "POST /users HTTP/1.1");
+        record.set(AccessLogField.REQUEST_HEADERS, "[h1:v1]");
+        record.set(AccessLogField.REQUEST_BODY_LENGTH, "14");
+        record.set(AccessLogField.REQUEST_BODY, "{\"name\":\"Jüri\"}");
+
+        // when
+        String result = encode(AccessLogLine.REQUEST, record, ByteBuffer.allocate(1024));
+
+        // then
+        assertEquals("REQ\t2023-05-02T10:15:30.123Z\tabcd1234\tlocalhost:8080\t127.0.0.1\t-\tPOST /users HTTP/1.1\t[h1:v1]\t14\t{\"name\":\"Jüri\"}\n",
+                result);
+    }
+
+    @Test
+    void shouldEncodeResponseLineWithMissingValuesEmpty() {
+        // given
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_LINE, "GET /users HTTP/1.1");
+        record.set(AccessLogField.PROCESSING_TIME, "12");
+        record.set(AccessLogField.RESPONSE_STATUS, "200");
+
+        // when
+        String result = encode(AccessLogLine.RESPONSE, record, ByteBuffer.allocate(1024));
+
+        // then
+        assertEquals("RES\t2023-05-02T10:15:30.123Z\tGET /users HTTP/1.1\t12ms\t200\t\t\t\n", result);
+    }
+
+    @Test
+    void shouldGrowBufferKeepingItsContent() {
+        // given
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.RESPONSE_BODY, "x".repeat(100));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+        buffer.put((byte) '>');
+
+        // when
+        String result = encode(AccessLogLine.RESPONSE, record, buffer);
+
+        // then
+        assertEquals(">RES\t2023-05-02T10:15:30.123Z\t\tms\t\t\t\t" + "x".repeat(100) + "\n", result);
+    }
+
+    private String encode(AccessLogLine line, AccessLogRecord record, ByteBuffer buffer) {
+        ByteBuffer encoded = encoder.encode(line, record, buffer).flip();
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
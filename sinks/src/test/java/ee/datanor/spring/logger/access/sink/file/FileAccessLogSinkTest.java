@@ -0,0 +1,184 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileAccessLogSinkTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldWriteLinesOfAllThreads() throws InterruptedException, IOException {
+        // given
+        Path path = directory.resolve("access.log");
+        FileAccessLogSink sink = FileAccessLogSink.builder(path).batchSize(512).build();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String thread = Integer.toString(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    sink.write(AccessLogLine.REQUEST, record(thread + "-" + i));
+                }
+            }));
+        }
+
+        // when
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        sink.close();
+
+        // then
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(1000, lines.size());
+        assertEquals(1000, lines.stream().map(line -> line.split("\t")[6]).distinct().count());
+        assertEquals(Files.size(path), sink.getWrittenBytes());
+        assertTrue(sink.getBatches() <= 1000);
+        assertTrue(sink.getSyncs() >= 1);
+    }
+
+    @Test
+    void shouldRotateBeforeFileExceedsMaxSize() throws IOException {
+        // given
+        Path path = directory.resolve("access.log");
+        FileAccessLogSink sink = FileAccessLogSink.builder(path).maxFileSize(200).noSync().build();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            sink.write(AccessLogLine.REQUEST, record("GET /" + i + " HTTP/1.1"));
+        }
+        sink.close();
+
+        // then
+        List<Path> files = list();
+        assertTrue(files.size() > 1);
+        assertEquals(sink.getRotations() + 1, files.size());
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 200);
+        }
+        assertEquals(10, countLines(files));
+    }
+
+    @Test
+    void shouldRotateWhenIntervalHasPassed() throws IOException, InterruptedException {
+        // given
+        Path path = directory.resolve("access.log");
+        MutableClock clock = new MutableClock(Instant.parse("2023-05-02T10:59:59.000Z"));
+        FileAccessLogSink sink = FileAccessLogSink.builder(path).rotationInterval(Duration.ofHours(1)).clock(clock).build();
+        sink.write(AccessLogLine.REQUEST, record("GET /first HTTP/1.1"));
+        awaitWritten(sink, 1);
+
+        // when
+        clock.instant = Instant.parse("2023-05-02T11:00:00.000Z");
+        sink.write(AccessLogLine.REQUEST, record("GET /second HTTP/1.1"));
+        sink.close();
+
+        // then
+        assertEquals(1, sink.getRotations());
+        assertTrue(Files.readString(directory.resolve("access.log.2023-05-02-10-59-59")).contains("GET /first"));
+        assertTrue(Files.readString(path).contains("GET /second"));
+    }
+
+    @Test
+    void shouldDropLinesWrittenAfterClose() throws IOException {
+        // given
+        Path path = directory.resolve("access.log");
+        FileAccessLogSink sink = FileAccessLogSink.builder(path).build();
+        sink.close();
+
+        // when
+        sink.write(AccessLogLine.RESPONSE, record("GET / HTTP/1.1"));
+
+        // then
+        assertEquals(1, sink.getDroppedLines());
+        assertEquals(0, Files.size(path));
+    }
+
+    private static AccessLogRecord record(String requestLine) {
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_LINE, requestLine);
+        record.set(AccessLogField.REQUEST_HASH, "abcd1234");
+        return record;
+    }
+
+    private static void awaitWritten(FileAccessLogSink sink, long batches) throws InterruptedException {
+        while (sink.getBatches() < batches) {
+            Thread.sleep(1);
+        }
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long countLines(List<Path> files) throws IOException {
+        long count = 0;
+        for (Path file : files) {
+            count += Files.readAllLines(file).size();
+        }
+        return count;
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.file;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineBufferEncoderTest {
+    private final LineBufferEncoder encoder = new LineBufferEncoder(new AccessLineEncoder(), 16 * 1024);
+
+    @Test
+    void shouldKeepBufferGrownUpToLimit() {
+        // given
+        ByteBuffer grown = encoder.encode(AccessLogLine.RESPONSE, response(2 * 1024));
+
+        // when
+        ByteBuffer result = encoder.encode(AccessLogLine.RESPONSE, response(10));
+
+        // then
+        assertSame(grown, result);
+    }
+
+    @Test
+    void shouldNotKeepBufferGrownBeyondLimit() {
+        // given
+        ByteBuffer initial = encoder.encode(AccessLogLine.RESPONSE, response(10));
+        ByteBuffer grown = encoder.encode(AccessLogLine.RESPONSE, response(64 * 1024));
+
+        // when
+        ByteBuffer result = encoder.encode(AccessLogLine.RESPONSE, response(10));
+
+        // then
+        assertTrue(grown.capacity() > 16 * 1024);
+        assertSame(initial, result);
+        assertEquals(4096, result.capacity());
+    }
+
+    private static AccessLogRecord response(int bodyLength) {
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.RESPONSE_BODY, "x".repeat(bodyLength));
+        return record;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.sink.ring;
+
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.sink.AccessLogLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RingBufferAccessLogSinkTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2023-05-02T10:15:30.123Z"), ZoneOffset.UTC);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldReadLinesInWriteOrder() throws IOException {
+        // given
+        Path path = directory.resolve("access.ring");
+        RingBufferAccessLogSink sink = RingBufferAccessLogSink.builder(path).clock(CLOCK).build();
+
+        // when
+        sink.write(AccessLogLine.REQUEST, record("GET /0"));
+        sink.write(AccessLogLine.RESPONSE, record("GET /0"));
+        List<String> lines = new ArrayList<>();
+        long next = RingBufferReader.open(path).read(0, false, lines::add);
+
+        // then
+        assertEquals(2, next);
+        assertEquals(List.of(
+                "REQ\t2023-05-02T10:15:30.123Z\tabcd1234\t:\t\t-\tGET /0\t\t\t-",
+                "RES\t2023-05-02T10:15:30.123Z\tGET /0\tms\t\t\t\t"), lines);
+    }
+
+    @Test
+    void shouldKeepMostRecentLines() throws IOException {
+        // given
+        Path path = directory.resolve("access.ring");
+        RingBufferAccessLogSink sink = RingBufferAccessLogSink.builder(path).slotCount(4).build();
+        for (int i = 0; i < 10; i++) {
+            sink.write(AccessLogLine.RESPONSE, record("GET /" + i));
+        }
+
+        // when
+        RingBufferReader reader = RingBufferReader.open(path);
+        List<String> lines = new ArrayList<>();
+        reader.read(0, false, lines::add);
+
+        // then
+        assertEquals(6, reader.getOldest());
+        assertEquals(List.of("GET /6", "GET /7", "GET /8", "GET /9"), requestLines(lines));
+    }
+
+    @Test
+    void shouldTruncateLinesLongerThanSlot() throws IOException {
+        // given
+        Path path = directory.resolve("access.ring");
+        RingBufferAccessLogSink sink = RingBufferAccessLogSink.builder(path).slotSize(64).clock(CLOCK).build();
+
+        // when
+        sink.write(AccessLogLine.RESPONSE, record("GET /" + "x".repeat(100)));
+        List<String> lines = new ArrayList<>();
+        RingBufferReader.open(path).read(0, false, lines::add);
+
+        // then
+        assertEquals(List.of("RES\t2023-05-02T10:15:30.123Z\tGET /" + "x".repeat(18) + "..."), lines);
+        assertEquals(1, sink.getTruncatedLines());
+    }
+
+    @Test
+    void shouldContinueRingOfPreviousRun() throws IOException {
+        // given
+        Path path = directory.resolve("access.ring");
+        RingBufferAccessLogSink previous = RingBufferAccessLogSink.builder(path).slotCount(8).build();
+        previous.write(AccessLogLine.RESPONSE, record("GET /0"));
+        previous.write(AccessLogLine.RESPONSE, record("GET /1"));
+        previous.close();
+
+        // when
+        RingBufferAccessLogSink sink = RingBufferAccessLogSink.builder(path).slotCount(8).build();
+        sink.write(AccessLogLine.RESPONSE, record("GET /2"));
+        previous.write(AccessLogLine.RESPONSE, record("GET /dropped"));
+        List<String> lines = new ArrayList<>();
+        RingBufferReader.open(path).read(0, false, lines::add);
+
+        // then
+        assertEquals(3, sink.getCursor());
+        assertEquals(List.of("GET /0", "GET /1", "GET /2"), requestLines(lines));
+        assertEquals(1, previous.getDroppedLines());
+    }
+
+    @Test
+    void shouldReplaceRingOfAnotherLayout() throws IOException {
+        // given
+        Path path = directory.resolve("access.ring");
+        RingBufferAccessLogSink previous = RingBufferAccessLogSink.builder(path).slotCount(8).build();
+        previous.write(AccessLogLine.RESPONSE, record("GET /0"));
+        previous.close();
+
+        // when
+        RingBufferAccessLogSink sink = RingBufferAccessLogSink.builder(path).slotCount(16).build();
+        sink.write(AccessLogLine.RESPONSE, record("GET /1"));
+        List<String> lines = new ArrayList<>();
+        RingBufferReader.open(path).read(0, false, lines::add);
+
+        // then
+        assertEquals(1, sink.getCursor());
+        assertEquals(List.of("GET /1"), requestLines(lines));
+    }
+
+    @Test
+    void shouldSkipIncompleteLineOnlyWhenAsked() throws IOException {
+        // given
+        Path path = directory.resolve("access.ring");
+        RingBufferAccessLogSink sink = RingBufferAccessLogSink.builder(path).slotSize(256).build();
+        for (int i = 0; i < 3; i++) {
+            sink.write(AccessLogLine.RESPONSE, record("GET /" + i));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(RingBufferFile.HEADER_SIZE + 256, 0L);
+        }
+        RingBufferReader reader = RingBufferReader.open(path);
+        List<String> waiting = new ArrayList<>();
+        List<String> skipping = new ArrayList<>();
+
+        // when
+        long waitingNext = reader.read(0, false, waiting::add);
+        long skippingNext = reader.read(0, true, skipping::add);
+
+        // then
+        assertEquals(1, waitingNext);
+        assertEquals(List.of("GET /0"), requestLines(waiting));
+        assertEquals(3, skippingNext);
+        assertEquals(List.of("GET /0", "GET /2"), requestLines(skipping));
+    }
+
+    @Test
+    void shouldDumpLines() throws IOException, InterruptedException {
+        // given
+        Path path = directory.resolve("access.ring");
+        RingBufferAccessLogSink sink = RingBufferAccessLogSink.builder(path).clock(CLOCK).build();
+        sink.write(AccessLogLine.RESPONSE, record("GET /0"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        RingBufferDump.dump(path, false, new PrintStream(out, false, StandardCharsets.UTF_8));
+
+        // then
+        assertEquals("RES\t2023-05-02T10:15:30.123Z\tGET /0\tms\t\t\t\t" + System.lineSeparator(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> requestLines(List<String> lines) {
+        return lines.stream().map(line -> line.split("\t")[2]).collect(Collectors.toList());
+    }
+
+    private static AccessLogRecord record(String requestLine) {
+        AccessLogRecord record = new AccessLogRecord();
+        record.set(AccessLogField.REQUEST_LINE, requestLine);
+        record.set(AccessLogField.REQUEST_HASH, "abcd1234");
+        return record;
+    }
+}
@@ -1,60 +0,0 @@
-/*
- * Copyright 2023 Datanor OÜ.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package ee.datanor.spring.logger.access;
-
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.filter.ShallowEtagHeaderFilter;
-import org.springframework.web.util.ContentCachingResponseWrapper;
-
-import jakarta.servlet.DispatcherType;
-import jakarta.servlet.ServletOutputStream;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.io.PrintWriter;
-
-@Slf4j
-public class AsyncAwareContentCachingResponseWrapper extends ContentCachingResponseWrapper {
-    private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
-
-    private final HttpServletRequest request;
-
-    AsyncAwareContentCachingResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
-        super(response);
-        this.request = request;
-    }
-
-    @Override
-    public ServletOutputStream getOutputStream() throws IOException {
-        boolean isAsync = isAsyncDispatch(this.request) || isContentCachingDisabled(this.request);
-        return isAsync ? getResponse().getOutputStream() : super.getOutputStream();
-    }
-
-    @Override
-    public PrintWriter getWriter() throws IOException {
-        boolean isAsync = isAsyncDispatch(this.request) || isContentCachingDisabled(this.request);
-        return isAsync ? getResponse().getWriter() : super.getWriter();
-    }
-
-    private static boolean isContentCachingDisabled(HttpServletRequest request) {
-        return request.getAttribute(STREAMING_ATTRIBUTE) != null;
-    }
-
-    protected boolean isAsyncDispatch(HttpServletRequest request) {
-        return DispatcherType.ASYNC.equals(request.getDispatcherType());
-    }
-}
@@ -1,63 +0,0 @@
-/*
- * Copyright 2023 Datanor OÜ.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *    http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package ee.datanor.spring.logger.util;
-
-import org.junit.jupiter.api.Test;
-
-import static org.junit.jupiter.api.Assertions.assertEquals;
-
-class BodyMaskerTest {
-
-    @Test
-    void shouldMaskSensitiveValue() {
-        // given
-        String content = "{\"key\":\"value\"}";
-        String pattern = "\"key\"\\s*:\\s*\"([^\"]+)";
-
-        // when
-        String result = new BodyMasker(pattern).mask(content);
-
-        // then
-        assertEquals("{\"key\":\"***\"}", result);
-    }
-
-    @Test
-    void shouldMaskMutipleSensitiveValues() {
-        // given
-        String content = "[{\"key\":\"value\"},{\"key\":\"value\"}]";
-        String pattern = "\"key\"\\s*:\\s*\"([^\"]+)";
-
-        // when
-        String result = new BodyMasker(pattern).mask(content);
-
-        // then
-        assertEquals("[{\"key\":\"***\"},{\"key\":\"***\"}]", result);
-    }
-
-    @Test
-    void shouldNotMaskNonSensitiveValue() {
-        // given
-        String content = "{\"key\":\"value\"}";
-        String pattern = "\"otherKey\"\\s*:\\s*\"([^\"]+)";
-
-        // when
-        String result = new BodyMasker(pattern).mask(content);
-
-        // then
-        assertEquals("{\"key\":\"value\"}", result);
-    }
-}
\ No newline at end of file
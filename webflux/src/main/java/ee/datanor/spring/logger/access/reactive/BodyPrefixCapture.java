@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.reactive;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * First bytes of a body passing through the filter, copied out of each buffer without moving its read position, and
+ * the number of bytes that passed. The buffers of one body are signalled one at a time, and the capture is read only
+ * after the exchange has completed.
+ */
+final class BodyPrefixCapture {
+    private final int limit;
+    private byte[] content;
+    private int length;
+    private long bytesSeen;
+    private boolean skipContent;
+
+    BodyPrefixCapture(int limit) {
+        this.limit = limit;
+    }
+
+    void capture(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        bytesSeen += readable;
+        int count = skipContent ? 0 : Math.min(readable, limit - length);
+        if (count <= 0) {
+            return;
+        }
+        if (content == null) {
+            content = new byte[limit];
+        }
+        int position = buffer.readPosition();
+        for (int i = 0; i < count; i++) {
+            content[length + i] = buffer.getByte(position + i);
+        }
+        length += count;
+    }
+
+    /**
+     * Keep counting bytes but stop copying them, for a body that is not logged.
+     */
+    void skipContent() {
+        this.skipContent = true;
+    }
+
+    boolean hasContent() {
+        return !skipContent && limit > 0;
+    }
+
+    byte[] getContent() {
+        return content != null ? content : new byte[0];
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    long getBytesSeen() {
+        return bytesSeen;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.reactive;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Predicate;
+
+/**
+ * Response whose body is copied into a {@link BodyPrefixCapture} on its way to the client. Only the bytes are
+ * counted when the content type is not one whose body is logged, which is known by the time the body is written.
+ */
+final class CapturingServerHttpResponse extends ServerHttpResponseDecorator {
+    private final BodyPrefixCapture capture;
+    private final Predicate<MediaType> bodyLogged;
+
+    CapturingServerHttpResponse(ServerHttpResponse delegate, BodyPrefixCapture capture, Predicate<MediaType> bodyLogged) {
+        super(delegate);
+        this.capture = capture;
+        this.bodyLogged = bodyLogged;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        checkContentType();
+        return super.writeWith(Flux.from(body).doOnNext(capture::capture));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        checkContentType();
+        return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(capture::capture)));
+    }
+
+    private void checkContentType() {
+        if (!bodyLogged.test(getHeaders().getContentType())) {
+            capture.skipContent();
+        }
+    }
+}
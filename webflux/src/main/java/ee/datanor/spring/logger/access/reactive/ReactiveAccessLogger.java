@@ -0,0 +1,235 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.reactive;
+
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.id.RequestIdGenerator;
+import ee.datanor.spring.logger.access.processor.BodyRenderer;
+import ee.datanor.spring.logger.access.processor.DeferredLogValue;
+import ee.datanor.spring.logger.access.processor.LogProcessor;
+import ee.datanor.spring.logger.access.processor.RequestLineRenderer;
+import ee.datanor.spring.logger.access.record.AccessLogField;
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.access.route.RouteMetricsRecorder;
+import ee.datanor.spring.logger.util.CachedTimestampRenderer;
+import ee.datanor.spring.logger.util.EscapeUtil;
+import ee.datanor.spring.logger.util.HeaderSelector;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access logger of Spring WebFlux applications, writing the same {@code access-request-log} and
+ * {@code access-response-log} lines as {@code AccessLogger}, masked by the same renderers as the servlet processors.
+ *
+ * <p>Only headers and counters are read on the thread completing the exchange, usually a Netty event loop. Bodies
+ * are decoded and masked, and the lines written, by the workers of the bounded {@link AsyncAccessLogDispatcher} of the
+ * logger.
+ */
+public class ReactiveAccessLogger {
+    /**
+     * Exchange attribute holding the pattern that matched a request handled by a WebFlux handler mapping.
+     */
+    public static final String BEST_MATCHING_PATTERN_ATTRIBUTE = "org.springframework.web.reactive.HandlerMapping.bestMatchingPattern";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").withLocale(Locale.getDefault());
+
+    private final Logger requestLogger = LoggerFactory.getLogger("access-request-log");
+    private final Logger responseLogger = LoggerFactory.getLogger("access-response-log");
+    private final CachedTimestampRenderer timestampRenderer = new CachedTimestampRenderer(DATE_FORMAT);
+    private final RequestIdGenerator requestIdGenerator;
+    private final RequestLineRenderer requestLineRenderer;
+    private final HeaderSelector requestHeaderSelector;
+    private final HeaderSelector responseHeaderSelector;
+    private final BodyRenderer requestBodyRenderer;
+    private final BodyRenderer responseBodyRenderer;
+    private final int requestCaptureLimit;
+    private final int responseCaptureLimit;
+    private final Set<String> loggedResponseBodyMediaTypes;
+    private final RouteKeyResolver routeKeyResolver;
+    @Getter
+    private final RouteMetricsRecorder metrics;
+    @Getter
+    private final AsyncAccessLogDispatcher asyncDispatcher;
+
+    ReactiveAccessLogger(RequestIdGenerator requestIdGenerator, RequestLineRenderer requestLineRenderer, HeaderSelector requestHeaderSelector,
+                         HeaderSelector responseHeaderSelector, BodyRenderer requestBodyRenderer, int requestCaptureLimit,
+                         BodyRenderer responseBodyRenderer, int responseCaptureLimit, Set<String> loggedResponseBodyMediaTypes,
+                         RouteKeyResolver routeKeyResolver, RouteMetricsRecorder metrics, AsyncAccessLogDispatcher asyncDispatcher) {
+        this.requestIdGenerator = requestIdGenerator;
+        this.requestLineRenderer = requestLineRenderer;
+        this.requestHeaderSelector = requestHeaderSelector;
+        this.responseHeaderSelector = responseHeaderSelector;
+        this.requestBodyRenderer = requestBodyRenderer;
+        this.requestCaptureLimit = requestCaptureLimit;
+        this.responseBodyRenderer = responseBodyRenderer;
+        this.responseCaptureLimit = responseCaptureLimit;
+        this.loggedResponseBodyMediaTypes = loggedResponseBodyMediaTypes;
+        this.routeKeyResolver = routeKeyResolver;
+        this.metrics = metrics;
+        this.asyncDispatcher = asyncDispatcher;
+    }
+
+    public static ReactiveAccessLoggerBuilder builder() {
+        return new ReactiveAccessLoggerBuilder();
+    }
+
+    /**
+     * Schedules the request line and returns the record the response line is built on.
+     */
+    AccessLogRecord logRequest(ServerHttpRequest request) {
+        AccessLogRecord record = new AccessLogRecord();
+        set(record, AccessLogField.REQUEST_TIME, timestampRenderer.render());
+        set(record, AccessLogField.SERVER_NAME, request.getURI().getHost());
+        set(record, AccessLogField.SERVER_PORT, request.getURI().getPort() >= 0 ? request.getURI().getPort() : null);
+        set(record, AccessLogField.CLIENT_IP, getClientIp(request));
+        set(record, AccessLogField.REQUEST_HASH, requestIdGenerator.generate());
+        String requestPath = getRequestPath(request);
+        set(record, AccessLogField.REQUEST_LINE, requestLineRenderer.render(request.getMethod().name(), requestPath, request.getPath().value(),
+                request.getURI().getRawQuery(), null));
+        set(record, AccessLogField.REQUEST_HEADERS, select(requestHeaderSelector, request.getHeaders()));
+        if (requestBodyRenderer != null) {
+            long contentLength = request.getHeaders().getContentLength();
+            set(record, AccessLogField.REQUEST_BODY_LENGTH, contentLength >= 0 ? contentLength : null);
+        }
+        set(record, AccessLogField.ROUTE, routeKeyResolver.resolve(requestPath));
+        asyncDispatcher.dispatch(requestLogger, "Incoming Request {}", record.copy(), List.of());
+        return record;
+    }
+
+    /**
+     * Adds the response to {@code record} and queues the response line, with the captured bodies masked by the
+     * dispatcher workers.
+     */
+    void logResponse(ServerWebExchange exchange, AccessLogRecord record, BodyPrefixCapture requestBody, BodyPrefixCapture responseBody,
+                     long startNanos, boolean failed) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        long durationNanos = System.nanoTime() - startNanos;
+        int status = getStatus(response, failed);
+        String requestPath = getRequestPath(request);
+        String route = getRoute(exchange, requestPath);
+        if (metrics != null) {
+            metrics.record(route, request.getMethod().name(), status, TimeUnit.NANOSECONDS.toMicros(durationNanos),
+                    getRequestBytes(request, requestBody), responseBody.getBytesSeen());
+        }
+        set(record, AccessLogField.ROUTE, route);
+        set(record, AccessLogField.RESPONSE_STATUS, status);
+        set(record, AccessLogField.RESPONSE_HEADERS, select(responseHeaderSelector, response.getHeaders()));
+        set(record, AccessLogField.PROCESSING_TIME, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        List<DeferredLogValue> deferredValues = new ArrayList<>(2);
+        if (requestBodyRenderer != null) {
+            addBody(record, deferredValues, AccessLogField.REQUEST_BODY, requestBodyRenderer, requestPath, requestBody, getCharset(request.getHeaders()));
+        }
+        if (responseBodyRenderer != null) {
+            set(record, AccessLogField.RESPONSE_BODY_LENGTH, responseBody.getBytesSeen());
+            addBody(record, deferredValues, AccessLogField.RESPONSE_BODY, responseBodyRenderer, requestPath, responseBody,
+                    getCharset(response.getHeaders()));
+        }
+        asyncDispatcher.dispatch(responseLogger, "Outgoing response {}", record, deferredValues);
+    }
+
+    BodyPrefixCapture newRequestCapture(ServerHttpRequest request) {
+        BodyPrefixCapture capture = new BodyPrefixCapture(requestCaptureLimit);
+        MediaType contentType = request.getHeaders().getContentType();
+        if (contentType != null && "multipart".equalsIgnoreCase(contentType.getType())) {
+            capture.skipContent();
+        }
+        return capture;
+    }
+
+    BodyPrefixCapture newResponseCapture() {
+        return new BodyPrefixCapture(responseCaptureLimit);
+    }
+
+    boolean isResponseBodyLogged(MediaType contentType) {
+        return responseBodyRenderer != null && contentType != null
+                && loggedResponseBodyMediaTypes.stream().anyMatch(subtype -> subtype.equalsIgnoreCase(contentType.getSubtype()));
+    }
+
+    private static void addBody(AccessLogRecord record, List<DeferredLogValue> deferredValues, AccessLogField field, BodyRenderer renderer,
+                                String requestPath, BodyPrefixCapture capture, Charset charset) {
+        if (capture.hasContent() && capture.getLength() > 0) {
+            deferredValues.add(DeferredLogValue.ofBytes(field, renderer, requestPath, capture.getContent(), capture.getLength(), charset, null));
+        } else {
+            set(record, field, null);
+        }
+    }
+
+    private String getRoute(ServerWebExchange exchange, String requestPath) {
+        Object pattern = exchange.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : routeKeyResolver.resolve(requestPath);
+    }
+
+    private static String select(HeaderSelector selector, HttpHeaders headers) {
+        return selector.select(name -> {
+            List<String> values = headers.get(name);
+            return values != null ? values.iterator() : null;
+        });
+    }
+
+    private static int getStatus(ServerHttpResponse response, boolean failed) {
+        HttpStatusCode statusCode = response.getStatusCode();
+        if (statusCode != null) {
+            return statusCode.value();
+        }
+        return failed ? 500 : 200;
+    }
+
+    private static long getRequestBytes(ServerHttpRequest request, BodyPrefixCapture requestBody) {
+        return requestBody.getBytesSeen() > 0 ? requestBody.getBytesSeen() : Math.max(0, request.getHeaders().getContentLength());
+    }
+
+    private static String getRequestPath(ServerHttpRequest request) {
+        return request.getPath().pathWithinApplication().value();
+    }
+
+    private static String getClientIp(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    private static Charset getCharset(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+
+    private static void set(AccessLogRecord record, AccessLogField field, Object value) {
+        String text = value != null ? value.toString() : null;
+        record.set(field, EscapeUtil.escape(StringUtils.firstNonBlank(text, LogProcessor.EMPTY_REPLACEMENT)));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.reactive;
+
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.async.OverflowPolicy;
+import ee.datanor.spring.logger.access.id.RandomRequestIdGenerator;
+import ee.datanor.spring.logger.access.id.RequestIdGenerator;
+import ee.datanor.spring.logger.access.processor.BodyRenderer;
+import ee.datanor.spring.logger.access.processor.LogProcessor;
+import ee.datanor.spring.logger.access.processor.RequestLineRenderer;
+import ee.datanor.spring.logger.access.route.RouteKeyResolver;
+import ee.datanor.spring.logger.access.route.RouteMetricsRecorder;
+import ee.datanor.spring.logger.access.route.SegmentRule;
+import ee.datanor.spring.logger.util.BodyMasker;
+import ee.datanor.spring.logger.util.HeaderSelector;
+import ee.datanor.spring.logger.util.JsonFieldMasker;
+import ee.datanor.spring.logger.util.ParameterMasker;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builder of {@link ReactiveAccessLogger}, with the options of {@code AccessLoggerBuilder}
+ * that apply to WebFlux.
+ */
+public class ReactiveAccessLoggerBuilder {
+    private static final int DEFAULT_HASH_LENGTH = 8;
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int DEFAULT_MASKING_LOOKAHEAD = 256;
+
+    private final Map<String, ParameterMasker> parameterMaskers = new LinkedHashMap<>();
+    private final Map<String, BodyMasker> bodyMaskers = new LinkedHashMap<>();
+    private final Map<String, Set<String>> jsonFieldKeys = new LinkedHashMap<>();
+    private int maxLoggedRequestBodyLength = 1024;
+    private int maxLoggedResponseBodyLength = 1024;
+    private boolean logRequestBody = false;
+    private boolean logResponseBody = false;
+    private int bodyMaskingLookahead = DEFAULT_MASKING_LOOKAHEAD;
+    private RequestIdGenerator requestIdGenerator = new RandomRequestIdGenerator(DEFAULT_HASH_LENGTH);
+    private RouteMetricsRecorder metrics;
+    private RouteKeyResolver routeKeyResolver = new RouteKeyResolver();
+    private Set<String> includedRequestHeaders = new LinkedHashSet<>();
+    private Set<String> includedResponseHeaders = new LinkedHashSet<>();
+    private Set<String> loggedResponseBodyMediaTypes = new HashSet<>(Set.of("json", "xml"));
+    private AsyncAccessLogDispatcher asyncDispatcher;
+
+    ReactiveAccessLoggerBuilder() {
+    }
+
+    public ReactiveAccessLoggerBuilder sensitiveUriParameter(String uriPattern, String parameterName) {
+        this.parameterMaskers.put(uriPattern, new ParameterMasker(parameterName));
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder sensitiveBodyPattern(String uriPattern, String regexp) {
+        this.bodyMaskers.put(uriPattern, new BodyMasker(regexp));
+        return this;
+    }
+
+    /**
+     * Mask the values of the given JSON fields in request and response bodies on paths matching {@code uriPattern}.
+     */
+    public ReactiveAccessLoggerBuilder sensitiveJsonFields(String uriPattern, String... keys) {
+        this.jsonFieldKeys.computeIfAbsent(uriPattern, p -> new LinkedHashSet<>()).addAll(List.of(keys));
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder maxRequestBodyLength(int maxLoggedRequestBodyLength) {
+        this.maxLoggedRequestBodyLength = maxLoggedRequestBodyLength;
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder maxResponseBodyLength(int maxLoggedResponseBodyLength) {
+        this.maxLoggedResponseBodyLength = maxLoggedResponseBodyLength;
+        return this;
+    }
+
+    /**
+     * Log the first bytes of the request body on the response line. Multipart bodies are not logged.
+     */
+    public ReactiveAccessLoggerBuilder logRequestBody() {
+        this.logRequestBody = true;
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder logResponseBody() {
+        this.logResponseBody = true;
+        return this;
+    }
+
+    /**
+     * Decode and mask only the logged part of request and response bodies plus {@code lookaheadBytes}, 256 by default.
+     * Bodies are not joined, so masking is always bounded and {@link LogProcessor#MASK_WHOLE_BODY} is rejected.
+     */
+    public ReactiveAccessLoggerBuilder boundedBodyMasking(int lookaheadBytes) {
+        if (lookaheadBytes < 0) {
+            throw new IllegalArgumentException("Masking lookahead must not be negative, whole bodies are not masked: " + lookaheadBytes);
+        }
+        this.bodyMaskingLookahead = lookaheadBytes;
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder requestIdGenerator(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder metrics(RouteMetricsRecorder metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder routeSegmentRules(SegmentRule... segmentRules) {
+        this.routeKeyResolver = new RouteKeyResolver(List.of(segmentRules), RouteKeyResolver.DEFAULT_MAX_ROUTES,
+                RouteKeyResolver.DEFAULT_MAX_CACHED_PATHS);
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder routeKeyResolver(RouteKeyResolver routeKeyResolver) {
+        this.routeKeyResolver = routeKeyResolver;
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder loggedRequestHeaders(String... headers) {
+        this.includedRequestHeaders.addAll(List.of(headers));
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder loggedResponseHeaders(String... headers) {
+        this.includedResponseHeaders.addAll(List.of(headers));
+        return this;
+    }
+
+    public ReactiveAccessLoggerBuilder loggedResponseBodyMediaTypes(Set<String> loggedResponseBodyMediaTypes) {
+        this.loggedResponseBodyMediaTypes = loggedResponseBodyMediaTypes;
+        return this;
+    }
+
+    /**
+     * Dispatcher that masks bodies and writes the lines off the event loop. By default one worker thread with a queue
+     * of 8192 lines that drops bodies first, as the {@link OverflowPolicy#BLOCK} policy would stall the event loop.
+     */
+    public ReactiveAccessLoggerBuilder asyncDispatcher(AsyncAccessLogDispatcher asyncDispatcher) {
+        this.asyncDispatcher = asyncDispatcher;
+        return this;
+    }
+
+    public ReactiveAccessLogger build() {
+        Map<String, JsonFieldMasker> jsonFieldMaskers = new LinkedHashMap<>();
+        jsonFieldKeys.forEach((uriPattern, keys) -> jsonFieldMaskers.put(uriPattern, new JsonFieldMasker(keys)));
+        BodyRenderer requestBodyRenderer = logRequestBody
+                ? new BodyRenderer(parameterMaskers, maxLoggedRequestBodyLength, bodyMaskers, jsonFieldMaskers, bodyMaskingLookahead)
+                : null;
+        BodyRenderer responseBodyRenderer = logResponseBody
+                ? new BodyRenderer(Map.of(), maxLoggedResponseBodyLength, bodyMaskers, jsonFieldMaskers, bodyMaskingLookahead)
+                : null;
+        return new ReactiveAccessLogger(
+                requestIdGenerator,
+                new RequestLineRenderer(parameterMaskers),
+                new HeaderSelector(includedRequestHeaders),
+                new HeaderSelector(includedResponseHeaders),
+                requestBodyRenderer,
+                logRequestBody ? getCaptureLimit(maxLoggedRequestBodyLength) : 0,
+                responseBodyRenderer,
+                logResponseBody ? getCaptureLimit(maxLoggedResponseBodyLength) : 0,
+                loggedResponseBodyMediaTypes,
+                routeKeyResolver,
+                metrics,
+                asyncDispatcher != null ? asyncDispatcher : new AsyncAccessLogDispatcher(DEFAULT_QUEUE_CAPACITY, 1, OverflowPolicy.DROP_BODIES_FIRST)
+        );
+    }
+
+    private int getCaptureLimit(int maxLoggedBodyLength) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) maxLoggedBodyLength + bodyMaskingLookahead);
+    }
+}
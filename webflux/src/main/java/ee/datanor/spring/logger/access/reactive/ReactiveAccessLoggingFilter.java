@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.reactive;
+
+import ee.datanor.spring.logger.access.record.AccessLogRecord;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * WebFlux counterpart of {@code AccessLoggingFilter}. Request and response bodies
+ * are never joined: the first bytes of each are copied from the buffers as they pass through, and the request body is
+ * logged on the response line, as with {@code captureRequestBodyOnRead}.
+ */
+public class ReactiveAccessLoggingFilter implements WebFilter {
+    private final ReactiveAccessLogger accessLogger;
+
+    public ReactiveAccessLoggingFilter(ReactiveAccessLogger accessLogger) {
+        this.accessLogger = accessLogger;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long startNanos = System.nanoTime();
+        AccessLogRecord record = accessLogger.logRequest(exchange.getRequest());
+        BodyPrefixCapture requestBody = accessLogger.newRequestCapture(exchange.getRequest());
+        BodyPrefixCapture responseBody = accessLogger.newResponseCapture();
+        ServerWebExchange capturingExchange = exchange.mutate()
+                .request(new CapturingServerHttpRequest(exchange.getRequest(), requestBody))
+                .response(new CapturingServerHttpResponse(exchange.getResponse(), responseBody, accessLogger::isResponseBodyLogged))
+                .build();
+        return chain.filter(capturingExchange)
+                .doFinally(signal -> accessLogger.logResponse(capturingExchange, record, requestBody, responseBody, startNanos,
+                        signal == SignalType.ON_ERROR));
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2023 Datanor OÜ.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ee.datanor.spring.logger.access.reactive;
+
+import ee.datanor.spring.logger.access.async.AsyncAccessLogDispatcher;
+import ee.datanor.spring.logger.access.async.OverflowPolicy;
+import ee.datanor.spring.logger.access.metrics.AccessLogMetrics;
+import ee.datanor.spring.logger.access.processor.LogProcessor;
+import ee.datanor.spring.logger.access.metrics.RouteMetricsSnapshot;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReactiveAccessLoggingFilterTest {
+    private static final List<String> LOGGER_NAMES = List.of("access-request-log", "access-response-log");
+
+    private final CapturingAppender appender = new CapturingAppender();
+    private final AsyncAccessLogDispatcher dispatcher = new AsyncAccessLogDispatcher(16, 1, OverflowPolicy.BLOCK);
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
+        Configuration config = ctx.getConfiguration();
+        for (String name : LOGGER_NAMES) {
+            LoggerConfig loggerConfig = new LoggerConfig(name, Level.INFO, false);
+            loggerConfig.addAppender(appender, null, null);
+            config.addLogger(name, loggerConfig);
+        }
+        ctx.updateLoggers();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.close();
+        LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
+        LOGGER_NAMES.forEach(ctx.getConfiguration()::removeLogger);
+        ctx.updateLoggers();
+        appender.stop();
+    }
+
+    @Test
+    void shouldLogMaskedRequestAndResponse() {
+        // given
+        ReactiveAccessLogger accessLogger = ReactiveAccessLogger.builder()
+                .sensitiveUriParameter("/**", "password")
+                .sensitiveJsonFields("/**", "token")
+                .logRequestBody()
+                .logResponseBody()
+                .asyncDispatcher(dispatcher)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/users/123?password=secret&x=1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"name\":\"a\"}"));
+
+        // when
+        StepVerifier.create(new ReactiveAccessLoggingFilter(accessLogger).filter(exchange, echo("{\"token\":\"abc\"}", MediaType.APPLICATION_JSON)))
+                .verifyComplete();
+        dispatcher.close();
+
+        // then
+        assertEquals(2, appender.events.size());
+        Map<String, String> request = appender.events.get(0);
+        assertEquals("POST /users/123?password=***&x=1", request.get("AL_REQUEST_LINE"));
+        assertEquals("/users/{id}", request.get("AL_ROUTE"));
+        Map<String, String> response = appender.events.get(1);
+        assertEquals("200", response.get("AL_RESPONSE_STATUS"));
+        assertEquals("{\"name\":\"a\"}", response.get("AL_REQUEST_BODY"));
+        assertEquals("{\"token\":\"***\"}", response.get("AL_RESPONSE_BODY"));
+    }
+
+    @Test
+    void shouldCaptureOnlyBodyPrefixAndPassWholeBody() {
+        // given
+        ReactiveAccessLogger accessLogger = ReactiveAccessLogger.builder()
+                .logResponseBody()
+                .maxResponseBodyLength(4)
+                .asyncDispatcher(dispatcher)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/items"));
+        WebFilterChain chain = ex -> {
+            ex.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return ex.getResponse().writeWith(Flux.just("[1,", "2,", "3]").map(ReactiveAccessLoggingFilterTest::buffer));
+        };
+
+        // when
+        StepVerifier.create(new ReactiveAccessLoggingFilter(accessLogger).filter(exchange, chain)).verifyComplete();
+        dispatcher.close();
+
+        // then
+        assertEquals("[1,2,3]", exchange.getResponse().getBodyAsString().block());
+        Map<String, String> response = appender.events.get(1);
+        assertEquals("[1,2", response.get("AL_RESPONSE_BODY"));
+        assertEquals("7", response.get("AL_RESPONSE_BODY_LENGTH"));
+    }
+
+    @Test
+    void shouldMaskValueCrossingTheCutWithDefaultLookahead() {
+        // given
+        ReactiveAccessLogger accessLogger = ReactiveAccessLogger.builder()
+                .sensitiveBodyPattern("/**", "\"card\":\"(\\d{16})\"")
+                .logResponseBody()
+                .maxResponseBodyLength(22)
+                .asyncDispatcher(dispatcher)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/cards/1"));
+
+        // when
+        StepVerifier.create(new ReactiveAccessLoggingFilter(accessLogger).filter(exchange,
+                        echo("{\"card\":\"1234567812345678\",\"x\":1}", MediaType.APPLICATION_JSON)))
+                .verifyComplete();
+        dispatcher.close();
+
+        // then
+        assertEquals("{\"card\":\"***\",\"x\":1}", appender.events.get(1).get("AL_RESPONSE_BODY"));
+    }
+
+    @Test
+    void shouldRejectWholeBodyMasking() {
+        // given
+        ReactiveAccessLoggerBuilder builder = ReactiveAccessLogger.builder();
+
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> builder.boundedBodyMasking(LogProcessor.MASK_WHOLE_BODY));
+
+        // then
+        assertEquals("Masking lookahead must not be negative, whole bodies are not masked: -1", exception.getMessage());
+    }
+
+    @Test
+    void shouldNotLogBodyOfOtherMediaTypes() {
+        // given
+        AccessLogMetrics metrics = new AccessLogMetrics();
+        ReactiveAccessLogger accessLogger = ReactiveAccessLogger.builder()
+                .logResponseBody()
+                .metrics(metrics)
+                .asyncDispatcher(dispatcher)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/text"));
+
+        // when
+        StepVerifier.create(new ReactiveAccessLoggingFilter(accessLogger).filter(exchange, echo("plain", MediaType.TEXT_PLAIN)))
+                .verifyComplete();
+        dispatcher.close();
+
+        // then
+        assertEquals("-", appender.events.get(1).get("AL_RESPONSE_BODY"));
+        RouteMetricsSnapshot snapshot = metrics.snapshot().get(0);
+        assertEquals("/text", snapshot.getKey().getRoute());
+        assertEquals(5, snapshot.getResponseBytes().getSum());
+    }
+
+    @Test
+    void shouldWriteLinesOnDispatcherWorker() {
+        // given
+        ReactiveAccessLogger accessLogger = ReactiveAccessLogger.builder()
+                .asyncDispatcher(dispatcher)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/ping"));
+
+        // when
+        StepVerifier.create(new ReactiveAccessLoggingFilter(accessLogger).filter(exchange, echo("pong", MediaType.TEXT_PLAIN)))
+                .verifyComplete();
+        dispatcher.close();
+
+        // then
+        assertEquals(List.of("access-log-worker-0", "access-log-worker-0"), appender.threadNames);
+    }
+
+    @Test
+    void shouldQueueLinesOnBoundedDispatcherByDefault() {
+        // when
+        ReactiveAccessLogger accessLogger = ReactiveAccessLogger.builder().build();
+
+        // then
+        assertEquals(8192, accessLogger.getAsyncDispatcher().getQueueCapacity());
+        accessLogger.getAsyncDispatcher().close();
+    }
+
+    @Test
+    void shouldLogUnknownLengthOfChunkedRequestBodyAsEmpty() {
+        // given
+        ReactiveAccessLogger accessLogger = ReactiveAccessLogger.builder()
+                .logRequestBody()
+                .asyncDispatcher(dispatcher)
+                .build();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/upload")
+                .header("Transfer-Encoding", "chunked")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.just(buffer("{\"a\":"), buffer("1}"))));
+
+        // when
+        StepVerifier.create(new ReactiveAccessLoggingFilter(accessLogger).filter(exchange, echo("ok", MediaType.TEXT_PLAIN)))
+                .verifyComplete();
+        dispatcher.close();
+
+        // then
+        assertEquals("-", appender.events.get(0).get("AL_REQUEST_BODY_LENGTH"));
+        assertEquals("{\"a\":1}", appender.events.get(1).get("AL_REQUEST_BODY"));
+    }
+
+    private static WebFilterChain echo(String body, MediaType contentType) {
+        return exchange -> readBody(exchange).then(Mono.defer(() -> {
+            exchange.getResponse().getHeaders().setContentType(contentType);
+            return exchange.getResponse().writeWith(Mono.just(buffer(body)));
+        }));
+    }
+
+    private static Mono<Void> readBody(ServerWebExchange exchange) {
+        return exchange.getRequest().getBody().then();
+    }
+
+    private static DataBuffer buffer(String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class CapturingAppender extends AbstractAppender {
+        private final List<Map<String, String>> events = new CopyOnWriteArrayList<>();
+        private final List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        private CapturingAppender() {
+            super("capturing", null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(LogEvent event) {
+            events.add(event.getContextData().toMap());
+            threadNames.add(event.getThreadName());
+        }
+    }
+}